@@ -0,0 +1,43 @@
+package de.unistuttgart.iste.meitrex.course_service.benchmark;
+
+import de.unistuttgart.iste.meitrex.course_service.persistence.validation.ChapterValidator;
+import de.unistuttgart.iste.meitrex.generated.dto.CreateChapterInput;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the validation of the input of the createChapter mutation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ChapterValidatorBenchmark {
+
+    private final ChapterValidator chapterValidator = new ChapterValidator();
+
+    private CreateChapterInput input;
+
+    @Setup
+    public void setUp() {
+        // all optional dates are set, so that every check of the validator is executed
+        input = CreateChapterInput.builder()
+                .setTitle("Chapter 1")
+                .setDescription("Description of chapter 1")
+                .setNumber(1)
+                .setStartDate(OffsetDateTime.parse("2024-04-01T00:00:00Z"))
+                .setEndDate(OffsetDateTime.parse("2024-05-01T00:00:00Z"))
+                .setSuggestedStartDate(OffsetDateTime.parse("2024-04-08T00:00:00Z"))
+                .setSuggestedEndDate(OffsetDateTime.parse("2024-04-22T00:00:00Z"))
+                .setCourseId(UUID.randomUUID())
+                .build();
+    }
+
+    @Benchmark
+    public CreateChapterInput validateCreateChapterInput() {
+        chapterValidator.validateCreateChapterInput(input);
+        return input;
+    }
+}
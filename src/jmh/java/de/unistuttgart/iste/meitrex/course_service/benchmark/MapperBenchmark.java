@@ -0,0 +1,82 @@
+package de.unistuttgart.iste.meitrex.course_service.benchmark;
+
+import de.unistuttgart.iste.meitrex.common.util.PaginationUtil;
+import de.unistuttgart.iste.meitrex.course_service.persistence.entity.CourseEntity;
+import de.unistuttgart.iste.meitrex.course_service.persistence.mapper.CourseMapper;
+import de.unistuttgart.iste.meitrex.course_service.persistence.mapper.CourseMapperImpl;
+import de.unistuttgart.iste.meitrex.generated.dto.*;
+import org.modelmapper.ModelMapper;
+import org.modelmapper.convention.MatchingStrategies;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Benchmarks the mapping of course entities to DTOs, as done for every element of a course list query.
+ * The reflective ModelMapper, which was used before the generated mappers, is benchmarked as a baseline.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MapperBenchmark {
+
+    @Param({"10", "100", "1000"})
+    private int size;
+
+    private final CourseMapper courseMapper = new CourseMapperImpl();
+    private ModelMapper modelMapper;
+
+    private List<CourseEntity> courseEntities;
+    private PaginationInfo paginationInfo;
+
+    @Setup
+    public void setUp() {
+        modelMapper = new ModelMapper();
+        modelMapper.getConfiguration().setMatchingStrategy(MatchingStrategies.STRICT);
+
+        courseEntities = IntStream.range(0, size)
+                .mapToObj(MapperBenchmark::createCourseEntity)
+                .toList();
+        paginationInfo = PaginationUtil.unpagedPaginationInfo(size);
+    }
+
+    @Benchmark
+    public Course entityToDto() {
+        return courseMapper.entityToDto(courseEntities.getFirst());
+    }
+
+    @Benchmark
+    public CoursePayload createPayload() {
+        return courseMapper.createPayload(courseEntities.stream(), paginationInfo);
+    }
+
+    @Benchmark
+    public Course modelMapperEntityToDto() {
+        return modelMapper.map(courseEntities.getFirst(), Course.class);
+    }
+
+    @Benchmark
+    public CoursePayload modelMapperCreatePayload() {
+        return CoursePayload.builder()
+                .setElements(courseEntities.stream().map(entity -> modelMapper.map(entity, Course.class)).toList())
+                .setPagination(paginationInfo)
+                .build();
+    }
+
+    private static CourseEntity createCourseEntity(final int index) {
+        return CourseEntity.builder()
+                .id(UUID.randomUUID())
+                .title("Course " + index)
+                .description("Description of course " + index)
+                .startDate(OffsetDateTime.parse("2024-04-01T00:00:00Z"))
+                .endDate(OffsetDateTime.parse("2024-09-30T00:00:00Z"))
+                .published(index % 2 == 0)
+                .startYear(2024)
+                .yearDivision(YearDivision.FIRST_SEMESTER)
+                .build();
+    }
+}
@@ -0,0 +1,103 @@
+package de.unistuttgart.iste.meitrex.course_service.benchmark;
+
+import de.unistuttgart.iste.meitrex.course_service.persistence.entity.ChapterEntity;
+import de.unistuttgart.iste.meitrex.course_service.persistence.entity.CourseEntity;
+import de.unistuttgart.iste.meitrex.course_service.persistence.specification.ChapterFilterSpecification;
+import de.unistuttgart.iste.meitrex.course_service.persistence.specification.CourseFilterSpecification;
+import de.unistuttgart.iste.meitrex.generated.dto.ChapterFilter;
+import de.unistuttgart.iste.meitrex.generated.dto.CourseFilter;
+import de.unistuttgart.iste.meitrex.generated.dto.StringFilter;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.cfg.Configuration;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks building the predicates of deeply nested course and chapter filters.
+ * Each level of the filter tree contains an and, an or and a not branch.
+ * <p>
+ * The specifications are turned into predicates with the criteria builder of a Hibernate session factory on an
+ * in-memory H2 database, as the repositories do it for every filtered query.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SpecificationBenchmark {
+
+    @Param({"1", "4", "8"})
+    private int depth;
+
+    private SessionFactory sessionFactory;
+    private CriteriaBuilder criteriaBuilder;
+
+    private CourseFilter courseFilter;
+    private ChapterFilter chapterFilter;
+
+    @Setup
+    public void setUp() {
+        sessionFactory = new Configuration()
+                .addAnnotatedClass(CourseEntity.class)
+                .addAnnotatedClass(ChapterEntity.class)
+                .setProperty(AvailableSettings.JAKARTA_JDBC_URL, "jdbc:h2:mem:benchmark")
+                .buildSessionFactory();
+        criteriaBuilder = sessionFactory.getCriteriaBuilder();
+
+        courseFilter = createCourseFilter(depth);
+        chapterFilter = createChapterFilter(depth);
+    }
+
+    @TearDown
+    public void tearDown() {
+        sessionFactory.close();
+    }
+
+    @Benchmark
+    public Predicate courseFilter() {
+        return toPredicate(CourseFilterSpecification.courseFilter(courseFilter), CourseEntity.class);
+    }
+
+    @Benchmark
+    public Predicate chapterFilter() {
+        return toPredicate(ChapterFilterSpecification.chapterFilter(chapterFilter), ChapterEntity.class);
+    }
+
+    private <T> Predicate toPredicate(final Specification<T> specification, final Class<T> entityClass) {
+        final CriteriaQuery<T> query = criteriaBuilder.createQuery(entityClass);
+        return specification.toPredicate(query.from(entityClass), query, criteriaBuilder);
+    }
+
+    private static CourseFilter createCourseFilter(final int depth) {
+        final CourseFilter.Builder builder = CourseFilter.builder()
+                .setTitle(StringFilter.builder().setContains("course").build())
+                .setPublished(true);
+
+        if (depth > 0) {
+            builder.setAnd(List.of(createCourseFilter(depth - 1), createCourseFilter(depth - 1)))
+                    .setOr(List.of(createCourseFilter(depth - 1)))
+                    .setNot(createCourseFilter(depth - 1));
+        }
+
+        return builder.build();
+    }
+
+    private static ChapterFilter createChapterFilter(final int depth) {
+        final ChapterFilter.Builder builder = ChapterFilter.builder()
+                .setTitle(StringFilter.builder().setContains("chapter").build())
+                .setDescription(StringFilter.builder().setContains("description").build());
+
+        if (depth > 0) {
+            builder.setAnd(List.of(createChapterFilter(depth - 1), createChapterFilter(depth - 1)))
+                    .setOr(List.of(createChapterFilter(depth - 1)))
+                    .setNot(createChapterFilter(depth - 1));
+        }
+
+        return builder.build();
+    }
+}
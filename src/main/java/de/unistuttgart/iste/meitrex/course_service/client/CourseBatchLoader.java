@@ -0,0 +1,143 @@
+package de.unistuttgart.iste.meitrex.course_service.client;
+
+import de.unistuttgart.iste.meitrex.course_service.exception.CourseServiceConnectionException;
+import de.unistuttgart.iste.meitrex.generated.dto.Course;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Collects the course lookups that are requested within a short window and fetches them with a single
+ * {@code coursesByIds} query, so that callers looking up courses one by one, e.g., in a loop or in concurrent
+ * requests, do not cause one round trip per course.
+ * <p>
+ * A batch is sent when the window of its first lookup has elapsed or when it reaches the maximum batch size,
+ * whichever happens first. Lookups of the same course within a window share the result. If the batch fails because
+ * a course does not exist, the courses are fetched separately, any other failure is reported to all callers.
+ */
+@Slf4j
+class CourseBatchLoader {
+
+    private final Function<List<UUID>, Mono<List<Course>>> batchQuery;
+    private final Duration batchWindow;
+    private final int maxBatchSize;
+
+    private final Object lock = new Object();
+    /**
+     * The lookups of the current window by course id, replaced by a new map when the batch is sent.
+     */
+    private Map<UUID, Sinks.One<Course>> pending = new LinkedHashMap<>();
+
+    /**
+     * @param batchQuery   queries the courses with the given ids, failing if one of them does not exist
+     * @param batchWindow  how long lookups are collected before the batch is sent
+     * @param maxBatchSize the number of courses after which the batch is sent before the window has elapsed
+     */
+    CourseBatchLoader(final Function<List<UUID>, Mono<List<Course>>> batchQuery,
+                      final Duration batchWindow,
+                      final int maxBatchSize) {
+        this.batchQuery = batchQuery;
+        this.batchWindow = batchWindow;
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    /**
+     * Adds the course to the current batch when subscribed.
+     *
+     * @param courseId the id of the course
+     * @return the course, or an error with a {@link CourseServiceConnectionException} if the course does not exist
+     * or could not be fetched
+     */
+    Mono<Course> load(final UUID courseId) {
+        return Mono.defer(() -> {
+            final Sinks.One<Course> sink;
+            Map<UUID, Sinks.One<Course>> fullBatch = null;
+            Map<UUID, Sinks.One<Course>> newWindow = null;
+
+            synchronized (lock) {
+                final Sinks.One<Course> existing = pending.get(courseId);
+                if (existing != null) {
+                    sink = existing;
+                } else {
+                    sink = Sinks.one();
+                    pending.put(courseId, sink);
+
+                    if (pending.size() == 1) {
+                        newWindow = pending;
+                    }
+                    if (pending.size() >= maxBatchSize) {
+                        fullBatch = pending;
+                        pending = new LinkedHashMap<>();
+                    }
+                }
+            }
+
+            if (fullBatch != null) {
+                execute(fullBatch);
+            } else if (newWindow != null) {
+                final Map<UUID, Sinks.One<Course>> window = newWindow;
+                Mono.delay(batchWindow).subscribe(ignored -> flush(window));
+            }
+
+            return sink.asMono();
+        });
+    }
+
+    /**
+     * Sends the batch of the elapsed window, unless it has already been sent because it was full.
+     */
+    private void flush(final Map<UUID, Sinks.One<Course>> window) {
+        synchronized (lock) {
+            if (pending != window) {
+                return;
+            }
+            pending = new LinkedHashMap<>();
+        }
+        execute(window);
+    }
+
+    private void execute(final Map<UUID, Sinks.One<Course>> batch) {
+        final List<UUID> courseIds = List.copyOf(batch.keySet());
+        log.debug("Fetching {} course(s) in one batch", courseIds.size());
+
+        batchQuery.apply(courseIds).subscribe(
+                courses -> complete(batch, courses),
+                error -> {
+                    if (courseIds.size() > 1 && CourseServiceClient.isNotFound(error)) {
+                        // the query fails as a whole if one of the courses does not exist, so the courses are
+                        // fetched separately to report the error only to the callers of the missing courses;
+                        // other failures, e.g., of the connection, would fail the single requests as well
+                        batch.forEach(this::executeSingle);
+                    } else {
+                        batch.values().forEach(sink -> sink.tryEmitError(error));
+                    }
+                });
+    }
+
+    private void executeSingle(final UUID courseId, final Sinks.One<Course> sink) {
+        batchQuery.apply(List.of(courseId)).subscribe(
+                courses -> complete(Map.of(courseId, sink), courses),
+                sink::tryEmitError);
+    }
+
+    private static void complete(final Map<UUID, Sinks.One<Course>> batch, final List<Course> courses) {
+        final Map<UUID, Course> coursesById = new HashMap<>();
+        for (final Course course : courses) {
+            coursesById.put(course.getId(), course);
+        }
+
+        batch.forEach((courseId, sink) -> {
+            final Course course = coursesById.get(courseId);
+            if (course != null) {
+                sink.tryEmitValue(course);
+            } else {
+                sink.tryEmitError(new CourseServiceConnectionException(
+                        "Entities(s) with id(s) %s not found".formatted(courseId)));
+            }
+        });
+    }
+}
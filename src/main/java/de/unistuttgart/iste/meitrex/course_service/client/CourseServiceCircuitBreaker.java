@@ -0,0 +1,136 @@
+package de.unistuttgart.iste.meitrex.course_service.client;
+
+import de.unistuttgart.iste.meitrex.course_service.exception.CourseServiceConnectionException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.lang.Nullable;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.function.Predicate;
+
+/**
+ * Circuit breaker of a {@link CourseServiceClient}, which stops sending requests to the course service while it
+ * fails, so that the retries of many callers do not add to the load of a slow or restarting service.
+ * <p>
+ * The breaker opens after the given number of consecutive failed calls. While it is open, calls fail immediately.
+ * After the open duration, the breaker becomes half-open and lets a single probe call through. If the probe
+ * succeeds, the breaker closes again, otherwise it stays open for another open duration.
+ * <p>
+ * The state is exposed as the {@code course_service_client.circuit_breaker.state} gauge if a {@link MeterRegistry}
+ * is given, with 0 for closed, 1 for open and 2 for half-open.
+ */
+@Slf4j
+public class CourseServiceCircuitBreaker {
+
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private final int failureThreshold;
+    private final Duration openDuration;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private Instant openedAt;
+    private boolean probeInFlight;
+
+    /**
+     * @param failureThreshold the number of consecutive failed calls after which the breaker opens
+     * @param openDuration     how long the breaker stays open before a probe call is let through
+     * @param meterRegistry    the registry to expose the state with, or null to not expose it
+     */
+    public CourseServiceCircuitBreaker(final int failureThreshold,
+                                       final Duration openDuration,
+                                       @Nullable final MeterRegistry meterRegistry) {
+        this.failureThreshold = failureThreshold;
+        this.openDuration = openDuration;
+
+        if (meterRegistry != null) {
+            Gauge.builder("course_service_client.circuit_breaker.state", this, breaker -> breaker.getState().ordinal())
+                    .description("State of the circuit breaker of the course service client, "
+                                 + "0 for closed, 1 for open and 2 for half-open")
+                    .register(meterRegistry);
+        }
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    /**
+     * Sends the call only if the breaker permits it and records its outcome.
+     *
+     * @param call       the call to the course service
+     * @param isFailure  whether an error of the call counts as a failure of the course service
+     * @return the result of the call, or an error with a {@link CourseServiceConnectionException} if the breaker is
+     * open
+     */
+    <T> Mono<T> protect(final Mono<T> call, final Predicate<Throwable> isFailure) {
+        return Mono.defer(() -> {
+            if (!tryAcquirePermission()) {
+                return Mono.error(new CourseServiceConnectionException(
+                        "Error fetching from CourseService: Circuit breaker is open"));
+            }
+            return call
+                    .doOnSuccess(ignored -> onSuccess())
+                    .doOnError(error -> {
+                        if (isFailure.test(error)) {
+                            onFailure();
+                        } else {
+                            onSuccess();
+                        }
+                    })
+                    .doOnCancel(this::releaseProbe);
+        });
+    }
+
+    private synchronized boolean tryAcquirePermission() {
+        if (state == State.OPEN && !Instant.now().isBefore(openedAt.plus(openDuration))) {
+            log.info("Circuit breaker of the course service client is half-open, sending a probe call");
+            state = State.HALF_OPEN;
+        }
+
+        return switch (state) {
+            case CLOSED -> true;
+            case OPEN -> false;
+            case HALF_OPEN -> {
+                if (probeInFlight) {
+                    yield false;
+                }
+                probeInFlight = true;
+                yield true;
+            }
+        };
+    }
+
+    private synchronized void onSuccess() {
+        if (state != State.CLOSED) {
+            log.info("Circuit breaker of the course service client is closed");
+        }
+        state = State.CLOSED;
+        consecutiveFailures = 0;
+        probeInFlight = false;
+    }
+
+    private synchronized void onFailure() {
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+            if (state != State.OPEN) {
+                log.warn("Circuit breaker of the course service client is open after {} failed call(s)",
+                        consecutiveFailures);
+            }
+            state = State.OPEN;
+            openedAt = Instant.now();
+            probeInFlight = false;
+        }
+    }
+
+    private synchronized void releaseProbe() {
+        probeInFlight = false;
+    }
+}
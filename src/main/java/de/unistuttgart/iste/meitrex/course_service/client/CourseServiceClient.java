@@ -3,110 +3,165 @@ package de.unistuttgart.iste.meitrex.course_service.client;
 
 import de.unistuttgart.iste.meitrex.generated.dto.Chapter;
 import lombok.extern.slf4j.Slf4j;
-import org.modelmapper.ModelMapper;
 import de.unistuttgart.iste.meitrex.course_service.exception.CourseServiceConnectionException;
 import de.unistuttgart.iste.meitrex.generated.dto.Course;
 import de.unistuttgart.iste.meitrex.generated.dto.CourseMembership;
 import org.springframework.graphql.client.ClientGraphQlResponse;
 import org.springframework.graphql.client.FieldAccessException;
 import org.springframework.graphql.client.GraphQlClient;
+import org.springframework.lang.Nullable;
 import org.springframework.orm.jpa.JpaObjectRetrievalFailureException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 import reactor.core.publisher.SynchronousSink;
 
 
+import java.time.Duration;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Slf4j
 /*
 Client allowing to query course info.
+The fetch methods return the results without blocking, the query methods block until the results are available.
+Course lookups by id that are requested within a short window are sent as a single coursesByIds query.
+The results can be cached by passing a CourseServiceClientCache.
+Failed requests are retried with a randomized exponential backoff according to the RetryPolicy, within a deadline
+per call. A CourseServiceCircuitBreaker per client stops sending requests while the course service keeps failing.
+The queries are sent as persisted queries, i.e., only the hash of the document is sent.
  */
 public class CourseServiceClient {
 
-    private static final long RETRY_COUNT = 3;
+    private static final Duration DEFAULT_BATCH_WINDOW = Duration.ofMillis(5);
+    private static final int DEFAULT_MAX_BATCH_SIZE = 100;
+    private static final int DEFAULT_FAILURE_THRESHOLD = 5;
+    private static final Duration DEFAULT_OPEN_DURATION = Duration.ofSeconds(30);
+
+    /**
+     * The persisted query extensions of the documents, so that they are not hashed on every request.
+     */
+    private static final Map<String, Map<String, Object>> PERSISTED_QUERY_EXTENSIONS =
+            QueryDefinitions.PERSISTED_DOCUMENTS.stream()
+                    .collect(Collectors.toMap(Function.identity(), PersistedQuery::extension));
+
     private final GraphQlClient graphQlClient;
+    private final CourseBatchLoader courseBatchLoader;
+    @Nullable
+    private final CourseServiceClientCache cache;
+    private final RetryPolicy retryPolicy;
+    private final CourseServiceCircuitBreaker circuitBreaker;
 
     public CourseServiceClient(GraphQlClient graphQlClient) {
+        this(graphQlClient, DEFAULT_BATCH_WINDOW, DEFAULT_MAX_BATCH_SIZE, null);
+    }
+
+    public CourseServiceClient(GraphQlClient graphQlClient, CourseServiceClientCache cache) {
+        this(graphQlClient, DEFAULT_BATCH_WINDOW, DEFAULT_MAX_BATCH_SIZE, cache);
+    }
 
+    public CourseServiceClient(GraphQlClient graphQlClient, Duration batchWindow, int maxBatchSize) {
+        this(graphQlClient, batchWindow, maxBatchSize, null);
+    }
+
+    public CourseServiceClient(GraphQlClient graphQlClient, Duration batchWindow, int maxBatchSize,
+                               @Nullable CourseServiceClientCache cache) {
+        this(graphQlClient, batchWindow, maxBatchSize, cache, RetryPolicy.DEFAULT,
+                new CourseServiceCircuitBreaker(DEFAULT_FAILURE_THRESHOLD, DEFAULT_OPEN_DURATION, null));
+    }
+
+    /**
+     * @param graphQlClient  the client used to send the queries to the course service
+     * @param batchWindow    how long course lookups are collected before they are sent as one query
+     * @param maxBatchSize   the number of courses after which a query is sent before the window has elapsed
+     * @param cache          the cache of the results, or null to not cache them
+     * @param retryPolicy    how failed requests are retried
+     * @param circuitBreaker the circuit breaker of this client, which must not be shared with other clients
+     */
+    public CourseServiceClient(GraphQlClient graphQlClient, Duration batchWindow, int maxBatchSize,
+                               @Nullable CourseServiceClientCache cache, RetryPolicy retryPolicy,
+                               CourseServiceCircuitBreaker circuitBreaker) {
         this.graphQlClient = graphQlClient;
+        this.courseBatchLoader = new CourseBatchLoader(this::fetchCoursesByIds, batchWindow, maxBatchSize);
+        this.cache = cache;
+        this.retryPolicy = retryPolicy;
+        this.circuitBreaker = circuitBreaker;
     }
 
     public List<Chapter> queryChapterByCourseId(final UUID courseId){
         log.info("queryContentByCourseId {}", courseId);
-        return graphQlClient.document(QueryDefinitions.CHAPTERS_BY_COURSEID)
-                .variable("courseId", courseId)
-                .retrieveSync(QueryDefinitions.CHAPTERS_BY_COURSEID_QUERY_NAME)
-                .toEntityList(Chapter.class);
+        return fetchChaptersByCourseId(courseId).collectList().block();
     }
-    public Course queryCourseById(final UUID courseId) throws CourseServiceConnectionException {
-        if (courseId == null) {
-            throw new CourseServiceConnectionException("Error fetching course from CourseService: Course ID cannot be null");
+
+    /**
+     * Fetches the chapters of a course without blocking.
+     */
+    public Flux<Chapter> fetchChaptersByCourseId(final UUID courseId) {
+        if (cache != null) {
+            return cache.getChapters(courseId, this::fetchChaptersByCourseIdUncached);
         }
+        return fetchChaptersByCourseIdUncached(courseId);
+    }
 
-        final String query =
-                """
-                query($courseId: UUID!) {
-                    coursesByIds(ids: [$courseId]) {
-                        id
-                        title
-                    }
-                }
-                """;
+    private Flux<Chapter> fetchChaptersByCourseIdUncached(final UUID courseId) {
+        return withResilience(execute(QueryDefinitions.CHAPTERS_BY_COURSEID, Map.of("courseId", courseId))
+                .handle((ClientGraphQlResponse result, SynchronousSink<List<Chapter>> sink) ->
+                        handleGraphQlResponse(result, sink, QueryDefinitions.CHAPTERS_BY_COURSEID_QUERY_NAME,
+                                Chapter.class, null)))
+                .flatMapIterable(chapters -> chapters);
+    }
 
-        final String queryName = "coursesByIds";
-        List<Course> courseList = null;
+    public Course queryCourseById(final UUID courseId) throws CourseServiceConnectionException {
+        Course course = null;
 
         try {
-            courseList = graphQlClient.document(query)
-                    .variable("courseId", courseId)
-                    .execute()
-                    .handle((ClientGraphQlResponse result, SynchronousSink<List<Course>> sink) ->
-                            handleGraphQlResponse(result, sink, queryName, Course.class,
-                                    "Entities(s) with id(s) %s not found".formatted(courseId)))
-                    .retry(RETRY_COUNT)
-                    .block();
-
+            course = fetchCourseById(courseId).block();
         } catch (RuntimeException e) {
             unwrapCourseServiceConnectionException(e);
         }
 
-        if (courseList == null || courseList.isEmpty()) {
+        if (course == null) {
             throw new CourseServiceConnectionException("Entities(s) with id(s) %s not found".formatted(courseId));
         }
 
-        return courseList.getFirst();
+        return course;
     }
 
-
-    public List<CourseMembership> queryMembershipsInCourse(final UUID courseId) throws CourseServiceConnectionException {
+    /**
+     * Fetches a course without blocking. The course is fetched together with the other courses requested
+     * within the batch window.
+     *
+     * @return the course, or an error with a {@link CourseServiceConnectionException} if the course does not exist
+     * or could not be fetched
+     */
+    public Mono<Course> fetchCourseById(final UUID courseId) {
         if (courseId == null) {
-            throw new CourseServiceConnectionException("Error fetching courseMemberships from CourseService: Course ID cannot be null");
+            return Mono.error(new CourseServiceConnectionException("Error fetching course from CourseService: Course ID cannot be null"));
         }
 
-        final String query =
-                """
-                query($courseId: UUID!) {
-                    _internal_noauth_courseMembershipsByCourseId(courseId: $courseId) {
-                        userId
-                        courseId
-                        role
-                    }
-                }
-                """;
+        if (cache != null) {
+            return cache.getCourse(courseId, courseBatchLoader::load);
+        }
+        return courseBatchLoader.load(courseId);
+    }
 
-        String queryName = "_internal_noauth_courseMembershipsByCourseId";
+    private Mono<List<Course>> fetchCoursesByIds(final List<UUID> courseIds) {
+        final String missingIds = courseIds.stream().map(UUID::toString).collect(Collectors.joining(", "));
 
+        return withResilience(execute(QueryDefinitions.COURSES_BY_IDS, Map.of("ids", courseIds))
+                .handle((ClientGraphQlResponse result, SynchronousSink<List<Course>> sink) ->
+                        handleGraphQlResponse(result, sink, QueryDefinitions.COURSES_BY_IDS_QUERY_NAME, Course.class,
+                                "Entities(s) with id(s) %s not found".formatted(missingIds))));
+    }
+
+    public List<CourseMembership> queryMembershipsInCourse(final UUID courseId) throws CourseServiceConnectionException {
         List<CourseMembership> courseMembershipList = null;
 
         try {
-            courseMembershipList = graphQlClient.document(query)
-                    .variable("courseId", courseId)
-                    .execute()
-                    .handle((ClientGraphQlResponse result, SynchronousSink<List<CourseMembership>> sink)
-                            -> handleGraphQlResponse(result, sink, queryName, CourseMembership.class,
-                            "Error fetching courseMemberships from CourseService: CourseMembership List is empty."))
-                    .retry(RETRY_COUNT)
-                    .block();
+            courseMembershipList = fetchMembershipsInCourse(courseId).collectList().block();
         } catch (RuntimeException e) {
             if (e.getCause() instanceof JpaObjectRetrievalFailureException && e.getMessage().contains("Entities(s) with id(s) %s not found".formatted(courseId))) {
                 throw new CourseServiceConnectionException(e.getMessage());
@@ -122,12 +177,83 @@ public class CourseServiceClient {
         return courseMembershipList;
     }
 
+    /**
+     * Fetches the memberships of a course without blocking.
+     *
+     * @return the memberships, or an error with a {@link CourseServiceConnectionException} if the course has no
+     * memberships or they could not be fetched
+     */
+    public Flux<CourseMembership> fetchMembershipsInCourse(final UUID courseId) {
+        if (courseId == null) {
+            return Flux.error(new CourseServiceConnectionException("Error fetching courseMemberships from CourseService: Course ID cannot be null"));
+        }
+
+        if (cache != null) {
+            return cache.getMemberships(courseId, this::fetchMembershipsInCourseUncached);
+        }
+        return fetchMembershipsInCourseUncached(courseId);
+    }
+
+    private Flux<CourseMembership> fetchMembershipsInCourseUncached(final UUID courseId) {
+        return withResilience(execute(QueryDefinitions.MEMBERSHIPS_BY_COURSEID, Map.of("courseId", courseId))
+                .handle((ClientGraphQlResponse result, SynchronousSink<List<CourseMembership>> sink)
+                        -> handleGraphQlResponse(result, sink, QueryDefinitions.MEMBERSHIPS_BY_COURSEID_QUERY_NAME,
+                        CourseMembership.class,
+                        "Error fetching courseMemberships from CourseService: CourseMembership List is empty.")))
+                .flatMapIterable(memberships -> memberships);
+    }
+
+    /**
+     * Sends the document as a persisted query. If the course service does not know the persisted query, e.g.,
+     * while an older version of it is deployed, the document is sent again in full together with its hash, upon
+     * which the course service registers it, so that the following requests can again be sent with the hash only.
+     */
+    Mono<ClientGraphQlResponse> execute(final String document, final Map<String, Object> variables) {
+        final Map<String, Object> extension = PERSISTED_QUERY_EXTENSIONS.containsKey(document)
+                ? PERSISTED_QUERY_EXTENSIONS.get(document)
+                : PersistedQuery.extension(document);
+
+        return graphQlClient.document(PersistedQuery.MARKER)
+                .variables(variables)
+                .extension(PersistedQuery.EXTENSION, extension)
+                .execute()
+                .flatMap(response -> PersistedQuery.isNotFound(response)
+                        ? graphQlClient.document(document)
+                                .variables(variables)
+                                .extension(PersistedQuery.EXTENSION, extension)
+                                .execute()
+                        : Mono.just(response));
+    }
+
+    /**
+     * Retries the request with backoff within the deadline of the call, and sends it only if the circuit breaker
+     * permits it. Results stating that the course does not exist are neither retried nor count as failures.
+     */
+    private <T> Mono<T> withResilience(final Mono<T> request) {
+        final Mono<T> call = request
+                .retryWhen(retryPolicy.toRetry(error -> !isNotFound(error)))
+                .timeout(retryPolicy.deadline())
+                .onErrorMap(TimeoutException.class, e -> new CourseServiceConnectionException(
+                        "Error fetching from CourseService: No response within %s".formatted(retryPolicy.deadline())));
+
+        return circuitBreaker.protect(call, error -> !isNotFound(error));
+    }
+
+    /**
+     * @return whether the error states that a requested entity does not exist, rather than that the request failed
+     */
+    static boolean isNotFound(final Throwable error) {
+        return error instanceof CourseServiceConnectionException
+               && error.getMessage() != null
+               && (error.getMessage().contains(" not found") || error.getMessage().contains("List is empty"));
+    }
+
     private <T> void handleGraphQlResponse(
             final ClientGraphQlResponse result,
             final SynchronousSink<List<T>> sink,
             final String queryName,
             final Class<T> clazz,
-            final String emptyListErrorMessage) {
+            @Nullable final String emptyListErrorMessage) {
 
         if (!result.isValid()) {
             sink.error(new CourseServiceConnectionException(result.getErrors().toString()));
@@ -143,7 +269,7 @@ public class CourseServiceClient {
             return;
         }
 
-        if (resultList.isEmpty()) {
+        if (resultList.isEmpty() && emptyListErrorMessage != null) {
             sink.error(new CourseServiceConnectionException(emptyListErrorMessage));
             return;
         }
@@ -0,0 +1,174 @@
+package de.unistuttgart.iste.meitrex.course_service.client;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import de.unistuttgart.iste.meitrex.common.event.CourseChangeEvent;
+import de.unistuttgart.iste.meitrex.common.event.UserCourseMembershipChangedEvent;
+import de.unistuttgart.iste.meitrex.course_service.exception.CourseServiceConnectionException;
+import de.unistuttgart.iste.meitrex.generated.dto.Chapter;
+import de.unistuttgart.iste.meitrex.generated.dto.Course;
+import de.unistuttgart.iste.meitrex.generated.dto.CourseMembership;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.lang.Nullable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Optional cache of the {@link CourseServiceClient} for the courses, chapters and memberships of courses.
+ * <p>
+ * The entries are evicted after a time to live and when the cache exceeds its maximum size. Results stating that a
+ * course does not exist or has no memberships are cached as well, with their own, usually shorter, time to live.
+ * Errors caused by the connection to the course service are not cached.
+ * <p>
+ * The course service publishes course deletions and membership changes. Services consuming these topics should pass
+ * the events to {@link #onCourseChanged(CourseChangeEvent)} and
+ * {@link #onUserCourseMembershipChanged(UserCourseMembershipChangedEvent)}, so that the affected entries are evicted
+ * immediately. Other changes, e.g., of course titles, become visible after the time to live.
+ * <p>
+ * The hits and misses of each cache are exposed as the {@code cache.gets} metric if a {@link MeterRegistry} is given.
+ * The cached objects are shared between the callers and must not be modified.
+ */
+@Slf4j
+public class CourseServiceClientCache {
+
+    private final AsyncCache<UUID, Result<Course>> courses;
+    private final AsyncCache<UUID, Result<List<Chapter>>> chapters;
+    private final AsyncCache<UUID, Result<List<CourseMembership>>> memberships;
+
+    /**
+     * @param maximumSize   the maximum number of entries of each of the caches
+     * @param ttl           how long fetched results are cached
+     * @param notFoundTtl   how long results stating that a course does not exist or has no memberships are cached,
+     *                      zero to not cache them
+     * @param meterRegistry the registry to expose the cache metrics with, or null to not expose them
+     */
+    public CourseServiceClientCache(final long maximumSize,
+                                    final Duration ttl,
+                                    final Duration notFoundTtl,
+                                    @Nullable final MeterRegistry meterRegistry) {
+        courses = buildCache(maximumSize, ttl, notFoundTtl);
+        chapters = buildCache(maximumSize, ttl, notFoundTtl);
+        memberships = buildCache(maximumSize, ttl, notFoundTtl);
+
+        if (meterRegistry != null) {
+            CaffeineCacheMetrics.monitor(meterRegistry, courses, "course_service_client.courses");
+            CaffeineCacheMetrics.monitor(meterRegistry, chapters, "course_service_client.chapters");
+            CaffeineCacheMetrics.monitor(meterRegistry, memberships, "course_service_client.memberships");
+        }
+    }
+
+    private static <T> AsyncCache<UUID, Result<T>> buildCache(final long maximumSize,
+                                                              final Duration ttl,
+                                                              final Duration notFoundTtl) {
+        return Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new Expiry<UUID, Result<T>>() {
+                    @Override
+                    public long expireAfterCreate(final UUID key, final Result<T> result, final long currentTime) {
+                        return (result.notFound() == null ? ttl : notFoundTtl).toNanos();
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(final UUID key, final Result<T> result, final long currentTime,
+                                                  final long currentDuration) {
+                        return expireAfterCreate(key, result, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(final UUID key, final Result<T> result, final long currentTime,
+                                                final long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .buildAsync();
+    }
+
+    /**
+     * Evicts the course and its chapters and memberships.
+     */
+    public void onCourseChanged(final CourseChangeEvent event) {
+        log.debug("Evicting course {} from the course service client cache", event.getCourseId());
+        courses.synchronous().invalidate(event.getCourseId());
+        chapters.synchronous().invalidate(event.getCourseId());
+        memberships.synchronous().invalidate(event.getCourseId());
+    }
+
+    /**
+     * Evicts the memberships of the course of the changed membership.
+     */
+    public void onUserCourseMembershipChanged(final UserCourseMembershipChangedEvent event) {
+        memberships.synchronous().invalidate(event.getCourseId());
+    }
+
+    /**
+     * Evicts all entries, e.g., after events may have been missed.
+     */
+    public void invalidateAll() {
+        courses.synchronous().invalidateAll();
+        chapters.synchronous().invalidateAll();
+        memberships.synchronous().invalidateAll();
+    }
+
+    Mono<Course> getCourse(final UUID courseId, final Function<UUID, Mono<Course>> loader) {
+        return get(courses, courseId, loader);
+    }
+
+    Flux<Chapter> getChapters(final UUID courseId, final Function<UUID, Flux<Chapter>> loader) {
+        return get(chapters, courseId, id -> loader.apply(id).collectList().map(List::copyOf))
+                .flatMapIterable(result -> result);
+    }
+
+    Flux<CourseMembership> getMemberships(final UUID courseId, final Function<UUID, Flux<CourseMembership>> loader) {
+        return get(memberships, courseId, id -> loader.apply(id).collectList().map(List::copyOf))
+                .flatMapIterable(result -> result);
+    }
+
+    /**
+     * Returns the cached result, or loads it once for all concurrent callers.
+     */
+    private static <T> Mono<T> get(final AsyncCache<UUID, Result<T>> cache,
+                                   final UUID courseId,
+                                   final Function<UUID, Mono<T>> loader) {
+        return Mono.fromFuture(() -> cache.get(courseId, (id, executor) -> loader.apply(id)
+                        .map(Result::found)
+                        // only the not-found results are cached, other errors are not stored by the cache
+                        .onErrorResume(error -> isNotFound(error, id), error -> Mono.just(
+                                Result.notFound((CourseServiceConnectionException) error)))
+                        .toFuture()),
+                        // the future is shared by all concurrent callers, so it must not be cancelled by one of them
+                        true)
+                .flatMap(result -> result.notFound() == null
+                        ? Mono.just(result.value())
+                        : Mono.error(result.notFound()));
+    }
+
+    private static boolean isNotFound(final Throwable error, final UUID courseId) {
+        return error instanceof CourseServiceConnectionException
+               && error.getMessage() != null
+               && (error.getMessage().contains("Entities(s) with id(s) %s not found".formatted(courseId))
+                   || error.getMessage().contains("CourseMembership List is empty"));
+    }
+
+    /**
+     * Result of a lookup, either the value or the error stating that the course was not found.
+     */
+    private record Result<T>(T value, CourseServiceConnectionException notFound) {
+
+        static <T> Result<T> found(final T value) {
+            return new Result<>(value, null);
+        }
+
+        static <T> Result<T> notFound(final CourseServiceConnectionException notFound) {
+            return new Result<>(null, notFound);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package de.unistuttgart.iste.meitrex.course_service.client;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import org.springframework.graphql.GraphQlResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+
+/**
+ * Persisted queries, which are sent by the {@link CourseServiceClient} as the hash of a document that the course
+ * service has registered, instead of the document itself.
+ * <p>
+ * The requests follow the format of Apollo's persisted queries: the hash is sent in the
+ * {@code persistedQuery} extension and the query text is replaced by a marker. If the course service does not know
+ * the hash, it answers with a {@value #NOT_FOUND_MESSAGE} error and the document has to be sent again in full,
+ * together with the hash, so that the course service registers it.
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public class PersistedQuery {
+
+    public static final String EXTENSION = "persistedQuery";
+    public static final String HASH_KEY = "sha256Hash";
+    /**
+     * Sent as the query text of persisted queries, as some servers reject requests without query text.
+     */
+    public static final String MARKER = "PersistedQueryMarker";
+    public static final String NOT_FOUND_MESSAGE = "PersistedQueryNotFound";
+
+    /**
+     * @return the value of the {@value #EXTENSION} extension referring to the given document
+     */
+    public static Map<String, Object> extension(final String document) {
+        return Map.of("version", 1, HASH_KEY, hash(document));
+    }
+
+    /**
+     * @return the hex encoded SHA-256 hash of the document
+     */
+    public static String hash(final String document) {
+        try {
+            final MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(document.getBytes(StandardCharsets.UTF_8)));
+        } catch (final NoSuchAlgorithmException e) {
+            // every Java platform is required to support SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * @return whether the server did not know the hash of the persisted query
+     */
+    public static boolean isNotFound(final GraphQlResponse response) {
+        return response.getErrors().stream().anyMatch(error -> NOT_FOUND_MESSAGE.equals(error.getMessage()));
+    }
+}
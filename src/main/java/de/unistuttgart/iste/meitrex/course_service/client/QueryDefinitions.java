@@ -3,6 +3,8 @@ package de.unistuttgart.iste.meitrex.course_service.client;
 import lombok.AccessLevel;
 import lombok.NoArgsConstructor;
 
+import java.util.List;
+
 @NoArgsConstructor(access = AccessLevel.PRIVATE)
 public class QueryDefinitions {
     public static final String CHAPTERS_BY_COURSEID = """
@@ -22,4 +24,36 @@ public class QueryDefinitions {
             """;
 
     public static final String CHAPTERS_BY_COURSEID_QUERY_NAME = "_internal_noauth_chaptersByCourseId";
+
+    public static final String COURSES_BY_IDS = """
+            query($ids: [UUID!]!) {
+                coursesByIds(ids: $ids) {
+                    id
+                    title
+                }
+            }
+            """;
+
+    public static final String COURSES_BY_IDS_QUERY_NAME = "coursesByIds";
+
+    public static final String MEMBERSHIPS_BY_COURSEID = """
+            query($courseId: UUID!) {
+                _internal_noauth_courseMembershipsByCourseId(courseId: $courseId) {
+                    userId
+                    courseId
+                    role
+                }
+            }
+            """;
+
+    public static final String MEMBERSHIPS_BY_COURSEID_QUERY_NAME = "_internal_noauth_courseMembershipsByCourseId";
+
+    /**
+     * The documents sent as {@link PersistedQuery persisted queries}, which the course service registers by their
+     * hash.
+     */
+    public static final List<String> PERSISTED_DOCUMENTS = List.of(
+            CHAPTERS_BY_COURSEID,
+            COURSES_BY_IDS,
+            MEMBERSHIPS_BY_COURSEID);
 }
@@ -0,0 +1,38 @@
+package de.unistuttgart.iste.meitrex.course_service.client;
+
+import reactor.util.retry.Retry;
+import reactor.util.retry.RetryBackoffSpec;
+
+import java.time.Duration;
+import java.util.function.Predicate;
+
+/**
+ * How the {@link CourseServiceClient} retries failed requests.
+ * <p>
+ * The delay between the attempts grows exponentially from {@code minBackoff} up to {@code maxBackoff}. Each delay
+ * is randomized by the jitter factor, so that callers which failed at the same time do not retry at the same time.
+ * The deadline limits the total time of a call including all of its retries.
+ *
+ * @param maxRetries the maximum number of retries after the first attempt
+ * @param minBackoff the delay before the first retry
+ * @param maxBackoff the maximum delay between two attempts
+ * @param jitter     the factor between 0 and 1 by which each delay is randomized
+ * @param deadline   the maximum time of a call including its retries
+ */
+public record RetryPolicy(int maxRetries, Duration minBackoff, Duration maxBackoff, double jitter, Duration deadline) {
+
+    public static final RetryPolicy DEFAULT =
+            new RetryPolicy(3, Duration.ofMillis(100), Duration.ofSeconds(2), 0.5, Duration.ofSeconds(10));
+
+    /**
+     * @param retryable whether a failure is retried, failures that will not change on a retry should not be
+     * @return the retry specification, which propagates the last failure once the retries are exhausted
+     */
+    RetryBackoffSpec toRetry(final Predicate<Throwable> retryable) {
+        return Retry.backoff(maxRetries, minBackoff)
+                .maxBackoff(maxBackoff)
+                .jitter(jitter)
+                .filter(retryable)
+                .onRetryExhaustedThrow((spec, signal) -> signal.failure());
+    }
+}
@@ -0,0 +1,23 @@
+package de.unistuttgart.iste.meitrex.course_service.config;
+
+import org.springframework.boot.autoconfigure.graphql.GraphQlSourceBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configures how the GraphQL requests are executed.
+ * <p>
+ * The documents of persisted queries are resolved by the {@link PersistedQueryDocumentProvider}, all other documents
+ * are cached by the {@link PreparsedDocumentCache}. The user of the request is added by the
+ * {@link RequestHeaderUserInterceptor}.
+ */
+@Configuration
+public class GraphQlConfiguration {
+
+    @Bean
+    public GraphQlSourceBuilderCustomizer preparsedDocumentProviderCustomizer(
+            final PersistedQueryDocumentProvider persistedQueryDocumentProvider) {
+        return builder -> builder.configureGraphQl(graphQl ->
+                graphQl.preparsedDocumentProvider(persistedQueryDocumentProvider));
+    }
+}
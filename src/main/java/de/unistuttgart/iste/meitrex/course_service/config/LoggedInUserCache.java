@@ -0,0 +1,101 @@
+package de.unistuttgart.iste.meitrex.course_service.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import de.unistuttgart.iste.meitrex.common.user_handling.LoggedInUser;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HexFormat;
+
+/**
+ * Cache for the {@link LoggedInUser} parsed from the user request header.
+ * <p>
+ * The header can get large if the user is a member of many courses. Entries are keyed by a hash of the raw header
+ * value, so that the header itself is not kept in memory, and expire after a configurable time. Parsing itself is
+ * left to the caller, see {@link RequestHeaderUserInterceptor}.
+ */
+@Component
+public class LoggedInUserCache {
+
+    private static final String CACHE_NAME = "loggedInUser";
+
+    private final Cache<String, LoggedInUser> cache;
+    private final Counter bytesSaved;
+
+    public LoggedInUserCache(final MeterRegistry meterRegistry,
+                             @Value("${current_user.cache.maximum_size:10000}") final long maximumSize,
+                             @Value("${current_user.cache.ttl:5m}") final Duration ttl) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+        this.bytesSaved = Counter.builder("cache.parse.bytes.saved")
+                .description("Number of header bytes that did not need to be parsed because of cache hits")
+                .baseUnit("bytes")
+                .tag("cache", CACHE_NAME)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns the user cached for the given header value.
+     * <p>
+     * The returned user is a copy of the cached one, so that changes made to it during a request, e.g. adding
+     * a course membership, do not leak into other requests.
+     *
+     * @param headerValue the raw value of the user header
+     * @return the user of the header, or null if no user is cached for it
+     */
+    public LoggedInUser getUser(final String headerValue) {
+        final byte[] headerBytes = headerValue.getBytes(StandardCharsets.UTF_8);
+        final LoggedInUser user = cache.getIfPresent(hash(headerBytes));
+        if (user == null) {
+            return null;
+        }
+
+        bytesSaved.increment(headerBytes.length);
+        return copyOf(user);
+    }
+
+    /**
+     * Caches the user parsed from the given header value. A copy is cached, so that the given user can still be
+     * changed by the request it was parsed for.
+     *
+     * @param headerValue the raw value of the user header
+     * @param user        the user parsed from the header value
+     */
+    public void putUser(final String headerValue, final LoggedInUser user) {
+        cache.put(hash(headerValue.getBytes(StandardCharsets.UTF_8)), copyOf(user));
+    }
+
+    private static LoggedInUser copyOf(final LoggedInUser user) {
+        final LoggedInUser copy = new LoggedInUser();
+        BeanUtils.copyProperties(user, copy);
+        if (user.getCourseMemberships() != null) {
+            copy.setCourseMemberships(new ArrayList<>(user.getCourseMemberships()));
+        }
+        return copy;
+    }
+
+    private static String hash(final byte[] headerBytes) {
+        try {
+            final MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(headerBytes));
+        } catch (final NoSuchAlgorithmException e) {
+            // every Java platform is required to support SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package de.unistuttgart.iste.meitrex.course_service.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import de.unistuttgart.iste.meitrex.course_service.client.PersistedQuery;
+import de.unistuttgart.iste.meitrex.course_service.client.QueryDefinitions;
+import graphql.ExecutionInput;
+import graphql.GraphqlErrorBuilder;
+import graphql.execution.preparsed.PreparsedDocumentEntry;
+import graphql.execution.preparsed.PreparsedDocumentProvider;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Resolves {@link PersistedQuery persisted queries}, which refer to a registered document by its hash instead of
+ * sending the document itself.
+ * <p>
+ * The documents sent by the {@link de.unistuttgart.iste.meitrex.course_service.client.CourseServiceClient} are
+ * registered at startup. Each of them is parsed and validated once, on its first request, and the result is reused
+ * for all following requests. Requests with an unknown hash are answered with a
+ * {@value PersistedQuery#NOT_FOUND_MESSAGE} error, upon which the client sends the document in full together with
+ * its hash. If the hash matches the document, the document is executed and registered for the following requests
+ * with the hash only. The number of documents registered this way is bounded, rarely used ones are removed
+ * first.
+ * <p>
+ * Requests that are not persisted queries and the documents registered by clients are parsed and validated through
+ * the {@link PreparsedDocumentCache}.
+ */
+@Component
+@Slf4j
+public class PersistedQueryDocumentProvider implements PreparsedDocumentProvider {
+
+    static final String HASH_MISMATCH_MESSAGE = "provided sha does not match query";
+
+    private final PreparsedDocumentCache preparsedDocumentCache;
+
+    /**
+     * The registered documents by their hash.
+     */
+    private final Map<String, String> documents = QueryDefinitions.PERSISTED_DOCUMENTS.stream()
+            .collect(Collectors.toUnmodifiableMap(PersistedQuery::hash, Function.identity()));
+
+    /**
+     * The parsed and validated documents by their hash.
+     */
+    private final Map<String, PreparsedDocumentEntry> preparsedDocuments = new ConcurrentHashMap<>();
+
+    /**
+     * The documents registered by clients by their hash.
+     */
+    private final Cache<String, String> clientDocuments;
+
+    public PersistedQueryDocumentProvider(
+            final PreparsedDocumentCache preparsedDocumentCache,
+            @Value("${graphql.persisted_queries.maximum_size:1000}") final long maximumSize) {
+        this.preparsedDocumentCache = preparsedDocumentCache;
+        this.clientDocuments = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .build();
+    }
+
+    @Override
+    public CompletableFuture<PreparsedDocumentEntry> getDocumentAsync(
+            final ExecutionInput executionInput,
+            final Function<ExecutionInput, PreparsedDocumentEntry> parseAndValidateFunction) {
+        return CompletableFuture.completedFuture(getDocument(executionInput, parseAndValidateFunction));
+    }
+
+    // not annotated with @Override, as the synchronous variant is deprecated and no longer required by newer
+    // versions of graphql-java
+    public PreparsedDocumentEntry getDocument(
+            final ExecutionInput executionInput,
+            final Function<ExecutionInput, PreparsedDocumentEntry> parseAndValidateFunction) {
+        final String hash = getHash(executionInput);
+        if (hash == null) {
+            return preparsedDocumentCache.getDocument(executionInput, parseAndValidateFunction);
+        }
+
+        final String document = documents.get(hash);
+        if (document != null) {
+            return preparsedDocuments.computeIfAbsent(hash, ignored ->
+                    parseAndValidateFunction.apply(executionInput.transform(builder -> builder.query(document))));
+        }
+
+        final String query = executionInput.getQuery();
+        if (query != null && !query.isBlank() && !PersistedQuery.MARKER.equals(query)) {
+            if (!PersistedQuery.hash(query).equals(hash)) {
+                return error(HASH_MISMATCH_MESSAGE, "PERSISTED_QUERY_HASH_MISMATCH");
+            }
+            clientDocuments.put(hash, query);
+            return preparsedDocumentCache.getDocument(executionInput, parseAndValidateFunction);
+        }
+
+        final String clientDocument = clientDocuments.getIfPresent(hash);
+        if (clientDocument == null) {
+            log.debug("Persisted query with hash {} is not registered", hash);
+            return error(PersistedQuery.NOT_FOUND_MESSAGE, "PERSISTED_QUERY_NOT_FOUND");
+        }
+        return preparsedDocumentCache.getDocument(executionInput.transform(builder -> builder.query(clientDocument)),
+                parseAndValidateFunction);
+    }
+
+    private static PreparsedDocumentEntry error(final String message, final String code) {
+        return new PreparsedDocumentEntry(GraphqlErrorBuilder.newError()
+                .message(message)
+                .extensions(Map.of("code", code))
+                .build());
+    }
+
+    /**
+     * @return the hash of the persisted query, or null if the request is not a persisted query
+     */
+    private static String getHash(final ExecutionInput executionInput) {
+        if (executionInput.getExtensions() == null
+            || !(executionInput.getExtensions().get(PersistedQuery.EXTENSION) instanceof final Map<?, ?> extension)
+            || !(extension.get(PersistedQuery.HASH_KEY) instanceof final String hash)) {
+            return null;
+        }
+        return hash;
+    }
+}
@@ -0,0 +1,90 @@
+package de.unistuttgart.iste.meitrex.course_service.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import graphql.ExecutionInput;
+import graphql.execution.preparsed.PreparsedDocumentEntry;
+import graphql.execution.preparsed.PreparsedDocumentProvider;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/**
+ * Cache for the parsed and validated GraphQL documents, keyed by the query text.
+ * <p>
+ * Most requests are sent with one of a few query texts by the frontend and the other services, which then do not
+ * need to be parsed and validated again. Documents with parse or validation errors are not cached. The hit ratio is
+ * exposed as the {@code cache.hit.ratio} gauge and the parse and validation time of the hits as the
+ * {@code cache.parse.time.saved} counter.
+ */
+@Component
+public class PreparsedDocumentCache implements PreparsedDocumentProvider {
+
+    private static final String CACHE_NAME = "graphqlDocument";
+
+    private final Cache<String, CachedDocument> cache;
+    private final Counter parseTimeSaved;
+
+    /**
+     * @param parseNanos how long parsing and validating the document took
+     */
+    private record CachedDocument(PreparsedDocumentEntry entry, long parseNanos) {
+    }
+
+    public PreparsedDocumentCache(final MeterRegistry meterRegistry,
+                                  @Value("${graphql.document_cache.maximum_size:1000}") final long maximumSize) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+        Gauge.builder("cache.hit.ratio", cache, c -> c.stats().hitRate())
+                .description("Ratio of the lookups that were served from the cache")
+                .tag("cache", CACHE_NAME)
+                .register(meterRegistry);
+        this.parseTimeSaved = Counter.builder("cache.parse.time.saved")
+                .description("Time that was not spent parsing and validating documents because of cache hits")
+                .baseUnit("seconds")
+                .tag("cache", CACHE_NAME)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public CompletableFuture<PreparsedDocumentEntry> getDocumentAsync(
+            final ExecutionInput executionInput,
+            final Function<ExecutionInput, PreparsedDocumentEntry> parseAndValidateFunction) {
+        return CompletableFuture.completedFuture(getDocument(executionInput, parseAndValidateFunction));
+    }
+
+    /**
+     * Returns the parsed and validated document of the query text. The document is only parsed and validated if
+     * it is not cached.
+     */
+    // not annotated with @Override, as the synchronous variant is deprecated and no longer required by newer
+    // versions of graphql-java
+    public PreparsedDocumentEntry getDocument(
+            final ExecutionInput executionInput,
+            final Function<ExecutionInput, PreparsedDocumentEntry> parseAndValidateFunction) {
+        final String query = executionInput.getQuery();
+
+        final CachedDocument cached = cache.getIfPresent(query);
+        if (cached != null) {
+            parseTimeSaved.increment(cached.parseNanos() / 1e9);
+            return cached.entry();
+        }
+
+        final long start = System.nanoTime();
+        final PreparsedDocumentEntry entry = parseAndValidateFunction.apply(executionInput);
+        if (!entry.hasErrors()) {
+            cache.put(query, new CachedDocument(entry, System.nanoTime() - start));
+        }
+        return entry;
+    }
+}
@@ -1,24 +1,77 @@
 package de.unistuttgart.iste.meitrex.course_service.config;
 
+import de.unistuttgart.iste.meitrex.common.user_handling.LoggedInUser;
 import de.unistuttgart.iste.meitrex.common.user_handling.RequestHeaderUserProcessor;
 import lombok.SneakyThrows;
 import org.jetbrains.annotations.NotNull;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.graphql.server.*;
 import reactor.core.publisher.Mono;
 
+import java.util.List;
+import java.util.Map;
+
 /**
  * This class is used to add data from the request headers to the GraphQL context.
+ * The user is parsed by the {@link RequestHeaderUserProcessor} of the common library, but only if it is not cached
+ * in the {@link LoggedInUserCache} yet.
  */
 @Configuration
 public class RequestHeaderUserInterceptor implements WebGraphQlInterceptor {
 
+    // must match the header and context key used by the RequestHeaderUserProcessor
+    private static final String CURRENT_USER_HEADER = "CurrentUser";
+    private static final String CURRENT_USER_CONTEXT_KEY = "currentUser";
+
+    private final LoggedInUserCache loggedInUserCache;
+    private final UserProcessor userProcessor;
+
+    @Autowired
+    public RequestHeaderUserInterceptor(final LoggedInUserCache loggedInUserCache) {
+        this(loggedInUserCache, RequestHeaderUserProcessor::process);
+    }
+
+    RequestHeaderUserInterceptor(final LoggedInUserCache loggedInUserCache, final UserProcessor userProcessor) {
+        this.loggedInUserCache = loggedInUserCache;
+        this.userProcessor = userProcessor;
+    }
+
     @NotNull
     @Override
     @SneakyThrows
     public Mono<WebGraphQlResponse> intercept(@NotNull final WebGraphQlRequest request, @NotNull final Chain chain) {
-        RequestHeaderUserProcessor.process(request);
+        final List<String> userHeaderValues = request.getHeaders().get(CURRENT_USER_HEADER);
+
+        if (userHeaderValues != null && userHeaderValues.size() == 1) {
+            final String headerValue = userHeaderValues.getFirst();
+            final LoggedInUser cachedUser = loggedInUserCache.getUser(headerValue);
+            if (cachedUser != null) {
+                request.configureExecutionInput((executionInput, builder) ->
+                        builder.graphQLContext(Map.of(CURRENT_USER_CONTEXT_KEY, cachedUser)).build());
+            } else {
+                userProcessor.process(request);
+                // caches the user the library added to the context when the request is executed, instead of
+                // reading it back now, which would let the library parse the header a second time
+                request.configureExecutionInput((executionInput, builder) -> {
+                    final LoggedInUser parsedUser = executionInput.getGraphQLContext().get(CURRENT_USER_CONTEXT_KEY);
+                    if (parsedUser != null) {
+                        loggedInUserCache.putUser(headerValue, parsedUser);
+                    }
+                    return executionInput;
+                });
+            }
+        }
+
         return chain.next(request);
     }
 
+    /**
+     * Parses the user header into the context of the request, {@link RequestHeaderUserProcessor#process} by default.
+     */
+    @FunctionalInterface
+    interface UserProcessor {
+        void process(WebGraphQlRequest request) throws Exception;
+    }
+
 }
@@ -0,0 +1,36 @@
+package de.unistuttgart.iste.meitrex.course_service.controller;
+
+import de.unistuttgart.iste.meitrex.course_service.service.CacheInvalidationPublisher;
+import de.unistuttgart.iste.meitrex.course_service.service.CourseCache;
+import de.unistuttgart.iste.meitrex.course_service.service.MembershipLookup;
+import io.dapr.Topic;
+import io.dapr.client.domain.CloudEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * Receives the cache invalidation messages published by the replicas of this service.
+ */
+@Slf4j
+@RestController
+@RequiredArgsConstructor
+public class CacheInvalidationController {
+
+    private final CourseCache courseCache;
+    private final MembershipLookup membershipLookup;
+
+    @Topic(name = CacheInvalidationPublisher.COURSE_CACHE_TOPIC, pubsubName = CacheInvalidationPublisher.PUBSUB_NAME)
+    @PostMapping(path = "/course-cache-invalidated-pubsub")
+    public void onCourseCacheInvalidated(@RequestBody final CloudEvent<CourseCache.Invalidation> cloudEvent) {
+        log.debug("Evicting course {} from the cache", cloudEvent.getData().courseId());
+        courseCache.evict(cloudEvent.getData().courseId());
+    }
+
+    @Topic(name = CacheInvalidationPublisher.MEMBERSHIP_CACHE_TOPIC, pubsubName = CacheInvalidationPublisher.PUBSUB_NAME)
+    @PostMapping(path = "/membership-cache-invalidated-pubsub")
+    public void onMembershipCacheInvalidated(@RequestBody final CloudEvent<MembershipLookup.Invalidation> cloudEvent) {
+        log.debug("Refreshing memberships of course {}", cloudEvent.getData().courseId());
+        membershipLookup.invalidate(cloudEvent.getData());
+    }
+}
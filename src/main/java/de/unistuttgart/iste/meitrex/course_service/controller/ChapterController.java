@@ -5,12 +5,16 @@ import de.unistuttgart.iste.meitrex.common.user_handling.UserCourseAccessValidat
 import de.unistuttgart.iste.meitrex.course_service.service.ChapterService;
 import de.unistuttgart.iste.meitrex.generated.dto.*;
 import lombok.extern.slf4j.Slf4j;
+import org.dataloader.DataLoader;
 import org.springframework.graphql.data.method.annotation.*;
+import org.springframework.graphql.execution.BatchLoaderRegistry;
 import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Controller;
+import reactor.core.publisher.Mono;
 
-import java.util.List;
-import java.util.UUID;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
 
 @Controller
 @Slf4j
@@ -18,8 +22,13 @@ public class ChapterController {
 
     private final ChapterService chapterService;
 
-    public ChapterController(final ChapterService chapterService) {
+    public ChapterController(final ChapterService chapterService, final BatchLoaderRegistry batchLoaderRegistry) {
         this.chapterService = chapterService;
+
+        // the chapters field of courses has arguments, which @BatchMapping does not support,
+        // so the batch loader is registered manually and keyed by the course id and the arguments
+        batchLoaderRegistry.forTypePair(CourseChaptersKey.class, ChapterPayload.class)
+                .registerMappedBatchLoader((keys, environment) -> Mono.fromCallable(() -> loadChapters(keys)));
     }
 
 
@@ -54,17 +63,19 @@ public class ChapterController {
     }
 
     @SchemaMapping(typeName = "Course", field = "chapters")
-    public ChapterPayload chapters(final Course course,
-                                   @Argument("filter") @Nullable final ChapterFilter filter,
-                                   @Argument("sortBy") final List<String> sortBy,
-                                   @Argument("sortDirection") final List<SortDirection> sortDirection,
-                                   @Argument("pagination") @Nullable final Pagination pagination,
-                                   @ContextValue final LoggedInUser currentUser) {
+    public CompletableFuture<ChapterPayload> chapters(final Course course,
+                                                      @Argument("filter") @Nullable final ChapterFilter filter,
+                                                      @Argument("sortBy") final List<String> sortBy,
+                                                      @Argument("sortDirection") final List<SortDirection> sortDirection,
+                                                      @Argument("pagination") @Nullable final Pagination pagination,
+                                                      @ContextValue final LoggedInUser currentUser,
+                                                      final DataLoader<CourseChaptersKey, ChapterPayload> chapterLoader) {
         UserCourseAccessValidator.validateUserHasAccessToCourse(currentUser,
                 LoggedInUser.UserRoleInCourse.STUDENT,
                 course.getId());
 
-        return chapterService.getChapters(course.getId(), filter, sortBy, sortDirection, pagination);
+        return chapterLoader.load(new CourseChaptersKey(course.getId(),
+                new ChaptersArguments(filter, sortBy, sortDirection, pagination)));
     }
 
     @QueryMapping(name = "_internal_noauth_chaptersByIds")
@@ -77,8 +88,52 @@ public class ChapterController {
         return chapterService.getChaptersByCourseId(courseId);
     }
 
-    @SchemaMapping(typeName = "Chapter", field = "course")
-    public Course course(final Chapter chapter) {
-        return chapterService.getCourseForChapterId(chapter.getId());
+    @BatchMapping(typeName = "Chapter", field = "course")
+    public Map<Chapter, Course> course(final List<Chapter> chapters) {
+        return chapterService.getCoursesForChapters(chapters);
+    }
+
+    /**
+     * Loads the chapters of all courses of a batch. Keys with the same arguments are loaded together
+     * with a single query.
+     */
+    private Map<CourseChaptersKey, ChapterPayload> loadChapters(final Set<CourseChaptersKey> keys) {
+        final Map<CourseChaptersKey, ChapterPayload> result = new HashMap<>();
+
+        final Map<ChaptersArguments, List<CourseChaptersKey>> keysByArguments = keys.stream()
+                .collect(Collectors.groupingBy(CourseChaptersKey::arguments));
+
+        keysByArguments.forEach((arguments, keysWithArguments) -> {
+            final List<UUID> courseIds = keysWithArguments.stream()
+                    .map(CourseChaptersKey::courseId)
+                    .toList();
+
+            final Map<UUID, ChapterPayload> payloads = chapterService.getChaptersOfCourses(courseIds,
+                    arguments.filter(),
+                    arguments.sortBy(),
+                    arguments.sortDirection(),
+                    arguments.pagination());
+
+            for (final CourseChaptersKey key : keysWithArguments) {
+                result.put(key, payloads.get(key.courseId()));
+            }
+        });
+
+        return result;
+    }
+
+    /**
+     * The arguments of the chapters field of a course.
+     */
+    record ChaptersArguments(@Nullable ChapterFilter filter,
+                             List<String> sortBy,
+                             List<SortDirection> sortDirection,
+                             @Nullable Pagination pagination) {
+    }
+
+    /**
+     * Key of the chapter batch loader.
+     */
+    record CourseChaptersKey(UUID courseId, ChaptersArguments arguments) {
     }
 }
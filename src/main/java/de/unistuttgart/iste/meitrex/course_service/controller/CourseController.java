@@ -30,9 +30,10 @@ public class CourseController {
             @Argument(name = "filter") @Nullable final CourseFilter filter,
             @Argument(name = "sortBy") final List<String> sortBy,
             @Argument(name = "sortDirection") final List<SortDirection> sortDirection,
-            @Argument(name = "pagination") @Nullable final Pagination pagination
+            @Argument(name = "pagination") @Nullable final Pagination pagination,
+            @Argument(name = "cursorPagination") @Nullable final CursorPagination cursorPagination
     ) {
-        return courseService.getCourses(filter, sortBy, sortDirection, pagination);
+        return courseService.getCourses(filter, sortBy, sortDirection, pagination, cursorPagination);
     }
 
     @QueryMapping
@@ -3,24 +3,37 @@ package de.unistuttgart.iste.meitrex.course_service.controller;
 import de.unistuttgart.iste.meitrex.common.user_handling.LoggedInUser;
 import de.unistuttgart.iste.meitrex.course_service.service.MembershipService;
 import de.unistuttgart.iste.meitrex.generated.dto.*;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.dataloader.DataLoader;
 import org.springframework.graphql.data.method.annotation.*;
+import org.springframework.graphql.execution.BatchLoaderRegistry;
 import org.springframework.stereotype.Controller;
+import reactor.core.publisher.Mono;
 
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 import static de.unistuttgart.iste.meitrex.common.user_handling.LoggedInUser.UserRoleInCourse.ADMINISTRATOR;
 import static de.unistuttgart.iste.meitrex.common.user_handling.UserCourseAccessValidator.validateUserHasAccessToCourse;
 
 @Slf4j
 @Controller
-@RequiredArgsConstructor
 public class MembershipController {
 
+    private static final String COURSE_MEMBERSHIPS_LOADER = "courseMemberships";
+
     private final MembershipService membershipService;
 
+    public MembershipController(final MembershipService membershipService,
+                                final BatchLoaderRegistry batchLoaderRegistry) {
+        this.membershipService = membershipService;
+
+        batchLoaderRegistry.<UUID, List<CourseMembership>>forName(COURSE_MEMBERSHIPS_LOADER)
+                .registerMappedBatchLoader((courseIds, environment) ->
+                        Mono.fromCallable(() -> membershipService.getMembershipsOfCourses(courseIds)));
+    }
+
     @QueryMapping(name = "_internal_userIdsByCourseId")
     public List<UUID> userIdsByCourseId(@Argument UUID courseId) {
         return membershipService.getUserIdsOfCourse(courseId);
@@ -79,10 +92,12 @@ public class MembershipController {
     }
 
     @SchemaMapping(typeName = "Course", field = "memberships")
-    public List<CourseMembership> memberships(final Course course,
-                                              @ContextValue final LoggedInUser currentUser) {
+    public CompletableFuture<List<CourseMembership>> memberships(final Course course,
+                                                                 @ContextValue final LoggedInUser currentUser,
+                                                                 final DataLoader<UUID, List<CourseMembership>> courseMemberships) {
         validateUserHasAccessToCourse(currentUser, ADMINISTRATOR, course.getId());
 
-        return membershipService.getMembershipsOfCourse(course.getId());
+        // the access check is done per course, the memberships of all courses are then loaded in one batch
+        return courseMemberships.load(course.getId());
     }
 }
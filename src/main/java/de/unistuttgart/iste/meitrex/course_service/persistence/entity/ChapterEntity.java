@@ -3,10 +3,13 @@ package de.unistuttgart.iste.meitrex.course_service.persistence.entity;
 import de.unistuttgart.iste.meitrex.common.persistence.IWithId;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.SQLRestriction;
 
 import java.time.OffsetDateTime;
 import java.util.UUID;
 
+// deleted rows are kept as tombstones until they are purged and are excluded from all entity queries
+@SQLRestriction("deleted_at IS NULL")
 @Entity(name = "Chapter")
 @Data
 @Builder
@@ -42,4 +45,10 @@ public class ChapterEntity implements IWithId<UUID> {
     @Column(nullable = false, name = "course_id")
     private UUID courseId;
 
+    /**
+     * Time at which the chapter was deleted, null if it is not deleted.
+     */
+    @Column
+    private OffsetDateTime deletedAt;
+
 }
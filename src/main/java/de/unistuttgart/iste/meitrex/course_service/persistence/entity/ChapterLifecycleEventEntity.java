@@ -0,0 +1,49 @@
+package de.unistuttgart.iste.meitrex.course_service.persistence.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+/**
+ * A pending unlock or lock of a chapter, due at the start or end date of the chapter.
+ * Each chapter has at most one pending event of each kind. Events that failed to be processed are due again
+ * after a delay.
+ */
+@Entity(name = "ChapterLifecycleEvent")
+@IdClass(ChapterLifecycleEventPk.class)
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChapterLifecycleEventEntity {
+
+    @Id
+    @Column(nullable = false)
+    private UUID chapterId;
+
+    @Id
+    @Column(nullable = false, length = 16)
+    @Enumerated(EnumType.STRING)
+    private Kind kind;
+
+    @Column(nullable = false)
+    private OffsetDateTime dueAt;
+
+    /**
+     * Number of failed attempts to process the event.
+     */
+    @Column(nullable = false)
+    @Builder.Default
+    private int attempts = 0;
+
+    public ChapterLifecycleEventEntity(final UUID chapterId, final Kind kind, final OffsetDateTime dueAt) {
+        this(chapterId, kind, dueAt, 0);
+    }
+
+    public enum Kind {
+        UNLOCK,
+        LOCK
+    }
+}
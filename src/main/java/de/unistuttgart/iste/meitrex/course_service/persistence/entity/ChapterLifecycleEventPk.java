@@ -0,0 +1,17 @@
+package de.unistuttgart.iste.meitrex.course_service.persistence.entity;
+
+import lombok.*;
+
+import java.io.Serializable;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChapterLifecycleEventPk implements Serializable {
+
+    private UUID chapterId;
+
+    private ChapterLifecycleEventEntity.Kind kind;
+}
@@ -4,11 +4,14 @@ import de.unistuttgart.iste.meitrex.common.persistence.IWithId;
 import de.unistuttgart.iste.meitrex.generated.dto.YearDivision;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.SQLRestriction;
 
 import java.time.OffsetDateTime;
 import java.util.List;
 import java.util.UUID;
 
+// deleted rows are kept as tombstones until they are purged and are excluded from all entity queries
+@SQLRestriction("deleted_at IS NULL")
 @Entity(name = "Course")
 @Data
 @Builder
@@ -45,5 +48,10 @@ public class CourseEntity implements IWithId<UUID> {
     @Enumerated(EnumType.STRING)
     private YearDivision yearDivision;
 
+    /**
+     * Time at which the course was deleted, null if it is not deleted.
+     */
+    @Column
+    private OffsetDateTime deletedAt;
 
 }
@@ -0,0 +1,83 @@
+package de.unistuttgart.iste.meitrex.course_service.persistence.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.OffsetDateTime;
+
+/**
+ * An event that has been written together with an entity change and is waiting to be published.
+ * Events that could not be published are retried later and dead-lettered after too many failed attempts.
+ */
+@Entity(name = "OutboxEvent")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxEventEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 64)
+    @Enumerated(EnumType.STRING)
+    private Type type;
+
+    /**
+     * JSON representation of the event.
+     */
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String payload;
+
+    @Column(nullable = false)
+    private OffsetDateTime createdAt;
+
+    /**
+     * Number of failed attempts to publish the event.
+     */
+    @Column(nullable = false)
+    @Builder.Default
+    private int attempts = 0;
+
+    /**
+     * The error of the last failed attempt, null if publishing has not failed yet.
+     */
+    @Column(columnDefinition = "TEXT")
+    private String lastError;
+
+    /**
+     * Time from which the event is published again after a failed attempt, null if publishing has not failed yet.
+     */
+    @Column
+    private OffsetDateTime nextAttemptAt;
+
+    /**
+     * Time at which the event was given up after the maximum number of attempts. Dead-lettered events are kept in the
+     * outbox for inspection, but not published anymore.
+     */
+    @Column
+    private OffsetDateTime deadLetteredAt;
+
+    public enum Type {
+        COURSE_CHANGED,
+        CHAPTER_CHANGED,
+        /**
+         * A notification of the members of a course about a chapter that is unlocked or locked.
+         */
+        CHAPTER_NOTIFICATION,
+        USER_COURSE_MEMBERSHIP_CHANGED,
+        /**
+         * A batch of membership change events, stored as a JSON array.
+         */
+        USER_COURSE_MEMBERSHIPS_CHANGED,
+        /**
+         * An invalidation message of the course cache for the other replicas of this service.
+         */
+        COURSE_CACHE_INVALIDATED,
+        /**
+         * An invalidation message of the membership cache for the other replicas of this service.
+         */
+        MEMBERSHIP_CACHE_INVALIDATED
+    }
+}
@@ -0,0 +1,26 @@
+package de.unistuttgart.iste.meitrex.course_service.persistence.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+
+@Entity(name = "ScheduleCheckpoint")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ScheduleCheckpointEntity {
+
+    @Id
+    @Column(nullable = false, length = 64)
+    private String name;
+
+    @Column(nullable = false)
+    private LocalDate lastCompletedDay;
+
+    @Column(nullable = false)
+    private OffsetDateTime updatedAt;
+
+}
@@ -0,0 +1,28 @@
+package de.unistuttgart.iste.meitrex.course_service.persistence.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.OffsetDateTime;
+
+@Entity(name = "ScheduleLease")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ScheduleLeaseEntity {
+
+    @Id
+    @Column(nullable = false, length = 64)
+    private String name;
+
+    @Column(nullable = false)
+    private OffsetDateTime lockedUntil;
+
+    @Column(nullable = false)
+    private OffsetDateTime lockedAt;
+
+    @Column(nullable = false, length = 255)
+    private String lockedBy;
+
+}
@@ -2,32 +2,26 @@ package de.unistuttgart.iste.meitrex.course_service.persistence.mapper;
 
 import de.unistuttgart.iste.meitrex.course_service.persistence.entity.ChapterEntity;
 import de.unistuttgart.iste.meitrex.generated.dto.*;
-import lombok.RequiredArgsConstructor;
-import org.modelmapper.ModelMapper;
-import org.springframework.stereotype.Component;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 
 import java.util.stream.Stream;
 
-@Component
-@RequiredArgsConstructor
-public class ChapterMapper {
+@Mapper(config = MapperConfiguration.class)
+public interface ChapterMapper {
 
-    private final ModelMapper modelMapper;
+    @Mapping(target = "course.id", source = "courseId")
+    Chapter entityToDto(ChapterEntity chapterEntity);
 
-    public Chapter entityToDto(ChapterEntity chapterEntity) {
-        return modelMapper.map(chapterEntity, Chapter.class);
-    }
-
-    public ChapterEntity dtoToEntity(CreateChapterInput chapterInput) {
-        ChapterEntity entity = modelMapper.map(chapterInput, ChapterEntity.class);
-        return entity;
-    }
+    @Mapping(target = "id", ignore = true)
+    @Mapping(target = "deletedAt", ignore = true)
+    ChapterEntity dtoToEntity(CreateChapterInput chapterInput);
 
-    public ChapterEntity dtoToEntity(UpdateChapterInput input) {
-        return modelMapper.map(input, ChapterEntity.class);
-    }
+    @Mapping(target = "courseId", ignore = true)
+    @Mapping(target = "deletedAt", ignore = true)
+    ChapterEntity dtoToEntity(UpdateChapterInput input);
 
-    public ChapterPayload createChapterPayload(Stream<ChapterEntity> chapterEntities, PaginationInfo paginationInfo) {
+    default ChapterPayload createChapterPayload(Stream<ChapterEntity> chapterEntities, PaginationInfo paginationInfo) {
         return ChapterPayload.builder()
                 .setElements(chapterEntities.map(this::entityToDto).toList())
                 .setPagination(paginationInfo)
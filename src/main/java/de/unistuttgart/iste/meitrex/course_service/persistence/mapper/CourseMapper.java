@@ -2,34 +2,29 @@ package de.unistuttgart.iste.meitrex.course_service.persistence.mapper;
 
 import de.unistuttgart.iste.meitrex.course_service.persistence.entity.CourseEntity;
 import de.unistuttgart.iste.meitrex.generated.dto.*;
-import org.modelmapper.ModelMapper;
-import org.springframework.stereotype.Component;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 
 import java.util.stream.Stream;
 
-@Component
-public class CourseMapper {
+@Mapper(config = MapperConfiguration.class)
+public interface CourseMapper {
 
-    private final ModelMapper modelMapper;
+    // memberships are resolved by a separate resolver
+    @Mapping(target = "memberships", ignore = true)
+    Course entityToDto(CourseEntity courseEntity);
 
-    public CourseMapper(ModelMapper modelMapper) {
-        this.modelMapper = modelMapper;
-    }
-
-    public Course entityToDto(CourseEntity courseEntity) {
-        return modelMapper.map(courseEntity, Course.class);
-    }
+    @Mapping(target = "id", ignore = true)
+    @Mapping(target = "chapters", ignore = true)
+    @Mapping(target = "deletedAt", ignore = true)
+    CourseEntity dtoToEntity(CreateCourseInput courseInputDTO);
 
-    public CourseEntity dtoToEntity(CreateCourseInput courseInputDTO) {
-        return modelMapper.map(courseInputDTO, CourseEntity.class);
-    }
-
-    public CourseEntity dtoToEntity(UpdateCourseInput input) {
-        return modelMapper.map(input, CourseEntity.class);
-    }
+    @Mapping(target = "chapters", ignore = true)
+    @Mapping(target = "deletedAt", ignore = true)
+    CourseEntity dtoToEntity(UpdateCourseInput input);
 
-    public CoursePayload createPayload(Stream<CourseEntity> courseEntities,
-                                       PaginationInfo paginationInfo) {
+    default CoursePayload createPayload(Stream<CourseEntity> courseEntities,
+                                        PaginationInfo paginationInfo) {
         return CoursePayload.builder()
                 .setElements(courseEntities.map(this::entityToDto).toList())
                 .setPagination(paginationInfo)
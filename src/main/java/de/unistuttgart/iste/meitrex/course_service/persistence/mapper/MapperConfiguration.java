@@ -0,0 +1,17 @@
+package de.unistuttgart.iste.meitrex.course_service.persistence.mapper;
+
+import org.mapstruct.Builder;
+import org.mapstruct.MapperConfig;
+import org.mapstruct.MappingConstants;
+
+/**
+ * Shared configuration of the mappers. The mapper implementations are generated at compile time by MapStruct,
+ * so mapping entities to DTOs and vice versa does not require reflection at runtime.
+ * <p>
+ * Builders are disabled because the generated DTOs and the entities both provide setters,
+ * which avoids allocating an additional builder object per mapped element.
+ */
+@MapperConfig(componentModel = MappingConstants.ComponentModel.SPRING,
+        builder = @Builder(disableBuilder = true))
+public interface MapperConfiguration {
+}
@@ -3,25 +3,14 @@ package de.unistuttgart.iste.meitrex.course_service.persistence.mapper;
 import de.unistuttgart.iste.meitrex.course_service.persistence.entity.CourseMembershipEntity;
 import de.unistuttgart.iste.meitrex.generated.dto.CourseMembership;
 import de.unistuttgart.iste.meitrex.generated.dto.CourseMembershipInput;
-import lombok.RequiredArgsConstructor;
-import org.modelmapper.ModelMapper;
-import org.springframework.stereotype.Component;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 
-@Component
-@RequiredArgsConstructor
-public class MembershipMapper {
+@Mapper(config = MapperConfiguration.class)
+public interface MembershipMapper {
 
-    private final ModelMapper modelMapper;
+    @Mapping(target = "course.id", source = "courseId")
+    CourseMembership entityToDto(CourseMembershipEntity courseMembershipEntity);
 
-
-    public CourseMembership entityToDto(final CourseMembershipEntity courseMembershipEntity){
-
-        return modelMapper.map(courseMembershipEntity, CourseMembership.class);
-
-    }
-
-    public CourseMembershipEntity dtoToEntity(final CourseMembershipInput membershipInput){
-
-        return modelMapper.map(membershipInput, CourseMembershipEntity.class);
-    }
+    CourseMembershipEntity dtoToEntity(CourseMembershipInput membershipInput);
 }
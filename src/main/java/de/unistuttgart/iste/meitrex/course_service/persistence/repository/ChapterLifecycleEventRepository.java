@@ -0,0 +1,59 @@
+package de.unistuttgart.iste.meitrex.course_service.persistence.repository;
+
+import de.unistuttgart.iste.meitrex.course_service.persistence.entity.ChapterLifecycleEventEntity;
+import de.unistuttgart.iste.meitrex.course_service.persistence.entity.ChapterLifecycleEventPk;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Repository for {@link ChapterLifecycleEventEntity}.
+ */
+public interface ChapterLifecycleEventRepository
+        extends JpaRepository<ChapterLifecycleEventEntity, ChapterLifecycleEventPk> {
+
+    /**
+     * Locks the events that are due at the given time, in the order they became due.
+     * Events locked by another transaction are skipped, so that multiple workers can drain the queue in parallel.
+     * Must be called in a transaction, the events stay locked until it ends.
+     *
+     * @param now   the current time
+     * @param limit maximum number of events to lock
+     * @return the locked events
+     */
+    @Query(value = """
+            SELECT * FROM chapter_lifecycle_event
+            WHERE due_at <= :now
+            ORDER BY due_at
+            LIMIT :limit
+            FOR UPDATE SKIP LOCKED
+            """, nativeQuery = true)
+    List<ChapterLifecycleEventEntity> lockDueEvents(@Param("now") OffsetDateTime now, @Param("limit") int limit);
+
+    /**
+     * Deletes the pending events of a chapter. Must be called in a transaction.
+     *
+     * @param chapterId the id of the chapter
+     */
+    @Modifying
+    @Query("DELETE FROM ChapterLifecycleEvent e WHERE e.chapterId = :chapterId")
+    void deleteByChapterId(@Param("chapterId") UUID chapterId);
+
+    /**
+     * Deletes the events that are due before the given time, e.g., because the daily notifications already
+     * covered them.
+     *
+     * @param dueBefore the time before which the events are due, exclusive
+     * @return the number of deleted events
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM ChapterLifecycleEvent e WHERE e.dueAt < :dueBefore")
+    int deleteDueBefore(@Param("dueBefore") OffsetDateTime dueBefore);
+}
@@ -3,10 +3,12 @@ package de.unistuttgart.iste.meitrex.course_service.persistence.repository;
 import de.unistuttgart.iste.meitrex.common.persistence.MeitrexRepository;
 import de.unistuttgart.iste.meitrex.course_service.persistence.entity.ChapterEntity;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 import java.time.OffsetDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
@@ -16,9 +18,89 @@ import java.util.UUID;
 public interface ChapterRepository extends MeitrexRepository<ChapterEntity, UUID>, JpaSpecificationExecutor<ChapterEntity> {
     List<ChapterEntity> findChapterEntitiesByCourseId(UUID courseId);
 
-    @Query("SELECT c FROM Chapter c WHERE DATE(c.startDate) = DATE(:now)")
-    List<ChapterEntity> findChaptersToUnlock(@Param("now") OffsetDateTime now);
+    /**
+     * Locks all chapters of a course, including the ones marked as deleted. Must be called in a transaction,
+     * the chapters stay locked until it ends.
+     *
+     * @param courseId ID of the course
+     * @return the ids of the locked chapters
+     */
+    @Query(value = "SELECT id FROM chapter WHERE course_id = :courseId FOR UPDATE", nativeQuery = true)
+    List<UUID> lockIdsByCourseId(@Param("courseId") UUID courseId);
 
-    @Query("SELECT c FROM Chapter c WHERE DATE(c.endDate) = DATE(:now)")
-    List<ChapterEntity> findChaptersToLock(@Param("now") OffsetDateTime now);
+    /**
+     * Deletes the chapters with the given ids with a single statement, including the ones marked as deleted.
+     * Must be called in a transaction.
+     *
+     * @param ids IDs of the chapters to delete, must not be empty
+     * @return the number of deleted chapters
+     */
+    @Modifying
+    @Query(value = "DELETE FROM chapter WHERE id IN (:ids)", nativeQuery = true)
+    int deleteAllByIds(@Param("ids") Collection<UUID> ids);
+
+    /**
+     * Marks a chapter as deleted, which excludes it from all entity queries until it is purged.
+     * Must be called in a transaction.
+     *
+     * @param id        ID of the chapter to mark as deleted
+     * @param deletedAt time of the deletion
+     * @return the number of marked chapters, 0 if the chapter does not exist or is already marked as deleted
+     */
+    @Modifying
+    @Query(value = "UPDATE chapter SET deleted_at = :deletedAt WHERE id = :id AND deleted_at IS NULL",
+            nativeQuery = true)
+    int markDeleted(@Param("id") UUID id, @Param("deletedAt") OffsetDateTime deletedAt);
+
+    /**
+     * Marks all chapters of a course as deleted. Must be called in a transaction.
+     *
+     * @param courseId  ID of the course
+     * @param deletedAt time of the deletion
+     * @return the number of marked chapters
+     */
+    @Modifying
+    @Query(value = "UPDATE chapter SET deleted_at = :deletedAt WHERE course_id = :courseId AND deleted_at IS NULL",
+            nativeQuery = true)
+    int markDeletedByCourseId(@Param("courseId") UUID courseId, @Param("deletedAt") OffsetDateTime deletedAt);
+
+    /**
+     * Locks the chapters that were marked as deleted before the given time, oldest first.
+     * Chapters locked by another transaction are skipped. Must be called in a transaction.
+     *
+     * @param deletedBefore only chapters marked as deleted before this time are returned
+     * @param limit         maximum number of chapters to lock
+     * @return the ids of the locked chapters
+     * @see #deleteAllByIds(Collection)
+     */
+    @Query(value = """
+            SELECT id FROM chapter
+            WHERE deleted_at < :deletedBefore
+            ORDER BY deleted_at
+            LIMIT :limit
+            FOR UPDATE SKIP LOCKED
+            """, nativeQuery = true)
+    List<UUID> lockDeletedChapterIds(@Param("deletedBefore") OffsetDateTime deletedBefore, @Param("limit") int limit);
+
+    /**
+     * Finds all chapters that start in the given time window.
+     * The window is half-open, so that consecutive windows do not overlap.
+     *
+     * @param from start of the window, inclusive
+     * @param to   end of the window, exclusive
+     * @return the chapters starting in the window
+     */
+    @Query("SELECT c FROM Chapter c WHERE c.startDate >= :from AND c.startDate < :to")
+    List<ChapterEntity> findChaptersToUnlock(@Param("from") OffsetDateTime from, @Param("to") OffsetDateTime to);
+
+    /**
+     * Finds all chapters that end in the given time window.
+     *
+     * @param from start of the window, inclusive
+     * @param to   end of the window, exclusive
+     * @return the chapters ending in the window
+     * @see #findChaptersToUnlock(OffsetDateTime, OffsetDateTime)
+     */
+    @Query("SELECT c FROM Chapter c WHERE c.endDate >= :from AND c.endDate < :to")
+    List<ChapterEntity> findChaptersToLock(@Param("from") OffsetDateTime from, @Param("to") OffsetDateTime to);
 }
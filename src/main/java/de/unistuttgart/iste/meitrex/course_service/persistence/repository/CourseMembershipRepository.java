@@ -4,10 +4,12 @@ import de.unistuttgart.iste.meitrex.course_service.persistence.entity.CourseMemb
 import de.unistuttgart.iste.meitrex.course_service.persistence.entity.CourseMembershipPk;
 import de.unistuttgart.iste.meitrex.generated.dto.UserRoleInCourse;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
@@ -18,12 +20,14 @@ import java.util.UUID;
 public interface CourseMembershipRepository extends JpaRepository<CourseMembershipEntity, CourseMembershipPk> {
 
     /**
-     * Finds all course memberships for the specified user.
+     * Finds all course memberships for the specified user. Memberships in courses that are marked as deleted
+     * are excluded by the join.
      *
      * @param userId ID of the user to find their courses for.
      * @return List of CourseMembershipEntities for the users with the given id.
      */
-    List<CourseMembershipEntity> findByUserId(UUID userId);
+    @Query("SELECT m FROM CourseMembership m JOIN Course c ON c.id = m.courseId WHERE m.userId = :userId")
+    List<CourseMembershipEntity> findByUserId(@Param("userId") UUID userId);
 
     /**
      * Finds all course memberships of the course with the specified id.
@@ -33,6 +37,35 @@ public interface CourseMembershipRepository extends JpaRepository<CourseMembersh
      */
     List<CourseMembershipEntity> findCourseMembershipEntitiesByCourseId(UUID courseId);
 
+    /**
+     * Finds all course memberships of the courses with the specified ids.
+     *
+     * @param courseIds IDs of the courses to find the memberships for.
+     * @return List of CourseMembershipEntities for the courses with the given ids.
+     */
+    List<CourseMembershipEntity> findByCourseIdIn(Collection<UUID> courseIds);
+
+    /**
+     * Locks all course memberships of the course with the specified id. Must be called in a transaction,
+     * the memberships stay locked until it ends.
+     *
+     * @param courseId ID of the course to lock the memberships of.
+     * @return the locked memberships
+     */
+    @Query(value = "SELECT * FROM course_membership WHERE course_id = :courseId FOR UPDATE", nativeQuery = true)
+    List<CourseMembershipEntity> lockByCourseId(@Param("courseId") UUID courseId);
+
+    /**
+     * Deletes all course memberships of the course with the specified id with a single statement.
+     * Must be called in a transaction.
+     *
+     * @param courseId ID of the course to delete the memberships of.
+     * @return the number of deleted memberships
+     */
+    @Modifying
+    @Query("DELETE FROM CourseMembership m WHERE m.courseId = :courseId")
+    int deleteAllByCourseId(@Param("courseId") UUID courseId);
+
     @Query("SELECT c.userId FROM CourseMembership c WHERE c.courseId = :courseId")
     List<UUID> findUserIdsByCourseId(@Param("courseId") UUID courseId);
     @Query("SELECT c.userId FROM CourseMembership c WHERE c.courseId = :courseId AND c.role = :role")
@@ -1,12 +1,15 @@
 package de.unistuttgart.iste.meitrex.course_service.persistence.repository;
 
 import de.unistuttgart.iste.meitrex.common.persistence.MeitrexRepository;
-import de.unistuttgart.iste.meitrex.course_service.persistence.entity.ChapterEntity;
 import de.unistuttgart.iste.meitrex.course_service.persistence.entity.CourseEntity;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
-import java.util.Optional;
+import java.time.OffsetDateTime;
+import java.util.List;
 import java.util.UUID;
 
 /**
@@ -16,10 +19,44 @@ import java.util.UUID;
 public interface CourseRepository extends MeitrexRepository<CourseEntity, UUID>, JpaSpecificationExecutor<CourseEntity> {
 
     /**
-     * retrieves a course by one of its Chapters
-     * @param chapterEntity chapter to be used
-     * @return Course Entity if existing
+     * Deletes a course with a single statement, without loading it or cascading to its chapters.
+     * Also deletes the course if it is marked as deleted. Must be called in a transaction.
+     *
+     * @param id ID of the course to delete
+     * @return the number of deleted courses, 0 if the course does not exist
      */
-    Optional<CourseEntity> findCourseEntityByChaptersContaining(ChapterEntity chapterEntity);
+    @Modifying
+    @Query(value = "DELETE FROM course WHERE id = :id", nativeQuery = true)
+    int deleteCourseById(@Param("id") UUID id);
+
+    /**
+     * Marks a course as deleted, which excludes it from all entity queries until it is purged.
+     * Must be called in a transaction.
+     *
+     * @param id        ID of the course to mark as deleted
+     * @param deletedAt time of the deletion
+     * @return the number of marked courses, 0 if the course does not exist or is already marked as deleted
+     */
+    @Modifying
+    @Query(value = "UPDATE course SET deleted_at = :deletedAt WHERE id = :id AND deleted_at IS NULL",
+            nativeQuery = true)
+    int markDeleted(@Param("id") UUID id, @Param("deletedAt") OffsetDateTime deletedAt);
+
+    /**
+     * Locks the courses that were marked as deleted before the given time, oldest first.
+     * Courses locked by another transaction are skipped. Must be called in a transaction.
+     *
+     * @param deletedBefore only courses marked as deleted before this time are returned
+     * @param limit         maximum number of courses to lock
+     * @return the ids of the locked courses
+     */
+    @Query(value = """
+            SELECT id FROM course
+            WHERE deleted_at < :deletedBefore
+            ORDER BY deleted_at
+            LIMIT :limit
+            FOR UPDATE SKIP LOCKED
+            """, nativeQuery = true)
+    List<UUID> lockDeletedCourseIds(@Param("deletedBefore") OffsetDateTime deletedBefore, @Param("limit") int limit);
 
 }
@@ -0,0 +1,33 @@
+package de.unistuttgart.iste.meitrex.course_service.persistence.repository;
+
+import de.unistuttgart.iste.meitrex.course_service.persistence.entity.OutboxEventEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+/**
+ * Repository for {@link OutboxEventEntity}.
+ */
+public interface OutboxEventRepository extends JpaRepository<OutboxEventEntity, Long> {
+
+    /**
+     * Locks the oldest events of the outbox that are to be published now. Events that are waiting for their next
+     * attempt or are dead-lettered are not returned. Events locked by another transaction are skipped,
+     * so that the relays of multiple replicas do not publish the same event.
+     * Must be called in a transaction, the events stay locked until it ends.
+     *
+     * @param limit maximum number of events to lock
+     * @return the locked events in the order they were written
+     */
+    @Query(value = """
+            SELECT * FROM outbox_event
+            WHERE dead_lettered_at IS NULL
+              AND (next_attempt_at IS NULL OR next_attempt_at <= now())
+            ORDER BY id
+            LIMIT :limit
+            FOR UPDATE SKIP LOCKED
+            """, nativeQuery = true)
+    List<OutboxEventEntity> lockOldestEvents(@Param("limit") int limit);
+}
@@ -0,0 +1,10 @@
+package de.unistuttgart.iste.meitrex.course_service.persistence.repository;
+
+import de.unistuttgart.iste.meitrex.course_service.persistence.entity.ScheduleCheckpointEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+/**
+ * Repository for {@link ScheduleCheckpointEntity}.
+ */
+public interface ScheduleCheckpointRepository extends JpaRepository<ScheduleCheckpointEntity, String> {
+}
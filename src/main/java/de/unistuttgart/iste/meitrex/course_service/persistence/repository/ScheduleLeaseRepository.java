@@ -0,0 +1,50 @@
+package de.unistuttgart.iste.meitrex.course_service.persistence.repository;
+
+import de.unistuttgart.iste.meitrex.course_service.persistence.entity.ScheduleLeaseEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Repository for {@link ScheduleLeaseEntity}.
+ * The lease times are taken from the database clock, so that the clocks of the replicas do not need to be in sync.
+ */
+public interface ScheduleLeaseRepository extends JpaRepository<ScheduleLeaseEntity, String> {
+
+    /**
+     * Acquires the lease with the given name if it is free or already held by the given owner.
+     * Holding the lease is extended by calling this method again before it expires.
+     *
+     * @param name    name of the lease
+     * @param owner   identifier of the replica acquiring the lease
+     * @param seconds duration of the lease in seconds
+     * @return 1 if the lease was acquired, 0 if it is held by another owner
+     */
+    @Modifying
+    @Transactional
+    @Query(value = """
+            INSERT INTO schedule_lease (name, locked_until, locked_at, locked_by)
+            VALUES (:name, now() + make_interval(secs => :seconds), now(), :owner)
+            ON CONFLICT (name) DO UPDATE
+                SET locked_until = EXCLUDED.locked_until,
+                    locked_at    = EXCLUDED.locked_at,
+                    locked_by    = EXCLUDED.locked_by
+                WHERE schedule_lease.locked_until <= now() OR schedule_lease.locked_by = :owner
+            """, nativeQuery = true)
+    int tryAcquire(@Param("name") String name, @Param("owner") String owner, @Param("seconds") double seconds);
+
+    /**
+     * Releases the lease with the given name if it is held by the given owner.
+     *
+     * @param name  name of the lease
+     * @param owner identifier of the replica releasing the lease
+     * @return 1 if the lease was released, 0 if it was not held by the owner
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE schedule_lease SET locked_until = now() WHERE name = :name AND locked_by = :owner",
+            nativeQuery = true)
+    int release(@Param("name") String name, @Param("owner") String owner);
+}
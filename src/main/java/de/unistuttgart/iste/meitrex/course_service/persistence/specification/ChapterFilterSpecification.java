@@ -6,6 +6,7 @@ import de.unistuttgart.iste.meitrex.generated.dto.ChapterFilter;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.lang.Nullable;
 
+import java.util.Collection;
 import java.util.UUID;
 
 import static de.unistuttgart.iste.meitrex.common.util.SpecificationUtil.*;
@@ -20,6 +21,10 @@ public class ChapterFilterSpecification {
         return SpecificationUtil.equalTo("courseId", courseId);
     }
 
+    public static Specification<ChapterEntity> courseIdIn(Collection<UUID> courseIds) {
+        return (root, query, criteriaBuilder) -> root.get("courseId").in(courseIds);
+    }
+
     public static Specification<ChapterEntity> chapterFilter(@Nullable ChapterFilter filter) {
         if (filter == null) {
             return null;
@@ -0,0 +1,43 @@
+package de.unistuttgart.iste.meitrex.course_service.service;
+
+import io.dapr.client.DaprClient;
+import io.dapr.client.DaprClientBuilder;
+import org.springframework.stereotype.Component;
+
+/**
+ * Publishes the invalidation messages of the {@link CourseCache} and the {@link MembershipCache} to the replicas
+ * of this service.
+ * <p>
+ * The messages are published to the {@value #PUBSUB_NAME} pub/sub component, which assigns each replica its own
+ * consumer ({@code consumerID: "{uuid}"}, see {@code components/cache-pubsub.yaml}), so that every replica receives
+ * every message. The {@code meitrex} component of the other events cannot be used, as it delivers each message to
+ * only one replica. Replicas that miss a message, e.g., while restarting, serve changed data until the cache
+ * entries expire.
+ */
+@Component
+public class CacheInvalidationPublisher {
+
+    public static final String PUBSUB_NAME = "meitrex-cache";
+    public static final String COURSE_CACHE_TOPIC = "course-cache-invalidated";
+    public static final String MEMBERSHIP_CACHE_TOPIC = "membership-cache-invalidated";
+
+    private final DaprClient daprClient = new DaprClientBuilder().build();
+
+    /**
+     * Publishes an invalidation message of the course cache and waits until the sidecar has accepted it.
+     *
+     * @param invalidation the invalidation message
+     */
+    public void publish(final CourseCache.Invalidation invalidation) {
+        daprClient.publishEvent(PUBSUB_NAME, COURSE_CACHE_TOPIC, invalidation).block();
+    }
+
+    /**
+     * Publishes an invalidation message of the membership cache and waits until the sidecar has accepted it.
+     *
+     * @param invalidation the invalidation message
+     */
+    public void publish(final MembershipLookup.Invalidation invalidation) {
+        daprClient.publishEvent(PUBSUB_NAME, MEMBERSHIP_CACHE_TOPIC, invalidation).block();
+    }
+}
@@ -0,0 +1,56 @@
+package de.unistuttgart.iste.meitrex.course_service.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Drains the due chapter lifecycle events, so that the members of a course are notified when a chapter is
+ * unlocked or locked. Each replica polls the queue, the events are distributed between them by the database.
+ * Only active in the {@link ChapterScheduler.Mode#QUEUE} scheduling mode. The events are recorded in every mode,
+ * so that the future unlocks and locks are known when switching to it; in the other modes, the daily runs remove
+ * the events of the days they notified about.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ChapterLifecycleEventPoller {
+
+    private final ChapterService chapterService;
+
+    @Value("${chapter.schedule.mode:QUEUE}")
+    private ChapterScheduler.Mode mode = ChapterScheduler.Mode.QUEUE;
+
+    /**
+     * Maximum number of events processed in one transaction.
+     */
+    @Value("${chapter.lifecycle.batch_size:100}")
+    private int batchSize = 100;
+
+    /**
+     * Processes due events in batches until no due events are left.
+     *
+     * @return the number of processed events
+     */
+    @Scheduled(fixedDelayString = "${chapter.lifecycle.poll_interval:PT1M}",
+            initialDelayString = "${chapter.lifecycle.poll_interval:PT1M}")
+    public int poll() {
+        if (mode != ChapterScheduler.Mode.QUEUE) {
+            return 0;
+        }
+
+        int processedEvents = 0;
+        int processedInBatch;
+        do {
+            processedInBatch = chapterService.processDueLifecycleEvents(batchSize);
+            processedEvents += processedInBatch;
+        } while (processedInBatch == batchSize);
+
+        if (processedEvents > 0) {
+            log.info("Processed {} due chapter lifecycle events", processedEvents);
+        }
+        return processedEvents;
+    }
+}
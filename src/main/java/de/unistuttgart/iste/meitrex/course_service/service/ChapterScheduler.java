@@ -0,0 +1,145 @@
+package de.unistuttgart.iste.meitrex.course_service.service;
+
+import de.unistuttgart.iste.meitrex.course_service.persistence.entity.ScheduleCheckpointEntity;
+import de.unistuttgart.iste.meitrex.course_service.persistence.repository.ScheduleCheckpointRepository;
+import de.unistuttgart.iste.meitrex.course_service.persistence.repository.ScheduleLeaseRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+/**
+ * Runs the daily chapter lock/unlock notifications of {@link ChapterService}.
+ * <p>
+ * In the {@link Mode#LEASED} mode, a run is only executed by the replica that holds the lease of the job in the
+ * database, and each processed day is recorded in a checkpoint. The notifications of a day are added to the
+ * {@link EventOutbox} in the transaction that records its checkpoint, so that a day is either notified and
+ * checkpointed or neither, and a run that was interrupted does not notify about a day twice. A run that was
+ * interrupted, or days that were missed because no replica was running, are processed by the next run, up to
+ * {@code chapter.schedule.max_catch_up_days} days back. In the {@link Mode#LOCAL} mode, every replica notifies about the current day on its own.
+ * In the {@link Mode#QUEUE} mode, the daily run is disabled and the notifications are sent by the
+ * {@link ChapterLifecycleEventPoller} at the start and end dates of the chapters.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ChapterScheduler {
+
+    static final String JOB_NAME = "chapter_notifications";
+
+    private final ChapterService chapterService;
+    private final ScheduleLeaseRepository scheduleLeaseRepository;
+    private final ScheduleCheckpointRepository scheduleCheckpointRepository;
+    private final TransactionOperations transactionOperations;
+
+    /**
+     * Identifies this replica as the owner of the lease.
+     */
+    private final String owner = System.getenv().getOrDefault("HOSTNAME", "course_service") + "-" + UUID.randomUUID();
+
+    @Value("${chapter.schedule.mode:QUEUE}")
+    private Mode mode = Mode.QUEUE;
+
+    /**
+     * Duration after which the lease of a run expires if it is neither extended nor released,
+     * e.g., because the replica crashed. The lease is extended before each processed day.
+     */
+    @Value("${chapter.schedule.lease_duration:30m}")
+    private Duration leaseDuration = Duration.ofMinutes(30);
+
+    /**
+     * Maximum number of past days that are processed by a run. Older missed days are skipped.
+     */
+    @Value("${chapter.schedule.max_catch_up_days:7}")
+    private int maxCatchUpDays = 7;
+
+    @Value("${chapter.schedule.catch_up_on_startup:true}")
+    private boolean catchUpOnStartup = true;
+
+    public enum Mode {
+        LOCAL,
+        LEASED,
+        QUEUE
+    }
+
+    @Scheduled(cron = "${chapter.schedule.cron:0 0 0 * * *}", zone = "${chapter.schedule.zone:}") // 0:00
+    public void checkChapters() {
+        switch (mode) {
+            case LOCAL -> chapterService.checkChapters();
+            case LEASED -> runLeased();
+            case QUEUE -> log.trace("Daily chapter notifications are disabled, the lifecycle event queue is used");
+        }
+    }
+
+    /**
+     * Processes the days missed while no replica was running, so that a replica coming up after midnight
+     * does not wait for the next day to send the notifications.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void catchUpOnStartup() {
+        if (mode == Mode.LEASED && catchUpOnStartup) {
+            runLeased();
+        }
+    }
+
+    /**
+     * Processes all days since the last checkpoint up to and including today, if the lease of the job can be
+     * acquired. Each processed day is checkpointed on its own, in the transaction that adds its notifications to
+     * the outbox.
+     *
+     * @return the number of processed days, 0 if the lease is held by another replica
+     */
+    public int runLeased() {
+        if (!tryAcquireLease()) {
+            log.debug("Skipping chapter notifications, the lease is held by another replica");
+            return 0;
+        }
+
+        try {
+            final LocalDate today = LocalDate.now(chapterService.getScheduleZone());
+            final LocalDate earliestDay = today.minusDays(maxCatchUpDays);
+
+            LocalDate day = scheduleCheckpointRepository.findById(JOB_NAME)
+                    .map(checkpoint -> checkpoint.getLastCompletedDay().plusDays(1))
+                    .orElse(today);
+            if (day.isBefore(earliestDay)) {
+                log.warn("Skipping chapter notifications from {} to {}, they are older than {} days",
+                        day, earliestDay.minusDays(1), maxCatchUpDays);
+                day = earliestDay;
+            }
+
+            int processedDays = 0;
+            for (; !day.isAfter(today); day = day.plusDays(1)) {
+                // extending the lease also checks that it has not expired and been taken over in the meantime
+                if (!tryAcquireLease()) {
+                    log.warn("Lost the lease of the chapter notifications before processing {}", day);
+                    break;
+                }
+
+                final LocalDate processedDay = day;
+                transactionOperations.executeWithoutResult(status -> {
+                    chapterService.checkChaptersThroughOutbox(processedDay);
+                    scheduleCheckpointRepository.save(
+                            new ScheduleCheckpointEntity(JOB_NAME, processedDay, OffsetDateTime.now()));
+                });
+                processedDays++;
+            }
+            return processedDays;
+        } finally {
+            scheduleLeaseRepository.release(JOB_NAME, owner);
+        }
+    }
+
+    private boolean tryAcquireLease() {
+        return scheduleLeaseRepository.tryAcquire(JOB_NAME, owner, leaseDuration.toMillis() / 1000.0) > 0;
+    }
+}
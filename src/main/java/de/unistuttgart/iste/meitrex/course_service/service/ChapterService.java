@@ -5,7 +5,9 @@ import de.unistuttgart.iste.meitrex.common.event.*;
 import de.unistuttgart.iste.meitrex.common.util.PaginationUtil;
 import de.unistuttgart.iste.meitrex.common.util.SortUtil;
 import de.unistuttgart.iste.meitrex.course_service.persistence.entity.ChapterEntity;
+import de.unistuttgart.iste.meitrex.course_service.persistence.entity.ChapterLifecycleEventEntity;
 import de.unistuttgart.iste.meitrex.course_service.persistence.mapper.ChapterMapper;
+import de.unistuttgart.iste.meitrex.course_service.persistence.repository.ChapterLifecycleEventRepository;
 import de.unistuttgart.iste.meitrex.course_service.persistence.repository.ChapterRepository;
 import de.unistuttgart.iste.meitrex.course_service.persistence.specification.ChapterFilterSpecification;
 import de.unistuttgart.iste.meitrex.course_service.persistence.validation.ChapterValidator;
@@ -15,13 +17,18 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.*;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.lang.Nullable;
-import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.time.OffsetDateTime;
-import java.util.List;
-import java.util.UUID;
+import java.time.*;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Service that handles chapter related operations.
@@ -37,6 +44,35 @@ public class ChapterService {
     private final MembershipService membershipService;
     private final ChapterValidator chapterValidator;
     private final TopicPublisher topicPublisher;
+    private final ChapterLifecycleEventRepository chapterLifecycleEventRepository;
+    private final EventOutbox eventOutbox;
+
+    /**
+     * Time zone in which the days of the chapter schedule are determined, the system default if empty.
+     */
+    @Value("${chapter.schedule.zone:}")
+    private String scheduleZone = "";
+
+    /**
+     * Maximum number of users in one chapter notification event.
+     */
+    @Value("${chapter.notification.batch_size:500}")
+    private int notificationBatchSize = 500;
+
+    /**
+     * Number of attempts after which a lifecycle event that cannot be processed is dropped.
+     */
+    @Value("${chapter.lifecycle.max_attempts:5}")
+    private int lifecycleMaxAttempts = 5;
+
+    /**
+     * Delay after which a failed lifecycle event is due again, multiplied by the number of failed attempts.
+     */
+    @Value("${chapter.lifecycle.retry_delay:PT5M}")
+    private Duration lifecycleRetryDelay = Duration.ofMinutes(5);
+
+    @Value("${deletion.mode:HARD}")
+    private DeletionMode deletionMode = DeletionMode.HARD;
 
     /**
      * Gets all chapters with the given ids.
@@ -71,12 +107,16 @@ public class ChapterService {
      * @return The created chapter.
      * @throws EntityNotFoundException If the course with the given id does not exist.
      */
+    @Transactional
     public Chapter createChapter(final CreateChapterInput chapterData) {
         chapterValidator.validateCreateChapterInput(chapterData);
-        courseService.requireCourseExisting(chapterData.getCourseId());
+        // checked in the database instead of the cache, as a chapter of a course deleted on another replica would
+        // never be deleted
+        courseService.requireCourseStored(chapterData.getCourseId());
 
         ChapterEntity chapterEntity = chapterMapper.dtoToEntity(chapterData);
         chapterEntity = chapterRepository.save(chapterEntity);
+        scheduleLifecycleEvents(chapterEntity);
 
         return chapterMapper.entityToDto(chapterEntity);
     }
@@ -87,6 +127,7 @@ public class ChapterService {
      * @param chapterData The data of the chapter to update.
      * @return The updated chapter.
      */
+    @Transactional
     public Chapter updateChapter(final UpdateChapterInput chapterData) {
         chapterValidator.validateUpdateChapterInput(chapterData);
 
@@ -97,37 +138,83 @@ public class ChapterService {
         updatedChapterEntity.setCourseId(courseID);
         updatedChapterEntity = chapterRepository.save(updatedChapterEntity);
 
+        // the dates may have changed, so the pending events are replaced
+        chapterLifecycleEventRepository.deleteByChapterId(updatedChapterEntity.getId());
+        scheduleLifecycleEvents(updatedChapterEntity);
+
         return chapterMapper.entityToDto(updatedChapterEntity);
     }
 
     /**
      * Deletes a chapter.
+     * In the {@link DeletionMode#SOFT} deletion mode, the chapter is only marked as deleted,
+     * it is purged and the event is published later by {@link #purgeDeletedChapters(OffsetDateTime, int)}.
      *
      * @param uuid The id of the chapter to delete.
      * @return The id of the deleted chapter.
      * @throws EntityNotFoundException If the chapter does not exist.
      */
+    @Transactional
     public UUID deleteChapter(final UUID uuid) {
+        if (deletionMode == DeletionMode.SOFT) {
+            if (chapterRepository.markDeleted(uuid, OffsetDateTime.now()) == 0) {
+                throw new EntityNotFoundException("Chapter with id " + uuid + " not found");
+            }
+            return uuid;
+        }
+
         requireChapterExisting(uuid);
 
+        // the pending lifecycle events of the chapter are deleted by the database together with the chapter
         chapterRepository.deleteById(uuid);
 
         //notify other chapter-dependent services of chapter deletion
-        topicPublisher.notifyChapterChanges(List.of(uuid), CrudOperation.DELETE);
+        eventOutbox.notifyChapterChanges(List.of(uuid), CrudOperation.DELETE);
 
         return uuid;
     }
 
     /**
-     * Gets the course for a chapter.
+     * Purges chapters that were marked as deleted before the given time and publishes the event of the deletions.
      *
-     * @param chapterId The id of the chapter to get the course for.
-     * @return The course of the chapter.
+     * @param deletedBefore only chapters marked as deleted before this time are purged
+     * @param limit         maximum number of chapters to purge
+     * @return the number of purged chapters
      */
-    public Course getCourseForChapterId(final UUID chapterId) {
-        final ChapterEntity chapterEntity = requireChapterExisting(chapterId);
+    @Transactional
+    public int purgeDeletedChapters(final OffsetDateTime deletedBefore, final int limit) {
+        final List<UUID> chapterIds = chapterRepository.lockDeletedChapterIds(deletedBefore, limit);
+        if (!chapterIds.isEmpty()) {
+            chapterRepository.deleteAllByIds(chapterIds);
+            eventOutbox.notifyChapterChanges(chapterIds, CrudOperation.DELETE);
+        }
+        return chapterIds.size();
+    }
+
+    /**
+     * Gets the courses of multiple chapters. The courses are loaded in a single query using the course ids
+     * already present on the chapters, so that resolving the course of many chapters does not cause one
+     * query per chapter.
+     *
+     * @param chapters The chapters to get the courses for.
+     * @return A map of the chapters to their courses.
+     * @throws EntityNotFoundException If the course of at least one of the chapters does not exist.
+     */
+    public Map<Chapter, Course> getCoursesForChapters(final List<Chapter> chapters) {
+        final List<UUID> courseIds = chapters.stream()
+                .map(chapter -> chapter.getCourse().getId())
+                .distinct()
+                .toList();
 
-        return courseService.getCourseById(chapterEntity.getCourseId());
+        final Map<UUID, Course> coursesById = courseService.getCoursesByIds(courseIds).stream()
+                .collect(Collectors.toMap(Course::getId, Function.identity()));
+
+        final Map<Chapter, Course> courseMap = new HashMap<>();
+        for (final Chapter chapter : chapters) {
+            courseMap.put(chapter, coursesById.get(chapter.getCourse().getId()));
+        }
+
+        return courseMap;
     }
 
     /**
@@ -153,27 +240,55 @@ public class ChapterService {
                 .orElseThrow(() -> new EntityNotFoundException("Chapter with id " + uuid + " not found"));
     }
 
-    public ChapterPayload getChapters(final UUID courseId,
-                                      @Nullable final ChapterFilter filter,
-                                      final List<String> sortBy,
-                                      final List<SortDirection> sortDirection,
-                                      @Nullable final Pagination pagination) {
-        courseService.requireCourseExisting(courseId);
-
+    /**
+     * Gets the chapters of multiple courses. The chapters of all courses are fetched with a single query,
+     * the pagination is then applied per course.
+     * The existence of the courses is not checked, as callers already hold the courses.
+     *
+     * @param courseIds     The ids of the courses to get the chapters for.
+     * @param filter        optional filter for the chapters
+     * @param sortBy        list of sort fields
+     * @param sortDirection list of sort directions
+     * @param pagination    optional pagination, applied to the chapters of each course separately
+     * @return A map of the course ids to the chapters of the course.
+     */
+    public Map<UUID, ChapterPayload> getChaptersOfCourses(final Collection<UUID> courseIds,
+                                                          @Nullable final ChapterFilter filter,
+                                                          final List<String> sortBy,
+                                                          final List<SortDirection> sortDirection,
+                                                          @Nullable final Pagination pagination) {
         final Sort sort = SortUtil.createSort(sortBy, sortDirection);
         final Pageable pageRequest = PaginationUtil.createPageable(pagination, sort);
 
         final Specification<ChapterEntity> specification = Specification.<ChapterEntity>unrestricted()
-                .and(ChapterFilterSpecification.courseIdEquals(courseId))
+                .and(ChapterFilterSpecification.courseIdIn(courseIds))
                 .and(ChapterFilterSpecification.chapterFilter(filter));
 
-        if (pageRequest.isPaged()) {
-            final Page<ChapterEntity> result = chapterRepository.findAll(specification, pageRequest);
-            return createChapterPayloadPaged(result);
+        // grouping preserves the sort order of the query within each course
+        final Map<UUID, List<ChapterEntity>> chaptersByCourseId = chapterRepository.findAll(specification, sort)
+                .stream()
+                .collect(Collectors.groupingBy(ChapterEntity::getCourseId));
+
+        final Map<UUID, ChapterPayload> result = new HashMap<>();
+        for (final UUID courseId : courseIds) {
+            final List<ChapterEntity> chapters = chaptersByCourseId.getOrDefault(courseId, List.of());
+            result.put(courseId, createChapterPayload(chapters, pageRequest));
+        }
+
+        return result;
+    }
+
+    private ChapterPayload createChapterPayload(final List<ChapterEntity> chapters, final Pageable pageRequest) {
+        if (!pageRequest.isPaged()) {
+            return createChapterPayloadUnpaged(chapters);
         }
 
-        final List<ChapterEntity> result = chapterRepository.findAll(specification, sort);
-        return createChapterPayloadUnpaged(result);
+        final int fromIndex = (int) Math.min(pageRequest.getOffset(), chapters.size());
+        final int toIndex = Math.min(fromIndex + pageRequest.getPageSize(), chapters.size());
+
+        return createChapterPayloadPaged(new PageImpl<>(chapters.subList(fromIndex, toIndex),
+                pageRequest,
+                chapters.size()));
     }
 
     private ChapterPayload createChapterPayloadPaged(final Page<ChapterEntity> chapters) {
@@ -186,26 +301,317 @@ public class ChapterService {
                 PaginationUtil.unpagedPaginationInfo(chapters.size()));
     }
 
-    @Scheduled(cron = "${chapter.schedule.cron:0 0 0 * * *}") // 0:00
-    public void checkChapters() {
+    /**
+     * Notifies the members of courses about chapters that are unlocked or locked today.
+     * "Today" is the current day in the configured time zone.
+     *
+     * @return the number of published notification events
+     * @see ChapterScheduler
+     */
+    public int checkChapters() {
+        return checkChapters(LocalDate.now(getScheduleZone()));
+    }
 
-        OffsetDateTime today = OffsetDateTime.now()
-                .withHour(0).withMinute(0).withSecond(0).withNano(0);
+    /**
+     * Notifies the members of courses about chapters that are unlocked or locked on the given day
+     * in the configured time zone. The lifecycle events due until the end of the day are removed, as the
+     * notifications cover them, so that they are not sent again when switching to the
+     * {@link ChapterScheduler.Mode#QUEUE} mode.
+     *
+     * @param day the day to check
+     * @return the number of published notification events
+     */
+    public int checkChapters(final LocalDate day) {
+        // half-open window over the day, so that the indexes on the date columns can be used.
+        // The day can be shorter or longer than 24 hours on daylight saving time changes.
+        final ZoneId zone = getScheduleZone();
+        final OffsetDateTime from = day.atStartOfDay(zone).toOffsetDateTime();
+        final OffsetDateTime to = day.plusDays(1).atStartOfDay(zone).toOffsetDateTime();
+
+        final int publishedEvents = checkChapters(from, to, this::publishNotification);
+        chapterLifecycleEventRepository.deleteDueBefore(to);
+        return publishedEvents;
+    }
+
+    /**
+     * Like {@link #checkChapters(LocalDate)}, but adds the notifications to the {@link EventOutbox} instead of
+     * publishing them, so that they are only published if the transaction of the caller is committed. This allows
+     * the caller to record that the day has been processed in the same transaction, so that a day is never notified
+     * twice, even if the caller crashes while processing it. The covered lifecycle events are removed in the same
+     * transaction.
+     *
+     * @param day the day to check
+     * @return the number of notification events added to the outbox
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public int checkChaptersThroughOutbox(final LocalDate day) {
+        final ZoneId zone = getScheduleZone();
+        final OffsetDateTime from = day.atStartOfDay(zone).toOffsetDateTime();
+        final OffsetDateTime to = day.plusDays(1).atStartOfDay(zone).toOffsetDateTime();
+
+        final int publishedEvents = checkChapters(from, to, eventOutbox::notifyChapterNotification);
+        chapterLifecycleEventRepository.deleteDueBefore(to);
+        return publishedEvents;
+    }
+
+    /**
+     * @return the time zone in which the days of the chapter schedule are determined
+     */
+    public ZoneId getScheduleZone() {
+        return scheduleZone.isBlank() ? ZoneId.systemDefault() : ZoneId.of(scheduleZone);
+    }
 
-        // Unlock
-        List<ChapterEntity> unlockList = chapterRepository.findChaptersToUnlock(today);
-        for (ChapterEntity ch : unlockList) {
-            String CourseTitle = courseService.getCourseById(ch.getCourseId()).getTitle();
-            List<UUID> userIds = membershipService.getUserIdsOfCourse(ch.getCourseId());
-            topicPublisher.notificationEvent(ch.getCourseId(), userIds, ServerSource.CHAPTER, "/courses/" + ch.getCourseId() + "/chapters/" + ch.getId(), "New Chapter Unlocked!", CourseTitle + "'s Chapter " + ch.getTitle() + " is unlocked");
+    /**
+     * Notifies the members of courses about chapters that are unlocked or locked in the given time window.
+     *
+     * @param from start of the window, inclusive
+     * @param to   end of the window, exclusive
+     * @return the number of published notification events
+     */
+    public int checkChapters(final OffsetDateTime from, final OffsetDateTime to) {
+        return checkChapters(from, to, this::publishNotification);
+    }
+
+    private int checkChapters(final OffsetDateTime from,
+                              final OffsetDateTime to,
+                              final Consumer<EventOutbox.ChapterNotification> publisher) {
+        final long startTime = System.nanoTime();
+
+        final List<ChapterEntity> unlockList = chapterRepository.findChaptersToUnlock(from, to);
+        final List<ChapterEntity> lockList = chapterRepository.findChaptersToLock(from, to);
+        final int publishedEvents = notifyCourseMembers(unlockList, lockList, publisher);
+
+        log.info("Checked chapters between {} and {} in {} ms: {} unlocked, {} locked, {} notification events published",
+                from, to, Duration.ofNanos(System.nanoTime() - startTime).toMillis(),
+                unlockList.size(), lockList.size(), publishedEvents);
+
+        return publishedEvents;
+    }
+
+    /**
+     * Notifies the members of courses about the chapters of the lifecycle events that are due, and removes the
+     * events from the queue. The events are locked until the transaction ends, so that concurrent callers process
+     * different events.
+     * <p>
+     * The events are processed per course. If the events of a course fail, e.g., because the course cannot be found,
+     * they are due again after {@code chapter.lifecycle.retry_delay} times the number of failed attempts and dropped
+     * after {@code chapter.lifecycle.max_attempts} attempts, so that they do not block the other events.
+     *
+     * @param limit maximum number of events to process
+     * @return the number of processed lifecycle events, including failed ones
+     */
+    @Transactional
+    public int processDueLifecycleEvents(final int limit) {
+        final OffsetDateTime now = OffsetDateTime.now();
+        final List<ChapterLifecycleEventEntity> events = chapterLifecycleEventRepository.lockDueEvents(now, limit);
+        if (events.isEmpty()) {
+            return 0;
+        }
+
+        final Map<UUID, ChapterEntity> chaptersById = chapterRepository.findAllById(events.stream()
+                        .map(ChapterLifecycleEventEntity::getChapterId)
+                        .distinct()
+                        .toList())
+                .stream()
+                .collect(Collectors.toMap(ChapterEntity::getId, Function.identity()));
+
+        // events of chapters that no longer exist are removed without notification
+        final Map<UUID, List<ChapterLifecycleEventEntity>> eventsByCourseId = events.stream()
+                .filter(event -> chaptersById.containsKey(event.getChapterId()))
+                .collect(Collectors.groupingBy(event -> chaptersById.get(event.getChapterId()).getCourseId(),
+                        LinkedHashMap::new, Collectors.toList()));
+
+        final Map<UUID, String> courseTitles = getCourseTitles(List.copyOf(eventsByCourseId.keySet()));
+        final Map<UUID, List<UUID>> userIdsByCourseId = courseTitles.isEmpty()
+                ? Map.of()
+                : membershipService.getUserIdsOfCourses(eventsByCourseId.keySet().stream()
+                        .filter(courseTitles::containsKey)
+                        .toList());
+
+        int publishedEvents = 0;
+        final List<ChapterLifecycleEventEntity> failedEvents = new ArrayList<>();
+        for (final Map.Entry<UUID, List<ChapterLifecycleEventEntity>> entry : eventsByCourseId.entrySet()) {
+            final UUID courseId = entry.getKey();
+            try {
+                final String courseTitle = courseTitles.get(courseId);
+                if (courseTitle == null) {
+                    throw new EntityNotFoundException("Course with id " + courseId + " not found");
+                }
+
+                final List<UUID> userIds = userIdsByCourseId.getOrDefault(courseId, List.of());
+                for (final ChapterLifecycleEventEntity event : entry.getValue()) {
+                    publishedEvents += notifyCourseMembers(chaptersById.get(event.getChapterId()), event.getKind(),
+                            courseTitle, userIds, this::publishNotification);
+                }
+            } catch (final RuntimeException e) {
+                log.warn("Failed to process the chapter lifecycle events of course {}", courseId, e);
+                failedEvents.addAll(entry.getValue());
+            }
         }
 
-        // Lock
-        List<ChapterEntity> lockList = chapterRepository.findChaptersToLock(today);
-        for (ChapterEntity ch : lockList) {
-            String CourseTitle = courseService.getCourseById(ch.getCourseId()).getTitle();
-            List<UUID> userIds = membershipService.getUserIdsOfCourse(ch.getCourseId());
-            topicPublisher.notificationEvent(ch.getCourseId(), userIds, ServerSource.CHAPTER, "/courses/" + ch.getCourseId() + "/chapters/" + ch.getId(), "An Old Chapter Locked", CourseTitle + "'s Chapter " + ch.getTitle() + " is locked");
+        final List<ChapterLifecycleEventEntity> retriedEvents = retryLater(failedEvents, now);
+        chapterLifecycleEventRepository.deleteAll(events.stream()
+                .filter(event -> retriedEvents.stream().noneMatch(retried -> retried == event))
+                .toList());
+        if (!retriedEvents.isEmpty()) {
+            chapterLifecycleEventRepository.saveAll(retriedEvents);
         }
+
+        log.debug("Processed {} due chapter lifecycle events, {} failed, {} notification events published",
+                events.size(), failedEvents.size(), publishedEvents);
+
+        return events.size();
+    }
+
+    /**
+     * Returns the titles of the given courses. If a course cannot be found, the titles of the other courses are
+     * still returned.
+     */
+    private Map<UUID, String> getCourseTitles(final List<UUID> courseIds) {
+        if (courseIds.isEmpty()) {
+            return Map.of();
+        }
+
+        try {
+            return courseService.getCoursesByIds(courseIds).stream()
+                    .collect(Collectors.toMap(Course::getId, Course::getTitle));
+        } catch (final EntityNotFoundException e) {
+            // look the courses up one by one to find out which one is missing
+            final Map<UUID, String> courseTitles = new HashMap<>();
+            for (final UUID courseId : courseIds) {
+                try {
+                    courseTitles.put(courseId, courseService.getCourseById(courseId).getTitle());
+                } catch (final EntityNotFoundException notFound) {
+                    log.debug("Course {} of due chapter lifecycle events not found", courseId);
+                }
+            }
+            return courseTitles;
+        }
+    }
+
+    /**
+     * Counts a failed attempt for each of the events and makes them due again after the retry delay.
+     * Events that reached the maximum number of attempts are dropped.
+     *
+     * @return the events to retry
+     */
+    private List<ChapterLifecycleEventEntity> retryLater(final List<ChapterLifecycleEventEntity> failedEvents,
+                                                         final OffsetDateTime now) {
+        final List<ChapterLifecycleEventEntity> retriedEvents = new ArrayList<>(failedEvents.size());
+        for (final ChapterLifecycleEventEntity event : failedEvents) {
+            event.setAttempts(event.getAttempts() + 1);
+            if (event.getAttempts() >= lifecycleMaxAttempts) {
+                log.error("Dropping {} event of chapter {} after {} failed attempts",
+                        event.getKind(), event.getChapterId(), event.getAttempts());
+                continue;
+            }
+            event.setDueAt(now.plus(lifecycleRetryDelay.multipliedBy(event.getAttempts())));
+            retriedEvents.add(event);
+        }
+        return retriedEvents;
+    }
+
+    /**
+     * Adds the unlock and lock events of the chapter to the queue, unless they are already in the past.
+     */
+    private void scheduleLifecycleEvents(final ChapterEntity chapter) {
+        final OffsetDateTime now = OffsetDateTime.now();
+        final List<ChapterLifecycleEventEntity> events = new ArrayList<>(2);
+
+        if (chapter.getStartDate().isAfter(now)) {
+            events.add(new ChapterLifecycleEventEntity(chapter.getId(),
+                    ChapterLifecycleEventEntity.Kind.UNLOCK,
+                    chapter.getStartDate()));
+        }
+        if (chapter.getEndDate().isAfter(now)) {
+            events.add(new ChapterLifecycleEventEntity(chapter.getId(),
+                    ChapterLifecycleEventEntity.Kind.LOCK,
+                    chapter.getEndDate()));
+        }
+
+        chapterLifecycleEventRepository.saveAll(events);
+    }
+
+    /**
+     * Notifies the members of the courses of the given chapters that the chapters are unlocked or locked.
+     * <p>
+     * The titles and members of all affected courses are loaded with one query each, and the members of a course
+     * are split into notification events of at most {@code chapter.notification.batch_size} users.
+     *
+     * @return the number of published notification events
+     */
+    private int notifyCourseMembers(final List<ChapterEntity> unlockList,
+                                    final List<ChapterEntity> lockList,
+                                    final Consumer<EventOutbox.ChapterNotification> publisher) {
+        final List<UUID> courseIds = Stream.concat(unlockList.stream(), lockList.stream())
+                .map(ChapterEntity::getCourseId)
+                .distinct()
+                .toList();
+        if (courseIds.isEmpty()) {
+            return 0;
+        }
+
+        final Map<UUID, String> courseTitles = courseService.getCoursesByIds(courseIds).stream()
+                .collect(Collectors.toMap(Course::getId, Course::getTitle));
+        // courses without members are not contained in the map
+        final Map<UUID, List<UUID>> userIdsByCourseId = membershipService.getUserIdsOfCourses(courseIds);
+
+        int publishedEvents = 0;
+        for (final ChapterEntity chapter : unlockList) {
+            publishedEvents += notifyCourseMembers(chapter, ChapterLifecycleEventEntity.Kind.UNLOCK,
+                    courseTitles.get(chapter.getCourseId()),
+                    userIdsByCourseId.getOrDefault(chapter.getCourseId(), List.of()), publisher);
+        }
+        for (final ChapterEntity chapter : lockList) {
+            publishedEvents += notifyCourseMembers(chapter, ChapterLifecycleEventEntity.Kind.LOCK,
+                    courseTitles.get(chapter.getCourseId()),
+                    userIdsByCourseId.getOrDefault(chapter.getCourseId(), List.of()), publisher);
+        }
+        return publishedEvents;
+    }
+
+    /**
+     * Notifies the given members of the course of the chapter that the chapter is unlocked or locked.
+     *
+     * @return the number of published notification events
+     */
+    private int notifyCourseMembers(final ChapterEntity chapter,
+                                    final ChapterLifecycleEventEntity.Kind kind,
+                                    final String courseTitle,
+                                    final List<UUID> userIds,
+                                    final Consumer<EventOutbox.ChapterNotification> publisher) {
+        return switch (kind) {
+            case UNLOCK -> notifyCourseMembers(chapter, userIds, "New Chapter Unlocked!",
+                    courseTitle + "'s Chapter " + chapter.getTitle() + " is unlocked", publisher);
+            case LOCK -> notifyCourseMembers(chapter, userIds, "An Old Chapter Locked",
+                    courseTitle + "'s Chapter " + chapter.getTitle() + " is locked", publisher);
+        };
+    }
+
+    /**
+     * Publishes a notification about the chapter to the given users, split into batches.
+     *
+     * @return the number of published events
+     */
+    private int notifyCourseMembers(final ChapterEntity chapter,
+                                    final List<UUID> userIds,
+                                    final String title,
+                                    final String message,
+                                    final Consumer<EventOutbox.ChapterNotification> publisher) {
+        final String link = "/courses/" + chapter.getCourseId() + "/chapters/" + chapter.getId();
+
+        int publishedEvents = 0;
+        for (int i = 0; i < userIds.size(); i += notificationBatchSize) {
+            final List<UUID> batch = userIds.subList(i, Math.min(i + notificationBatchSize, userIds.size()));
+            publisher.accept(new EventOutbox.ChapterNotification(chapter.getCourseId(), List.copyOf(batch), link,
+                    title, message));
+            publishedEvents++;
+        }
+        return publishedEvents;
+    }
+
+    private void publishNotification(final EventOutbox.ChapterNotification notification) {
+        topicPublisher.notificationEvent(notification.courseId(), notification.userIds(), ServerSource.CHAPTER,
+                notification.link(), notification.title(), notification.message());
     }
 }
@@ -0,0 +1,147 @@
+package de.unistuttgart.iste.meitrex.course_service.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import de.unistuttgart.iste.meitrex.course_service.persistence.entity.CourseEntity;
+import de.unistuttgart.iste.meitrex.course_service.persistence.mapper.CourseMapper;
+import de.unistuttgart.iste.meitrex.course_service.persistence.repository.CourseRepository;
+import de.unistuttgart.iste.meitrex.generated.dto.Course;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.persistence.EntityNotFoundException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Read-through cache for courses, used for the lookups of single courses and for the existence checks of courses,
+ * which are done on almost every request.
+ * <p>
+ * Entries are invalidated when a course is updated or deleted, on this replica after the commit of the change and
+ * on the other replicas by the invalidation message published through the {@link EventOutbox}.
+ * Entries also expire after a configurable time, which bounds how long a replica can serve a stale course
+ * if it misses an invalidation message. Only existing courses are cached.
+ * <p>
+ * The cached courses are shared between requests and must not be modified.
+ */
+@Component
+public class CourseCache {
+
+    private static final String CACHE_NAME = "course";
+
+    private final CourseRepository courseRepository;
+    private final CourseMapper courseMapper;
+    private final EventOutbox eventOutbox;
+    private final Cache<UUID, Course> cache;
+
+    public CourseCache(final CourseRepository courseRepository,
+                       final CourseMapper courseMapper,
+                       final EventOutbox eventOutbox,
+                       final MeterRegistry meterRegistry,
+                       @Value("${course.cache.maximum_size:10000}") final long maximumSize,
+                       @Value("${course.cache.ttl:10m}") final Duration ttl) {
+        this.courseRepository = courseRepository;
+        this.courseMapper = courseMapper;
+        this.eventOutbox = eventOutbox;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    /**
+     * Message sent to all replicas to invalidate the cached course with the given id.
+     */
+    public record Invalidation(UUID courseId) {
+    }
+
+    /**
+     * Returns the course with the given id, loading it from the database if it is not cached.
+     *
+     * @param courseId the id of the course
+     * @return the course, or an empty optional if it does not exist
+     */
+    public Optional<Course> getCourse(final UUID courseId) {
+        // courses that do not exist are not cached, as the loader returns null for them
+        return Optional.ofNullable(cache.get(courseId, this::load));
+    }
+
+    /**
+     * Returns the courses with the given ids, loading the courses that are not cached with a single query.
+     *
+     * @param courseIds the ids of the courses
+     * @return the courses, in the order of the ids
+     * @throws EntityNotFoundException if a course with at least one of the given ids does not exist
+     */
+    public List<Course> getCourses(final List<UUID> courseIds) {
+        final Map<UUID, Course> courses = getExistingCourses(courseIds);
+
+        final String missingIds = courseIds.stream()
+                .filter(courseId -> !courses.containsKey(courseId))
+                .map(UUID::toString)
+                .collect(Collectors.joining(", "));
+        if (!missingIds.isEmpty()) {
+            throw new EntityNotFoundException("Entities(s) with id(s) %s not found".formatted(missingIds));
+        }
+
+        return courseIds.stream().map(courses::get).toList();
+    }
+
+    /**
+     * Returns the courses with the given ids that exist, loading the courses that are not cached with a single query.
+     *
+     * @param courseIds the ids of the courses
+     * @return the existing courses by their ids
+     */
+    public Map<UUID, Course> getExistingCourses(final Collection<UUID> courseIds) {
+        return cache.getAll(courseIds, this::loadAll);
+    }
+
+    /**
+     * Invalidates the cached course with the given id on all replicas, after the current transaction is committed.
+     * Must be called in the transaction that changes the course.
+     *
+     * @param courseId the id of the changed course
+     */
+    public void invalidate(final UUID courseId) {
+        evict(courseId);
+        // the course is evicted again after the commit, as it might have been loaded by a concurrent request
+        // with the data from before the change in the meantime
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                evict(courseId);
+            }
+        });
+
+        eventOutbox.notifyCourseCacheInvalidated(new Invalidation(courseId));
+    }
+
+    /**
+     * Removes the course with the given id from the cache of this replica.
+     *
+     * @param courseId the id of the course
+     */
+    public void evict(final UUID courseId) {
+        cache.invalidate(courseId);
+    }
+
+    private Course load(final UUID courseId) {
+        return courseRepository.findById(courseId)
+                .map(courseMapper::entityToDto)
+                .orElse(null);
+    }
+
+    private Map<UUID, Course> loadAll(final Set<? extends UUID> courseIds) {
+        return courseRepository.findAllById(List.copyOf(courseIds)).stream()
+                .collect(Collectors.toMap(CourseEntity::getId, courseMapper::entityToDto));
+    }
+}
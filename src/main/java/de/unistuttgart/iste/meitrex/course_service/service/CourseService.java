@@ -1,22 +1,25 @@
 package de.unistuttgart.iste.meitrex.course_service.service;
 
-import de.unistuttgart.iste.meitrex.common.dapr.TopicPublisher;
 import de.unistuttgart.iste.meitrex.common.event.CrudOperation;
 import de.unistuttgart.iste.meitrex.common.util.PaginationUtil;
 import de.unistuttgart.iste.meitrex.common.util.SortUtil;
-import de.unistuttgart.iste.meitrex.course_service.persistence.entity.ChapterEntity;
 import de.unistuttgart.iste.meitrex.course_service.persistence.entity.CourseEntity;
 import de.unistuttgart.iste.meitrex.course_service.persistence.mapper.CourseMapper;
+import de.unistuttgart.iste.meitrex.course_service.persistence.repository.ChapterRepository;
 import de.unistuttgart.iste.meitrex.course_service.persistence.repository.CourseRepository;
 import de.unistuttgart.iste.meitrex.course_service.persistence.specification.CourseFilterSpecification;
 import de.unistuttgart.iste.meitrex.course_service.persistence.validation.CourseValidator;
 import de.unistuttgart.iste.meitrex.generated.dto.*;
 import jakarta.persistence.EntityNotFoundException;
+import jakarta.validation.ValidationException;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.*;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.OffsetDateTime;
 import java.util.*;
 
 /**
@@ -27,10 +30,15 @@ import java.util.*;
 public class CourseService {
 
     private final CourseRepository courseRepository;
+    private final ChapterRepository chapterRepository;
     private final MembershipService membershipService;
     private final CourseMapper courseMapper;
     private final CourseValidator courseValidator;
-    private final TopicPublisher topicPublisher;
+    private final EventOutbox eventOutbox;
+    private final CourseCache courseCache;
+
+    @Value("${deletion.mode:HARD}")
+    private DeletionMode deletionMode = DeletionMode.HARD;
 
     /**
      * Creates a course.
@@ -57,37 +65,83 @@ public class CourseService {
      * @param input The data of the course to update.
      * @return The updated course.
      */
+    @Transactional
     public Course updateCourse(final UpdateCourseInput input) {
         courseValidator.validateUpdateCourseInput(input);
-        requireCourseExisting(input.getId());
+        // checked in the database instead of the cache, so that a course deleted on another replica is not recreated
+        requireCourseStored(input.getId());
 
         final CourseEntity updatedCourseEntity = courseRepository.save(courseMapper.dtoToEntity(input));
+        courseCache.invalidate(input.getId());
 
         return courseMapper.entityToDto(updatedCourseEntity);
     }
 
     /**
      * Deletes a course.
+     * In the {@link DeletionMode#SOFT} deletion mode, the course and its chapters are only marked as deleted,
+     * they are purged and the events are published later by {@link #purgeDeletedCourses(OffsetDateTime, int)}.
      *
      * @param uuid The id of the course to delete.
      * @return The id of the deleted course.
      * @throws EntityNotFoundException If a course with the given id does not exist.
      */
+    @Transactional
     public UUID deleteCourse(final UUID uuid) {
-        //collect chapters that would be deleted with the course due to cascading deletion
-        final CourseEntity entity = requireCourseExisting(uuid);
-        final List<UUID> chapterIds = entity.getChapters().stream().map(ChapterEntity::getId).toList();
+        final boolean deleted;
+        if (deletionMode == DeletionMode.SOFT) {
+            final OffsetDateTime now = OffsetDateTime.now();
+            deleted = courseRepository.markDeleted(uuid, now) > 0;
+            if (deleted) {
+                chapterRepository.markDeletedByCourseId(uuid, now);
+            }
+        } else {
+            deleted = purgeCourse(uuid);
+        }
+
+        if (!deleted) {
+            throw new EntityNotFoundException("Course with id " + uuid + " not found");
+        }
+        courseCache.invalidate(uuid);
+        return uuid;
+    }
 
-        // delete Memberships
+    /**
+     * Purges courses that were marked as deleted before the given time, together with their chapters and
+     * memberships, and publishes the events of the deletions.
+     *
+     * @param deletedBefore only courses marked as deleted before this time are purged
+     * @param limit         maximum number of courses to purge
+     * @return the number of purged courses
+     */
+    @Transactional
+    public int purgeDeletedCourses(final OffsetDateTime deletedBefore, final int limit) {
+        final List<UUID> courseIds = courseRepository.lockDeletedCourseIds(deletedBefore, limit);
+        courseIds.forEach(this::purgeCourse);
+        return courseIds.size();
+    }
+
+    /**
+     * Deletes a course with its chapters and memberships and publishes the events of the deletion.
+     *
+     * @return false if the course does not exist
+     */
+    private boolean purgeCourse(final UUID uuid) {
+        // set-based deletes, so that the number of statements does not depend on the number of chapters and members
+        if (courseRepository.deleteCourseById(uuid) == 0) {
+            return false;
+        }
         membershipService.deleteMembershipByCourseId(uuid);
-        //delete course and any chapters
-        courseRepository.delete(entity);
+        final List<UUID> chapterIds = chapterRepository.lockIdsByCourseId(uuid);
+        if (!chapterIds.isEmpty()) {
+            chapterRepository.deleteAllByIds(chapterIds);
+        }
 
         //publish changes
-        topicPublisher.notifyCourseChanges(uuid, CrudOperation.DELETE);
-        topicPublisher.notifyChapterChanges(chapterIds, CrudOperation.DELETE);
+        eventOutbox.notifyCourseChanges(uuid, CrudOperation.DELETE);
+        eventOutbox.notifyChapterChanges(chapterIds, CrudOperation.DELETE);
 
-        return uuid;
+        return true;
     }
 
     /**
@@ -98,10 +152,7 @@ public class CourseService {
      * @throws EntityNotFoundException If a course with at least one of the given ids does not exist.
      */
     public List<Course> getCoursesByIds(final List<UUID> ids) {
-        return courseRepository.getAllByIdPreservingOrder(ids)
-                .stream()
-                .map(courseMapper::entityToDto)
-                .toList();
+        return courseCache.getCourses(ids);
     }
 
     /**
@@ -111,35 +162,66 @@ public class CourseService {
      * @return The course with the given id.
      */
     public Course getCourseById(final UUID courseId) {
-        final CourseEntity entity = requireCourseExisting(courseId);
-        return courseMapper.entityToDto(entity);
+        return requireCourseExisting(courseId);
     }
 
     /**
      * Checks if a course with the given id exists. If not, an EntityNotFoundException is thrown.
+     * The course is read from the {@link CourseCache}.
      *
      * @param id The id of the course to check.
      * @return The course with the given id.
      * @throws EntityNotFoundException If a course with the given id does not exist.
      */
-    public CourseEntity requireCourseExisting(final UUID id) {
-        return courseRepository.findById(id)
+    public Course requireCourseExisting(final UUID id) {
+        return courseCache.getCourse(id)
                 .orElseThrow(() -> new EntityNotFoundException("Course with id " + id + " not found"));
     }
 
+    /**
+     * Checks if a course with the given id exists. If not, an EntityNotFoundException is thrown.
+     * In contrast to {@link #requireCourseExisting(UUID)}, the course is checked in the database, so that a course
+     * that was deleted on another replica, but is still cached on this replica, is not found. Used before data of the
+     * course is written.
+     *
+     * @param id The id of the course to check.
+     * @throws EntityNotFoundException If a course with the given id does not exist.
+     */
+    public void requireCourseStored(final UUID id) {
+        if (!courseRepository.existsById(id)) {
+            throw new EntityNotFoundException("Course with id " + id + " not found");
+        }
+    }
+
     /**
      * Returns a list of all courses.
      *
-     * @param filter        optional filter for the courses
-     * @param sortBy        list of sort fields
-     * @param sortDirection list of sort directions
-     * @param pagination    optional pagination
+     * @param filter           optional filter for the courses
+     * @param sortBy           list of sort fields
+     * @param sortDirection    list of sort directions
+     * @param pagination       optional offset based pagination
+     * @param cursorPagination optional cursor based pagination, can not be combined with offset based pagination
      * @return a list of all courses
+     * @throws ValidationException if both pagination modes are used
      */
     public CoursePayload getCourses(final CourseFilter filter,
                                     final List<String> sortBy,
                                     final List<SortDirection> sortDirection,
-                                    final Pagination pagination) {
+                                    final Pagination pagination,
+                                    final CursorPagination cursorPagination) {
+        if (cursorPagination == null) {
+            return getCourses(filter, sortBy, sortDirection, pagination);
+        }
+        if (pagination != null) {
+            throw new ValidationException("pagination and cursorPagination can not be used at the same time");
+        }
+        return getCoursesWithCursor(filter, sortBy, sortDirection, cursorPagination);
+    }
+
+    private CoursePayload getCourses(final CourseFilter filter,
+                                     final List<String> sortBy,
+                                     final List<SortDirection> sortDirection,
+                                     final Pagination pagination) {
 
         final Sort sort = SortUtil.createSort(sortBy, sortDirection);
         final Pageable pageRequest = PaginationUtil.createPageable(pagination, sort);
@@ -155,6 +237,60 @@ public class CourseService {
         return createCoursePayloadUnpaged(result);
     }
 
+    /**
+     * Returns a page of courses using keyset pagination. Instead of skipping the elements of previous pages,
+     * the query seeks to the elements after the sort keys and id of the cursor, so the latency does not depend on
+     * how far a client pages. The total count is only queried if requested.
+     */
+    private CoursePayload getCoursesWithCursor(final CourseFilter filter,
+                                               final List<String> sortBy,
+                                               final List<SortDirection> sortDirection,
+                                               final CursorPagination cursorPagination) {
+        final Sort sort = SortUtil.createSort(sortBy, sortDirection);
+        KeysetCursorCodec.validateSort(sort);
+
+        final ScrollPosition position = cursorPagination.getAfter() == null
+                ? ScrollPosition.keyset()
+                : ScrollPosition.forward(KeysetCursorCodec.decode(cursorPagination.getAfter(), sort));
+
+        final Specification<CourseEntity> specification = Specification.<CourseEntity>unrestricted()
+                .and(CourseFilterSpecification.courseFilter(filter));
+
+        final Window<CourseEntity> window = courseRepository.findBy(specification, query -> query
+                .sortBy(sort)
+                .limit(cursorPagination.getSize())
+                .scroll(position));
+
+        final String nextCursor = window.hasNext()
+                ? KeysetCursorCodec.encode(((KeysetScrollPosition) window.positionAt(window.size() - 1)).getKeys())
+                : null;
+
+        final CoursePayload payload = courseMapper.createPayload(window.stream(),
+                createCursorPaginationInfo(specification, window, cursorPagination));
+        payload.setNextCursor(nextCursor);
+        return payload;
+    }
+
+    private PaginationInfo createCursorPaginationInfo(final Specification<CourseEntity> specification,
+                                                      final Window<CourseEntity> window,
+                                                      final CursorPagination cursorPagination) {
+        // counting is skipped unless requested, the unknown totals are reported as -1
+        int totalElements = -1;
+        int totalPages = -1;
+        if (Boolean.TRUE.equals(cursorPagination.getIncludeTotalCount())) {
+            totalElements = (int) courseRepository.count(specification);
+            totalPages = (totalElements + cursorPagination.getSize() - 1) / cursorPagination.getSize();
+        }
+
+        return PaginationInfo.builder()
+                .setPage(0)
+                .setSize(window.size())
+                .setTotalElements(totalElements)
+                .setTotalPages(totalPages)
+                .setHasNext(window.hasNext())
+                .build();
+    }
+
     /**
      * Returns a map of courses by their course memberships.
      *
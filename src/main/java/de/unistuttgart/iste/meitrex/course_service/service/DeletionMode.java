@@ -0,0 +1,16 @@
+package de.unistuttgart.iste.meitrex.course_service.service;
+
+/**
+ * How courses and chapters are deleted.
+ */
+public enum DeletionMode {
+    /**
+     * The rows are deleted and the events are published immediately. This is the default.
+     */
+    HARD,
+    /**
+     * The rows are only marked as deleted. They are deleted and the events are published later by the
+     * {@link DeletionPurger}, so the other services only learn about a deletion after the grace period.
+     */
+    SOFT
+}
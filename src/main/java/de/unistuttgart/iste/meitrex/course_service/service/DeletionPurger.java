@@ -0,0 +1,55 @@
+package de.unistuttgart.iste.meitrex.course_service.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+
+/**
+ * Purges the courses and chapters that were deleted in the {@link DeletionMode#SOFT} deletion mode.
+ * <p>
+ * Deleted rows are kept for a grace period, after which they are purged in batches of limited size per run,
+ * so that deleting many courses at once does not cause a spike of writes and events.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class DeletionPurger {
+
+    private final CourseService courseService;
+    private final ChapterService chapterService;
+
+    /**
+     * Time for which deleted rows are kept before they are purged.
+     */
+    @Value("${deletion.purge.grace_period:PT24H}")
+    private Duration gracePeriod = Duration.ofHours(24);
+
+    /**
+     * Maximum number of courses and of chapters purged per run.
+     */
+    @Value("${deletion.purge.batch_size:50}")
+    private int batchSize = 50;
+
+    /**
+     * Purges one batch of deleted courses and one batch of deleted chapters whose grace period has passed.
+     *
+     * @return the number of purged courses and chapters
+     */
+    @Scheduled(fixedDelayString = "${deletion.purge.interval:PT1M}")
+    public int purge() {
+        final OffsetDateTime deletedBefore = OffsetDateTime.now().minus(gracePeriod);
+
+        final int purgedCourses = courseService.purgeDeletedCourses(deletedBefore, batchSize);
+        final int purgedChapters = chapterService.purgeDeletedChapters(deletedBefore, batchSize);
+
+        if (purgedCourses > 0 || purgedChapters > 0) {
+            log.info("Purged {} deleted courses and {} deleted chapters", purgedCourses, purgedChapters);
+        }
+        return purgedCourses + purgedChapters;
+    }
+}
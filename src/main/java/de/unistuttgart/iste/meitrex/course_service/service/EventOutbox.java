@@ -0,0 +1,287 @@
+package de.unistuttgart.iste.meitrex.course_service.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.unistuttgart.iste.meitrex.common.dapr.TopicPublisher;
+import de.unistuttgart.iste.meitrex.common.event.CrudOperation;
+import de.unistuttgart.iste.meitrex.common.event.ServerSource;
+import de.unistuttgart.iste.meitrex.common.event.UserCourseMembershipChangedEvent;
+import de.unistuttgart.iste.meitrex.course_service.persistence.entity.OutboxEventEntity;
+import de.unistuttgart.iste.meitrex.course_service.persistence.repository.OutboxEventRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Transactional outbox for the events published through the {@link TopicPublisher}.
+ * <p>
+ * The events are written to the outbox table in the transaction of the entity change they describe, so that they
+ * are only published if the change is committed, and are not lost if publishing fails. They are published later
+ * by the {@link EventOutboxRelay}, outside of the request.
+ * <p>
+ * The events are published at least once, but not necessarily in the order they were written: the relays of
+ * multiple replicas publish different batches concurrently, and an event that fails is retried after the events
+ * written after it. Consumers must therefore tolerate duplicate and reordered events.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class EventOutbox {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final TopicPublisher topicPublisher;
+    private final CacheInvalidationPublisher cacheInvalidationPublisher;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Maximum number of membership change events stored in one outbox event by
+     * {@link #notifyUserCourseMembershipsChanged(List)}. The events of such a batch are published concurrently.
+     */
+    @Value("${outbox.membership_events.batch_size:100}")
+    private int membershipEventBatchSize = 100;
+
+    /**
+     * Number of failed attempts after which an event is dead-lettered.
+     */
+    @Value("${outbox.relay.max_attempts:10}")
+    private int maxAttempts = 10;
+
+    /**
+     * Delay after which a failed event is published again, multiplied by the number of failed attempts.
+     */
+    @Value("${outbox.relay.retry_delay:PT30S}")
+    private Duration retryDelay = Duration.ofSeconds(30);
+
+    record CourseChanges(UUID courseId, CrudOperation operation) {
+    }
+
+    record ChapterChanges(List<UUID> chapterIds, CrudOperation operation) {
+    }
+
+    /**
+     * A notification of the given members of a course about a chapter.
+     */
+    record ChapterNotification(UUID courseId, List<UUID> userIds, String link, String title, String message) {
+    }
+
+    /**
+     * Adds a course change event to the outbox.
+     *
+     * @see TopicPublisher#notifyCourseChanges(UUID, CrudOperation)
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void notifyCourseChanges(final UUID courseId, final CrudOperation operation) {
+        add(OutboxEventEntity.Type.COURSE_CHANGED, new CourseChanges(courseId, operation));
+    }
+
+    /**
+     * Adds a chapter change event to the outbox.
+     *
+     * @see TopicPublisher#notifyChapterChanges(List, CrudOperation)
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void notifyChapterChanges(final List<UUID> chapterIds, final CrudOperation operation) {
+        add(OutboxEventEntity.Type.CHAPTER_CHANGED, new ChapterChanges(chapterIds, operation));
+    }
+
+    /**
+     * Adds a notification about a chapter to the outbox.
+     *
+     * @see TopicPublisher#notificationEvent
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void notifyChapterNotification(final ChapterNotification notification) {
+        add(OutboxEventEntity.Type.CHAPTER_NOTIFICATION, notification);
+    }
+
+    /**
+     * Adds a membership change event to the outbox.
+     *
+     * @see TopicPublisher#notifyUserCourseMembershipChanged(UserCourseMembershipChangedEvent)
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void notifyUserCourseMembershipChanged(final UserCourseMembershipChangedEvent event) {
+        add(OutboxEventEntity.Type.USER_COURSE_MEMBERSHIP_CHANGED, event);
+    }
+
+    /**
+     * Adds multiple membership change events to the outbox, e.g., for all members of a deleted course.
+     * The events are stored in batches, so that adding them takes few statements however many events there are,
+     * and are published concurrently by the relay.
+     *
+     * @see TopicPublisher#notifyUserCourseMembershipChanged(UserCourseMembershipChangedEvent)
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void notifyUserCourseMembershipsChanged(final List<UserCourseMembershipChangedEvent> events) {
+        final List<OutboxEventEntity> outboxEvents = new ArrayList<>();
+        for (int i = 0; i < events.size(); i += membershipEventBatchSize) {
+            final List<UserCourseMembershipChangedEvent> batch =
+                    events.subList(i, Math.min(i + membershipEventBatchSize, events.size()));
+            outboxEvents.add(createOutboxEvent(OutboxEventEntity.Type.USER_COURSE_MEMBERSHIPS_CHANGED, batch));
+        }
+
+        outboxEventRepository.saveAll(outboxEvents);
+    }
+
+    /**
+     * Adds an invalidation message of the course cache to the outbox.
+     *
+     * @see CacheInvalidationPublisher#publish(CourseCache.Invalidation)
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void notifyCourseCacheInvalidated(final CourseCache.Invalidation invalidation) {
+        add(OutboxEventEntity.Type.COURSE_CACHE_INVALIDATED, invalidation);
+    }
+
+    /**
+     * Adds an invalidation message of the membership cache to the outbox.
+     *
+     * @see CacheInvalidationPublisher#publish(MembershipLookup.Invalidation)
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void notifyMembershipCacheInvalidated(final MembershipLookup.Invalidation invalidation) {
+        add(OutboxEventEntity.Type.MEMBERSHIP_CACHE_INVALIDATED, invalidation);
+    }
+
+    /**
+     * Publishes the oldest events of the outbox and removes them from it.
+     * If publishing an event fails, the following events are still published. The failed event is kept in the outbox
+     * and published again after {@code outbox.relay.retry_delay} times the number of failed attempts, or
+     * dead-lettered after {@code outbox.relay.max_attempts} attempts.
+     *
+     * @param limit maximum number of events to publish
+     * @return the number of published events
+     */
+    @Transactional
+    public int publishOldestEvents(final int limit) {
+        final List<OutboxEventEntity> events = outboxEventRepository.lockOldestEvents(limit);
+
+        final List<OutboxEventEntity> publishedEvents = new ArrayList<>(events.size());
+        final List<OutboxEventEntity> failedEvents = new ArrayList<>();
+        for (final OutboxEventEntity event : events) {
+            try {
+                publish(event);
+                publishedEvents.add(event);
+            } catch (final RuntimeException e) {
+                recordFailedAttempt(event, e);
+                failedEvents.add(event);
+            }
+        }
+
+        outboxEventRepository.deleteAllInBatch(publishedEvents);
+        if (!failedEvents.isEmpty()) {
+            outboxEventRepository.saveAll(failedEvents);
+        }
+
+        return publishedEvents.size();
+    }
+
+    private void recordFailedAttempt(final OutboxEventEntity event, final RuntimeException error) {
+        final OffsetDateTime now = OffsetDateTime.now();
+        event.setAttempts(event.getAttempts() + 1);
+        event.setLastError(error.toString());
+
+        if (event.getAttempts() >= maxAttempts) {
+            event.setDeadLetteredAt(now);
+            log.error("Failed to publish outbox event {} of type {} {} times, dead-lettering it",
+                    event.getId(), event.getType(), event.getAttempts(), error);
+        } else {
+            event.setNextAttemptAt(now.plus(retryDelay.multipliedBy(event.getAttempts())));
+            log.warn("Failed to publish outbox event {} of type {}, retrying at {}",
+                    event.getId(), event.getType(), event.getNextAttemptAt(), error);
+        }
+    }
+
+    private void publish(final OutboxEventEntity event) {
+        switch (event.getType()) {
+            case COURSE_CHANGED -> {
+                final CourseChanges changes = read(event, CourseChanges.class);
+                topicPublisher.notifyCourseChanges(changes.courseId(), changes.operation());
+            }
+            case CHAPTER_CHANGED -> {
+                final ChapterChanges changes = read(event, ChapterChanges.class);
+                topicPublisher.notifyChapterChanges(changes.chapterIds(), changes.operation());
+            }
+            case CHAPTER_NOTIFICATION -> {
+                final ChapterNotification notification = read(event, ChapterNotification.class);
+                topicPublisher.notificationEvent(notification.courseId(), notification.userIds(), ServerSource.CHAPTER,
+                        notification.link(), notification.title(), notification.message());
+            }
+            case USER_COURSE_MEMBERSHIP_CHANGED ->
+                    topicPublisher.notifyUserCourseMembershipChanged(read(event, UserCourseMembershipChangedEvent.class));
+            case USER_COURSE_MEMBERSHIPS_CHANGED -> publishConcurrently(read(event,
+                    objectMapper.getTypeFactory().constructCollectionType(List.class, UserCourseMembershipChangedEvent.class)));
+            case COURSE_CACHE_INVALIDATED ->
+                    cacheInvalidationPublisher.publish(read(event, CourseCache.Invalidation.class));
+            case MEMBERSHIP_CACHE_INVALIDATED ->
+                    cacheInvalidationPublisher.publish(read(event, MembershipLookup.Invalidation.class));
+        }
+    }
+
+    /**
+     * Publishes independent membership change events concurrently, so that the time to publish a batch does not grow
+     * with the number of events. Fails if publishing any of the events fails.
+     */
+    private void publishConcurrently(final List<UserCourseMembershipChangedEvent> events) {
+        final List<Future<?>> futures;
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            futures = events.stream()
+                    .<Future<?>>map(event -> executor.submit(() -> topicPublisher.notifyUserCourseMembershipChanged(event)))
+                    .toList();
+        } // waits for all events to be published
+
+        for (final Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (final ExecutionException e) {
+                throw new IllegalStateException("Failed to publish membership change event", e.getCause());
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while publishing membership change events", e);
+            }
+        }
+    }
+
+    private void add(final OutboxEventEntity.Type type, final Object payload) {
+        outboxEventRepository.save(createOutboxEvent(type, payload));
+    }
+
+    private OutboxEventEntity createOutboxEvent(final OutboxEventEntity.Type type, final Object payload) {
+        try {
+            return OutboxEventEntity.builder()
+                    .type(type)
+                    .payload(objectMapper.writeValueAsString(payload))
+                    .createdAt(OffsetDateTime.now())
+                    .build();
+        } catch (final JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private <T> T read(final OutboxEventEntity event, final Class<T> payloadType) {
+        return read(event, objectMapper.constructType(payloadType));
+    }
+
+    private <T> T read(final OutboxEventEntity event, final JavaType payloadType) {
+        try {
+            return objectMapper.readValue(event.getPayload(), payloadType);
+        } catch (final JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package de.unistuttgart.iste.meitrex.course_service.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Publishes the events of the {@link EventOutbox} in the background.
+ * Each replica runs a relay, the events are distributed between them by the database.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class EventOutboxRelay {
+
+    private final EventOutbox eventOutbox;
+
+    /**
+     * Maximum number of events published in one transaction.
+     */
+    @Value("${outbox.relay.batch_size:100}")
+    private int batchSize = 100;
+
+    /**
+     * Publishes events in batches until no events are due or publishing an event of a batch fails.
+     *
+     * @return the number of published events
+     */
+    @Scheduled(fixedDelayString = "${outbox.relay.interval:PT1S}")
+    public int relay() {
+        int publishedEvents = 0;
+        int publishedInBatch;
+        do {
+            publishedInBatch = eventOutbox.publishOldestEvents(batchSize);
+            publishedEvents += publishedInBatch;
+        } while (publishedInBatch == batchSize);
+
+        if (publishedEvents > 0) {
+            log.debug("Published {} outbox events", publishedEvents);
+        }
+        return publishedEvents;
+    }
+}
@@ -0,0 +1,99 @@
+package de.unistuttgart.iste.meitrex.course_service.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ValidationException;
+import org.springframework.data.domain.Sort;
+
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Encodes the keys of a keyset scroll position of courses into an opaque cursor string and back.
+ * <p>
+ * The cursor contains the values of the sort properties and the id of the last element of a page.
+ * Only non-nullable properties can be used, as keyset pagination cannot seek over null values.
+ */
+final class KeysetCursorCodec {
+
+    private static final String ID_PROPERTY = "id";
+
+    private static final Map<String, Function<String, Object>> PROPERTY_PARSERS = Map.of(
+            ID_PROPERTY, UUID::fromString,
+            "title", value -> value,
+            "description", value -> value,
+            "startDate", OffsetDateTime::parse,
+            "endDate", OffsetDateTime::parse,
+            "published", Boolean::valueOf);
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final TypeReference<Map<String, String>> KEYS_TYPE = new TypeReference<>() {
+    };
+
+    private KeysetCursorCodec() {
+        // Utility class
+    }
+
+    /**
+     * Checks that all properties of the sort can be used for keyset pagination.
+     *
+     * @throws ValidationException if a property cannot be used for keyset pagination
+     */
+    static void validateSort(final Sort sort) {
+        for (final Sort.Order order : sort) {
+            if (!PROPERTY_PARSERS.containsKey(order.getProperty())) {
+                throw new ValidationException("Sorting by '%s' is not supported with cursor pagination, supported are: %s"
+                        .formatted(order.getProperty(), PROPERTY_PARSERS.keySet()));
+            }
+        }
+    }
+
+    static String encode(final Map<String, ?> keys) {
+        final Map<String, String> values = new HashMap<>();
+        keys.forEach((property, value) -> values.put(property, value.toString()));
+
+        try {
+            final byte[] json = OBJECT_MAPPER.writeValueAsBytes(values);
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(json);
+        } catch (final JsonProcessingException e) {
+            throw new IllegalStateException("Could not encode cursor", e);
+        }
+    }
+
+    /**
+     * Decodes a cursor created by {@link #encode(Map)}.
+     *
+     * @param cursor the cursor to decode
+     * @param sort   the sort of the request, which must be the same as the one the cursor was created with
+     * @return the keys of the scroll position
+     * @throws ValidationException if the cursor is malformed or does not match the sort
+     */
+    static Map<String, Object> decode(final String cursor, final Sort sort) {
+        final Map<String, String> values;
+        try {
+            values = OBJECT_MAPPER.readValue(Base64.getUrlDecoder().decode(cursor), KEYS_TYPE);
+        } catch (final IllegalArgumentException | java.io.IOException e) {
+            throw new ValidationException("Invalid cursor: " + cursor);
+        }
+
+        final Set<String> expectedProperties = new HashSet<>();
+        sort.forEach(order -> expectedProperties.add(order.getProperty()));
+        expectedProperties.add(ID_PROPERTY);
+
+        if (!values.keySet().equals(expectedProperties)) {
+            throw new ValidationException("Cursor does not match the requested sort order");
+        }
+
+        final Map<String, Object> keys = new LinkedHashMap<>();
+        try {
+            values.forEach((property, value) -> keys.put(property, PROPERTY_PARSERS.get(property).apply(value)));
+        } catch (final RuntimeException e) {
+            throw new ValidationException("Invalid cursor: " + cursor);
+        }
+
+        return keys;
+    }
+}
@@ -0,0 +1,169 @@
+package de.unistuttgart.iste.meitrex.course_service.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import de.unistuttgart.iste.meitrex.course_service.persistence.entity.CourseMembershipEntity;
+import de.unistuttgart.iste.meitrex.course_service.persistence.repository.CourseMembershipRepository;
+import de.unistuttgart.iste.meitrex.generated.dto.UserRoleInCourse;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Read-through cache for the memberships of courses and of users, used by the internal queries of other services.
+ * <p>
+ * The memberships of a course or user are stored as {@link CompactMemberships}, i.e., as primitive arrays instead of
+ * lists of objects. The caches are bounded by the total number of cached memberships.
+ * <p>
+ * The membership mutations update the cached entries after their commit on this replica, and the other replicas
+ * evict the affected entries when they receive the invalidation message published through the {@link EventOutbox},
+ * which is delivered to every replica (see {@link CacheInvalidationPublisher}). The entries also expire after
+ * {@code membership.cache.ttl}, which bounds how long a replica that missed a message serves stale memberships.
+ */
+@Component
+@ConditionalOnProperty(name = "membership.lookup", havingValue = "CACHE", matchIfMissing = true)
+public class MembershipCache implements MembershipLookup {
+
+    private final CourseMembershipRepository courseMembershipRepository;
+    private final EventOutbox eventOutbox;
+
+    /**
+     * Memberships by course id, the ids in the entries are the ids of the users.
+     */
+    private final Cache<UUID, CompactMemberships> membershipsByCourseId;
+    /**
+     * Memberships by user id, the ids in the entries are the ids of the courses.
+     */
+    private final Cache<UUID, CompactMemberships> membershipsByUserId;
+
+    public MembershipCache(final CourseMembershipRepository courseMembershipRepository,
+                           final EventOutbox eventOutbox,
+                           final MeterRegistry meterRegistry,
+                           @Value("${membership.cache.maximum_memberships:1000000}") final long maximumMemberships,
+                           @Value("${membership.cache.ttl:10m}") final Duration ttl) {
+        this.courseMembershipRepository = courseMembershipRepository;
+        this.eventOutbox = eventOutbox;
+        this.membershipsByCourseId = createCache(maximumMemberships, ttl);
+        this.membershipsByUserId = createCache(maximumMemberships, ttl);
+
+        CaffeineCacheMetrics.monitor(meterRegistry, membershipsByCourseId, "courseMembershipsByCourse");
+        CaffeineCacheMetrics.monitor(meterRegistry, membershipsByUserId, "courseMembershipsByUser");
+    }
+
+    private static Cache<UUID, CompactMemberships> createCache(final long maximumMemberships, final Duration ttl) {
+        return Caffeine.newBuilder()
+                // an entry weighs at least 1, so that empty entries are also bounded
+                .maximumWeight(maximumMemberships)
+                .<UUID, CompactMemberships>weigher((id, memberships) -> Math.max(1, memberships.size()))
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Returns the memberships of a course, loading them from the database if they are not cached.
+     *
+     * @param courseId the id of the course
+     * @return the memberships of the course, by the ids of the users
+     */
+    @Override
+    public CompactMemberships getMembershipsOfCourse(final UUID courseId) {
+        return membershipsByCourseId.get(courseId, id -> CompactMemberships.of(
+                courseMembershipRepository.findCourseMembershipEntitiesByCourseId(id),
+                CourseMembershipEntity::getUserId));
+    }
+
+    /**
+     * Returns the memberships of multiple courses, loading the ones that are not cached with a single query.
+     *
+     * @param courseIds the ids of the courses
+     * @return the memberships of each of the courses, by the ids of the users
+     */
+    @Override
+    public Map<UUID, CompactMemberships> getMembershipsOfCourses(final Collection<UUID> courseIds) {
+        return membershipsByCourseId.getAll(courseIds, missingIds -> {
+            final Map<UUID, List<CourseMembershipEntity>> membershipsByCourse = courseMembershipRepository
+                    .findByCourseIdIn(List.copyOf(missingIds))
+                    .stream()
+                    .collect(Collectors.groupingBy(CourseMembershipEntity::getCourseId));
+
+            final Map<UUID, CompactMemberships> result = new HashMap<>();
+            for (final UUID courseId : missingIds) {
+                result.put(courseId, CompactMemberships.of(membershipsByCourse.getOrDefault(courseId, List.of()),
+                        CourseMembershipEntity::getUserId));
+            }
+            return result;
+        });
+    }
+
+    /**
+     * Returns the memberships of a user, loading them from the database if they are not cached.
+     *
+     * @param userId the id of the user
+     * @return the memberships of the user, by the ids of the courses
+     */
+    @Override
+    public CompactMemberships getMembershipsOfUser(final UUID userId) {
+        return membershipsByUserId.get(userId, id -> CompactMemberships.of(
+                courseMembershipRepository.findByUserId(id),
+                CourseMembershipEntity::getCourseId));
+    }
+
+    /**
+     * Updates the cached memberships after the current transaction is committed and invalidates them on the other
+     * replicas.
+     */
+    @Override
+    public void update(final UUID courseId, final UUID userId, final UserRoleInCourse role) {
+        afterCommit(() -> {
+            membershipsByCourseId.asMap().computeIfPresent(courseId, (id, memberships) -> memberships.with(userId, role));
+            membershipsByUserId.asMap().computeIfPresent(userId, (id, memberships) -> memberships.with(courseId, role));
+        });
+
+        eventOutbox.notifyMembershipCacheInvalidated(new Invalidation(courseId, List.of(userId)));
+    }
+
+    /**
+     * Removes the memberships of a course from the cache after the current transaction is committed and invalidates
+     * them on the other replicas.
+     */
+    @Override
+    public void removeCourse(final UUID courseId, final List<UUID> userIds) {
+        afterCommit(() -> {
+            membershipsByCourseId.invalidate(courseId);
+            for (final UUID userId : userIds) {
+                membershipsByUserId.asMap().computeIfPresent(userId, (id, memberships) -> memberships.with(courseId, null));
+            }
+        });
+
+        eventOutbox.notifyMembershipCacheInvalidated(new Invalidation(courseId, userIds));
+    }
+
+    /**
+     * Removes the memberships of the course and users from the cache of this replica.
+     */
+    @Override
+    public void invalidate(final Invalidation invalidation) {
+        membershipsByCourseId.invalidate(invalidation.courseId());
+        membershipsByUserId.invalidateAll(invalidation.userIds());
+    }
+
+    private static void afterCommit(final Runnable action) {
+        // entries that are loaded concurrently are either loaded before the commit and then updated, or loaded
+        // after the commit, in which case the update does not change them
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
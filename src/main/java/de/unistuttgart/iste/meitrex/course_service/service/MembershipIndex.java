@@ -0,0 +1,235 @@
+package de.unistuttgart.iste.meitrex.course_service.service;
+
+import de.unistuttgart.iste.meitrex.course_service.persistence.entity.CourseMembershipEntity;
+import de.unistuttgart.iste.meitrex.course_service.persistence.repository.CourseMembershipRepository;
+import de.unistuttgart.iste.meitrex.generated.dto.UserRoleInCourse;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory index of all memberships, loaded at startup, which answers the membership queries without querying
+ * the database.
+ * <p>
+ * The memberships are indexed by course and by user, each as {@link CompactMemberships}, i.e., as sorted primitive
+ * arrays, so that all memberships take about 70 bytes each, including both directions and the map entries.
+ * Courses and users without memberships are not stored.
+ * <p>
+ * The membership mutations are applied after their commit on this replica. The other replicas read the changed
+ * memberships from the database again when they receive the invalidation message published through the
+ * {@link EventOutbox}, which also corrects changes of concurrent transactions that were applied out of order.
+ * The message is delivered to every replica (see {@link CacheInvalidationPublisher}). As the index has no expiry,
+ * a replica that missed a message, e.g., while restarting, serves stale memberships until the periodic reload every
+ * {@code membership.index.reload_interval}.
+ */
+@Component
+@ConditionalOnProperty(name = "membership.lookup", havingValue = "INDEX")
+@Slf4j
+public class MembershipIndex implements MembershipLookup {
+
+    private final CourseMembershipRepository courseMembershipRepository;
+    private final EventOutbox eventOutbox;
+
+    /**
+     * The current index, replaced at once by {@link #reload()}, so that readers see either the old or the new index.
+     */
+    private volatile Indexes indexes = new Indexes(new ConcurrentHashMap<>(), new ConcurrentHashMap<>());
+
+    /**
+     * Guards the changes of the index against a concurrent replacement by {@link #reload()}.
+     */
+    private final Object changeLock = new Object();
+    /**
+     * The changes applied while the index is reloaded, which are applied to the reloaded index as well, as the
+     * memberships it was loaded from may not contain them yet. Null if no reload is running.
+     */
+    private List<Consumer<Indexes>> changesDuringReload;
+
+    /**
+     * @param membershipsByCourseId memberships by course id, the ids in the entries are the ids of the users
+     * @param membershipsByUserId   memberships by user id, the ids in the entries are the ids of the courses
+     */
+    private record Indexes(Map<UUID, CompactMemberships> membershipsByCourseId,
+                           Map<UUID, CompactMemberships> membershipsByUserId) {
+    }
+
+    public MembershipIndex(final CourseMembershipRepository courseMembershipRepository,
+                           final EventOutbox eventOutbox,
+                           final MeterRegistry meterRegistry) {
+        this.courseMembershipRepository = courseMembershipRepository;
+        this.eventOutbox = eventOutbox;
+
+        Gauge.builder("membership.index.size", this, MembershipIndex::size)
+                .description("Number of memberships in the membership index")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Loads all memberships, so that the index is complete before requests are served. Also runs periodically
+     * to correct changes of other replicas whose invalidation message was missed.
+     */
+    @PostConstruct
+    @Scheduled(fixedDelayString = "${membership.index.reload_interval:PT1H}",
+            initialDelayString = "${membership.index.reload_interval:PT1H}")
+    public void reload() {
+        synchronized (changeLock) {
+            changesDuringReload = new ArrayList<>();
+        }
+
+        try {
+            final List<CourseMembershipEntity> memberships = courseMembershipRepository.findAll();
+            final Indexes reloaded = new Indexes(
+                    index(memberships, CourseMembershipEntity::getCourseId, CourseMembershipEntity::getUserId),
+                    index(memberships, CourseMembershipEntity::getUserId, CourseMembershipEntity::getCourseId));
+
+            synchronized (changeLock) {
+                changesDuringReload.forEach(change -> change.accept(reloaded));
+                indexes = reloaded;
+            }
+
+            log.debug("Loaded {} memberships into the membership index", memberships.size());
+        } finally {
+            synchronized (changeLock) {
+                changesDuringReload = null;
+            }
+        }
+    }
+
+    private static Map<UUID, CompactMemberships> index(final List<CourseMembershipEntity> memberships,
+                                                       final Function<CourseMembershipEntity, UUID> keyExtractor,
+                                                       final Function<CourseMembershipEntity, UUID> idExtractor) {
+        return memberships.stream().collect(Collectors.groupingBy(keyExtractor,
+                ConcurrentHashMap::new,
+                Collectors.collectingAndThen(Collectors.toList(), group -> CompactMemberships.of(group, idExtractor))));
+    }
+
+    @Override
+    public CompactMemberships getMembershipsOfCourse(final UUID courseId) {
+        return indexes.membershipsByCourseId().getOrDefault(courseId, CompactMemberships.empty());
+    }
+
+    @Override
+    public Map<UUID, CompactMemberships> getMembershipsOfCourses(final Collection<UUID> courseIds) {
+        final Map<UUID, CompactMemberships> result = new HashMap<>();
+        for (final UUID courseId : courseIds) {
+            result.put(courseId, getMembershipsOfCourse(courseId));
+        }
+        return result;
+    }
+
+    @Override
+    public CompactMemberships getMembershipsOfUser(final UUID userId) {
+        return indexes.membershipsByUserId().getOrDefault(userId, CompactMemberships.empty());
+    }
+
+    /**
+     * Applies the changed membership to the index after the current transaction is committed and notifies the other
+     * replicas.
+     */
+    @Override
+    public void update(final UUID courseId, final UUID userId, final UserRoleInCourse role) {
+        afterCommit(() -> change(index -> {
+            index.membershipsByCourseId().compute(courseId, (id, memberships) -> with(memberships, userId, role));
+            index.membershipsByUserId().compute(userId, (id, memberships) -> with(memberships, courseId, role));
+        }));
+
+        eventOutbox.notifyMembershipCacheInvalidated(new Invalidation(courseId, List.of(userId)));
+    }
+
+    /**
+     * Removes the memberships of the course from the index after the current transaction is committed and notifies
+     * the other replicas.
+     */
+    @Override
+    public void removeCourse(final UUID courseId, final List<UUID> userIds) {
+        afterCommit(() -> change(index -> {
+            index.membershipsByCourseId().remove(courseId);
+            for (final UUID userId : userIds) {
+                index.membershipsByUserId().compute(userId, (id, memberships) -> with(memberships, courseId, null));
+            }
+        }));
+
+        eventOutbox.notifyMembershipCacheInvalidated(new Invalidation(courseId, userIds));
+    }
+
+    /**
+     * Reads the memberships of the course and users from the database again.
+     */
+    @Override
+    public void invalidate(final Invalidation invalidation) {
+        final UUID courseId = invalidation.courseId();
+        final CompactMemberships membershipsOfCourse = CompactMemberships.of(
+                courseMembershipRepository.findCourseMembershipEntitiesByCourseId(courseId),
+                CourseMembershipEntity::getUserId);
+        final Map<UUID, CompactMemberships> membershipsOfUsers = new HashMap<>();
+        for (final UUID userId : invalidation.userIds()) {
+            membershipsOfUsers.put(userId, CompactMemberships.of(
+                    courseMembershipRepository.findByUserId(userId),
+                    CourseMembershipEntity::getCourseId));
+        }
+
+        change(index -> {
+            putOrRemove(index.membershipsByCourseId(), courseId, membershipsOfCourse);
+            membershipsOfUsers.forEach((userId, memberships) ->
+                    putOrRemove(index.membershipsByUserId(), userId, memberships));
+        });
+    }
+
+    /**
+     * Applies a change to the current index and, if the index is being reloaded, also to the reloaded one.
+     */
+    private void change(final Consumer<Indexes> change) {
+        synchronized (changeLock) {
+            change.accept(indexes);
+            if (changesDuringReload != null) {
+                changesDuringReload.add(change);
+            }
+        }
+    }
+
+    private long size() {
+        return indexes.membershipsByCourseId().values().stream().mapToLong(CompactMemberships::size).sum();
+    }
+
+    /**
+     * @return the changed memberships, or null if no memberships are left, which removes the entry
+     */
+    private static CompactMemberships with(final CompactMemberships memberships,
+                                           final UUID id,
+                                           final UserRoleInCourse role) {
+        final CompactMemberships changed = (memberships == null ? CompactMemberships.empty() : memberships)
+                .with(id, role);
+        return changed.size() > 0 ? changed : null;
+    }
+
+    private static void putOrRemove(final Map<UUID, CompactMemberships> index,
+                                    final UUID key,
+                                    final CompactMemberships memberships) {
+        if (memberships.size() > 0) {
+            index.put(key, memberships);
+        } else {
+            index.remove(key);
+        }
+    }
+
+    private static void afterCommit(final Runnable action) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
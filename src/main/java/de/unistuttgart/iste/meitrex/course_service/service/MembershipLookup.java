@@ -0,0 +1,75 @@
+package de.unistuttgart.iste.meitrex.course_service.service;
+
+import de.unistuttgart.iste.meitrex.generated.dto.UserRoleInCourse;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * In-memory lookup of the memberships of courses and of users, which serves the membership queries of
+ * the {@link MembershipService} without querying the database.
+ * <p>
+ * The implementation is selected with the {@code membership.lookup} property: the {@link MembershipCache} only holds
+ * recently used memberships and is the default ({@code CACHE}), the {@link MembershipIndex} holds all memberships
+ * ({@code INDEX}). The index answers every lookup from memory, but keeps stale memberships until its next reload if a
+ * replica misses an invalidation message, so it should only be chosen if all memberships fit into memory and the
+ * lookups of memberships that are not cached put too much load on the database.
+ * <p>
+ * The memberships of users are returned regardless of the state of the courses, e.g., whether a course has been
+ * deleted, so callers must check the courses themselves.
+ */
+public interface MembershipLookup {
+
+    /**
+     * Message sent to all replicas to refresh the memberships of a course and of some of its users.
+     */
+    record Invalidation(UUID courseId, List<UUID> userIds) {
+    }
+
+    /**
+     * @param courseId the id of the course
+     * @return the memberships of the course, by the ids of the users
+     */
+    CompactMemberships getMembershipsOfCourse(UUID courseId);
+
+    /**
+     * @param courseIds the ids of the courses
+     * @return the memberships of each of the courses, by the ids of the users
+     */
+    Map<UUID, CompactMemberships> getMembershipsOfCourses(Collection<UUID> courseIds);
+
+    /**
+     * @param userId the id of the user
+     * @return the memberships of the user, by the ids of the courses
+     */
+    CompactMemberships getMembershipsOfUser(UUID userId);
+
+    /**
+     * Applies a changed membership after the current transaction is committed and notifies the other replicas.
+     * Must be called in the transaction that changes the membership.
+     *
+     * @param courseId the id of the course
+     * @param userId   the id of the user
+     * @param role     the new role of the user in the course, or null if the membership was deleted
+     */
+    void update(UUID courseId, UUID userId, UserRoleInCourse role);
+
+    /**
+     * Removes the memberships of a course after the current transaction is committed and notifies the other replicas.
+     * Must be called in the transaction that deletes the memberships.
+     *
+     * @param courseId the id of the course
+     * @param userIds  the ids of the users whose memberships were deleted
+     */
+    void removeCourse(UUID courseId, List<UUID> userIds);
+
+    /**
+     * Handles an invalidation message of another replica, so that the changed memberships are read from the
+     * database again.
+     *
+     * @param invalidation the course and users whose memberships changed
+     */
+    void invalidate(Invalidation invalidation);
+}
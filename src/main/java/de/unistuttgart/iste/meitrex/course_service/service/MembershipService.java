@@ -1,9 +1,7 @@
 package de.unistuttgart.iste.meitrex.course_service.service;
 
-import de.unistuttgart.iste.meitrex.common.dapr.TopicPublisher;
 import de.unistuttgart.iste.meitrex.common.event.UserCourseMembershipChangedEvent;
 import de.unistuttgart.iste.meitrex.course_service.persistence.entity.*;
-import de.unistuttgart.iste.meitrex.course_service.persistence.mapper.CourseMapper;
 import de.unistuttgart.iste.meitrex.course_service.persistence.mapper.MembershipMapper;
 import de.unistuttgart.iste.meitrex.course_service.persistence.repository.CourseMembershipRepository;
 import de.unistuttgart.iste.meitrex.course_service.persistence.repository.CourseRepository;
@@ -11,11 +9,10 @@ import de.unistuttgart.iste.meitrex.generated.dto.*;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.OffsetDateTime;
-import java.util.List;
-import java.util.UUID;
-import java.util.function.Predicate;
+import java.util.*;
 
 @Service
 @RequiredArgsConstructor
@@ -27,12 +24,17 @@ public class MembershipService {
 
     private final MembershipMapper membershipMapper;
 
-    private final CourseMapper courseMapper;
+    private final EventOutbox eventOutbox;
 
-    private final TopicPublisher topicPublisher;
+    private final CourseCache courseCache;
+
+    private final MembershipLookup membershipLookup;
 
     /**
      * Returns all memberships of a user
+     * <p>
+     * The memberships are read from the {@link MembershipLookup} and the availability of their courses is evaluated
+     * with the courses of the {@link CourseCache}, so that neither needs a database query once they are cached.
      *
      * @param userId             ID of the user
      * @param availabilityFilter Filter field to filter for available or unavailable courses.
@@ -42,11 +44,28 @@ public class MembershipService {
      * @return List of memberships
      */
     public List<CourseMembership> getAllMembershipByUserId(final UUID userId, final Boolean availabilityFilter) {
-        return courseMembershipRepository.findByUserId(userId)
-                .stream()
-                .map(membershipMapper::entityToDto)
-                .filter(byAvailability(availabilityFilter))
-                .toList();
+        final CompactMemberships memberships = membershipLookup.getMembershipsOfUser(userId);
+        // the courses are needed for the filter and to skip memberships of courses that have been deleted
+        final Map<UUID, Course> courses = courseCache.getExistingCourses(memberships.getIds());
+        final OffsetDateTime now = OffsetDateTime.now();
+
+        final List<CourseMembership> result = new ArrayList<>(memberships.size());
+        for (int i = 0; i < memberships.size(); i++) {
+            final Course course = courses.get(memberships.getId(i));
+            if (course != null && (availabilityFilter == null || isAvailable(course, now) == availabilityFilter)) {
+                result.add(toDto(userId, course.getId(), memberships.getRole(i)));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * A course is available if it is published, the start date is before and the end date is after the given time.
+     */
+    private static boolean isAvailable(final Course course, final OffsetDateTime now) {
+        return Boolean.TRUE.equals(course.getPublished())
+               && course.getStartDate().isBefore(now)
+               && course.getEndDate().isAfter(now);
     }
 
     /**
@@ -54,6 +73,7 @@ public class MembershipService {
      *
      * @return created entity
      */
+    @Transactional
     public CourseMembership createMembership(final CourseMembershipInput inputDto) {
         if (!courseRepository.existsById(inputDto.getCourseId())) {
             throw new EntityNotFoundException("Course with id " + inputDto.getCourseId() + " not found");
@@ -61,12 +81,13 @@ public class MembershipService {
 
         final CourseMembershipEntity entity = courseMembershipRepository.save(membershipMapper.dtoToEntity(inputDto));
 
-        topicPublisher.notifyUserCourseMembershipChanged(UserCourseMembershipChangedEvent.builder()
+        eventOutbox.notifyUserCourseMembershipChanged(UserCourseMembershipChangedEvent.builder()
                 .courseId(inputDto.getCourseId())
                 .userId(inputDto.getUserId())
                 .previousRole(null)
                 .newRole(entity.getRole())
                 .build());
+        membershipLookup.update(inputDto.getCourseId(), inputDto.getUserId(), entity.getRole());
 
         return membershipMapper.entityToDto(entity);
     }
@@ -77,6 +98,7 @@ public class MembershipService {
      * @param inputDto contains user ID, course ID, and course role
      * @return updated entity
      */
+    @Transactional
     public CourseMembership updateMembershipRole(final CourseMembershipInput inputDto) {
         //make sure entity exists in database
         final UserRoleInCourse previousRole =
@@ -85,12 +107,13 @@ public class MembershipService {
 
         final CourseMembershipEntity entity = courseMembershipRepository.save(membershipMapper.dtoToEntity(inputDto));
 
-        topicPublisher.notifyUserCourseMembershipChanged(UserCourseMembershipChangedEvent.builder()
+        eventOutbox.notifyUserCourseMembershipChanged(UserCourseMembershipChangedEvent.builder()
                 .courseId(inputDto.getCourseId())
                 .userId(inputDto.getUserId())
                 .previousRole(previousRole)
                 .newRole(entity.getRole())
                 .build());
+        membershipLookup.update(inputDto.getCourseId(), inputDto.getUserId(), entity.getRole());
 
         return membershipMapper.entityToDto(entity);
     }
@@ -100,6 +123,7 @@ public class MembershipService {
      *
      * @return deleted entity
      */
+    @Transactional
     public CourseMembership deleteMembership(final UUID userId, final UUID courseId) {
         final CourseMembershipPk membershipPk = new CourseMembershipPk(userId, courseId);
 
@@ -108,12 +132,13 @@ public class MembershipService {
 
         courseMembershipRepository.deleteById(membershipPk);
 
-        topicPublisher.notifyUserCourseMembershipChanged(UserCourseMembershipChangedEvent.builder()
+        eventOutbox.notifyUserCourseMembershipChanged(UserCourseMembershipChangedEvent.builder()
                 .courseId(courseId)
                 .userId(userId)
                 .previousRole(previousRole)
                 .newRole(null)
                 .build());
+        membershipLookup.update(courseId, userId, null);
 
         return membershipMapper.entityToDto(entity);
     }
@@ -123,11 +148,16 @@ public class MembershipService {
      *
      * @param courseId valid course ID
      */
+    @Transactional
     public void deleteMembershipByCourseId(final UUID courseId) {
+        // locked first, so that the memberships needed for the events are exactly the deleted ones,
+        // and then deleted with a single statement
+        final List<CourseMembershipEntity> memberships = courseMembershipRepository.lockByCourseId(courseId);
+        if (!memberships.isEmpty()) {
+            courseMembershipRepository.deleteAllByCourseId(courseId);
+        }
 
-        final List<CourseMembershipEntity> memberships = courseMembershipRepository.findCourseMembershipEntitiesByCourseId(courseId);
-
-        if (memberships != null && !memberships.isEmpty()) {
+        if (!memberships.isEmpty()) {
             final List<UserCourseMembershipChangedEvent> events = memberships.stream()
                     .map(mem -> UserCourseMembershipChangedEvent.builder()
                             .courseId(courseId)
@@ -137,12 +167,9 @@ public class MembershipService {
                             .build())
                     .toList();
 
-            courseMembershipRepository.deleteAll(memberships);
-
-            for (final UserCourseMembershipChangedEvent event : events) {
-                topicPublisher.notifyUserCourseMembershipChanged(event);
-            }
+            eventOutbox.notifyUserCourseMembershipsChanged(events);
         }
+        membershipLookup.removeCourse(courseId, memberships.stream().map(CourseMembershipEntity::getUserId).toList());
     }
 
     /**
@@ -153,52 +180,67 @@ public class MembershipService {
      * @throws EntityNotFoundException if the course with the given ID does not exist
      */
     public List<CourseMembership> getMembershipsOfCourse(final UUID courseId) {
-        if (!courseRepository.existsById(courseId)) {
+        if (courseCache.getCourse(courseId).isEmpty()) {
             throw new EntityNotFoundException("Entities(s) with id(s) %s not found".formatted(courseId));
         }
 
-        return courseMembershipRepository.findCourseMembershipEntitiesByCourseId(courseId)
-                .stream()
-                .map(membershipMapper::entityToDto)
-                .toList();
+        return toDtosOfCourse(courseId, membershipLookup.getMembershipsOfCourse(courseId));
     }
 
     /**
-     * Returns all users of a course
+     * Returns all memberships of multiple courses, fetched with a single query.
+     * The existence of the courses is not checked, as callers already hold the courses.
+     *
+     * @param courseIds IDs of the courses
+     * @return Map of the course IDs to the memberships of the course
+     */
+    public Map<UUID, List<CourseMembership>> getMembershipsOfCourses(final Collection<UUID> courseIds) {
+        final Map<UUID, List<CourseMembership>> result = new HashMap<>();
+        membershipLookup.getMembershipsOfCourses(courseIds)
+                .forEach((courseId, memberships) -> result.put(courseId, toDtosOfCourse(courseId, memberships)));
+
+        return result;
+    }
+
+    /**
+     * Returns all users of a course.
+     * The memberships of a course that is marked as deleted are kept until it is purged, but are not returned.
      *
      * @param courseId ID of the course
-     * @return List of UserIds
+     * @return List of UserIds, empty if the course does not exist or is marked as deleted
      */
     public List<UUID> getUserIdsOfCourse(final UUID courseId) {
-            return courseMembershipRepository.findUserIdsByCourseId(courseId);
+        if (courseCache.getCourse(courseId).isEmpty()) {
+            return List.of();
         }
+        return membershipLookup.getMembershipsOfCourse(courseId).getIds();
+    }
 
-    private Predicate<? super CourseMembership> byAvailability(final Boolean availableCoursesFilter) {
-        return membership -> {
-            if (availableCoursesFilter == null) {
-                // no filter
-                return true;
-            }
-            return availableCoursesFilter == isAvailable(membership);
-        };
+    /**
+     * Returns the users of multiple courses, fetched with a single query.
+     *
+     * @param courseIds IDs of the courses
+     * @return Map of the course IDs to the IDs of the users of the course
+     */
+    public Map<UUID, List<UUID>> getUserIdsOfCourses(final Collection<UUID> courseIds) {
+        final Map<UUID, List<UUID>> result = new HashMap<>();
+        membershipLookup.getMembershipsOfCourses(courseIds)
+                .forEach((courseId, memberships) -> result.put(courseId, memberships.getIds()));
+
+        return result;
     }
 
-    private boolean isAvailable(final CourseMembership membership) {
-        final Course course = getCourseById(membership.getCourseId());
-        if (!course.getPublished()) {
-            // course is not published
-            return false;
+    private List<CourseMembership> toDtosOfCourse(final UUID courseId,
+                                                  final CompactMemberships memberships) {
+        final List<CourseMembership> result = new ArrayList<>(memberships.size());
+        for (int i = 0; i < memberships.size(); i++) {
+            result.add(toDto(memberships.getId(i), courseId, memberships.getRole(i)));
         }
-
-        final OffsetDateTime now = OffsetDateTime.now();
-        final OffsetDateTime startDate = course.getStartDate();
-        final OffsetDateTime endDate = course.getEndDate();
-        return startDate.isBefore(now) && endDate.isAfter(now);
+        return result;
     }
 
-    private Course getCourseById(final UUID courseId) {
-        final CourseEntity entity = courseRepository.getReferenceById(courseId);
-        return courseMapper.entityToDto(entity);
+    private CourseMembership toDto(final UUID userId, final UUID courseId, final UserRoleInCourse role) {
+        return membershipMapper.entityToDto(new CourseMembershipEntity(userId, courseId, role));
     }
 
     /**
@@ -0,0 +1,35 @@
+-- Schema as previously generated by Hibernate (ddl-auto=update).
+-- IF NOT EXISTS keeps this migration a no-op for databases that were created before migrations were introduced.
+
+CREATE TABLE IF NOT EXISTS course
+(
+    id            UUID                        NOT NULL PRIMARY KEY,
+    title         VARCHAR(255)                NOT NULL,
+    description   VARCHAR(3000)               NOT NULL,
+    start_date    TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    end_date      TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    published     BOOLEAN                     NOT NULL,
+    start_year    INTEGER,
+    year_division VARCHAR(255)
+);
+
+CREATE TABLE IF NOT EXISTS chapter
+(
+    id                   UUID                        NOT NULL PRIMARY KEY,
+    title                VARCHAR(255)                NOT NULL,
+    description          VARCHAR(3000)               NOT NULL,
+    number               INTEGER                     NOT NULL,
+    start_date           TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    end_date             TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    suggested_start_date TIMESTAMP(6) WITH TIME ZONE,
+    suggested_end_date   TIMESTAMP(6) WITH TIME ZONE,
+    course_id            UUID                        NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS course_membership
+(
+    user_id     UUID NOT NULL,
+    course_id   UUID NOT NULL,
+    course_role SMALLINT,
+    PRIMARY KEY (course_id, user_id)
+);
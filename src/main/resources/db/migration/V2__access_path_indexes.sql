@@ -0,0 +1,19 @@
+-- Indexes for the access paths of the repositories and filter specifications.
+
+-- chapters of a course in the default order (ChapterRepository.findChapterEntitiesByCourseId, Course.chapters)
+CREATE INDEX IF NOT EXISTS chapter_course_id_number_idx ON chapter (course_id, number);
+
+-- chapters that start or end in a time window (ChapterRepository.findChaptersToUnlock/findChaptersToLock)
+CREATE INDEX IF NOT EXISTS chapter_start_date_idx ON chapter (start_date);
+CREATE INDEX IF NOT EXISTS chapter_end_date_idx ON chapter (end_date);
+
+-- memberships of a course, optionally restricted to a role (CourseMembershipRepository.findUserIdsByCourseId)
+CREATE INDEX IF NOT EXISTS course_membership_course_id_role_idx ON course_membership (course_id, course_role);
+
+-- memberships of a user (CourseMembershipRepository.findByUserId and the availability queries),
+-- the primary key starts with the course id and can not be used for these
+CREATE INDEX IF NOT EXISTS course_membership_user_id_idx ON course_membership (user_id);
+
+-- date range filters of courses (CourseFilterSpecification)
+CREATE INDEX IF NOT EXISTS course_start_date_idx ON course (start_date);
+CREATE INDEX IF NOT EXISTS course_end_date_idx ON course (end_date);
@@ -0,0 +1,17 @@
+-- Lease that ensures that a scheduled job runs on only one replica at a time (ScheduleLeaseRepository).
+-- A lease is free if locked_until has passed, so the lease of a crashed replica expires on its own.
+CREATE TABLE IF NOT EXISTS schedule_lease
+(
+    name         VARCHAR(64)                 NOT NULL PRIMARY KEY,
+    locked_until TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    locked_at    TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    locked_by    VARCHAR(255)                NOT NULL
+);
+
+-- Last day that a scheduled job has completely processed, so that interrupted or missed runs can be resumed.
+CREATE TABLE IF NOT EXISTS schedule_checkpoint
+(
+    name               VARCHAR(64)                 NOT NULL PRIMARY KEY,
+    last_completed_day DATE                        NOT NULL,
+    updated_at         TIMESTAMP(6) WITH TIME ZONE NOT NULL
+);
@@ -0,0 +1,21 @@
+-- Pending unlocks and locks of chapters, drained by the ChapterLifecycleEventPoller when they are due.
+-- The events of a chapter are deleted together with the chapter.
+CREATE TABLE IF NOT EXISTS chapter_lifecycle_event
+(
+    chapter_id UUID                        NOT NULL REFERENCES chapter (id) ON DELETE CASCADE,
+    kind       VARCHAR(16)                 NOT NULL,
+    due_at     TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    PRIMARY KEY (chapter_id, kind)
+);
+
+-- due events in the order they became due (ChapterLifecycleEventRepository.lockDueEvents)
+CREATE INDEX IF NOT EXISTS chapter_lifecycle_event_due_at_idx ON chapter_lifecycle_event (due_at);
+
+-- events of the existing chapters that have not been unlocked or locked yet
+INSERT INTO chapter_lifecycle_event (chapter_id, kind, due_at)
+SELECT id, 'UNLOCK', start_date FROM chapter WHERE start_date > now()
+ON CONFLICT DO NOTHING;
+
+INSERT INTO chapter_lifecycle_event (chapter_id, kind, due_at)
+SELECT id, 'LOCK', end_date FROM chapter WHERE end_date > now()
+ON CONFLICT DO NOTHING;
@@ -0,0 +1,8 @@
+-- Events written in the same transaction as the entity changes they describe, published by the EventOutboxRelay.
+CREATE TABLE IF NOT EXISTS outbox_event
+(
+    id         BIGSERIAL                   NOT NULL PRIMARY KEY,
+    type       VARCHAR(64)                 NOT NULL,
+    payload    TEXT                        NOT NULL,
+    created_at TIMESTAMP(6) WITH TIME ZONE NOT NULL
+);
@@ -0,0 +1,8 @@
+-- Deleted courses and chapters are kept as tombstones until they are purged by the DeletionPurger.
+ALTER TABLE course ADD COLUMN IF NOT EXISTS deleted_at TIMESTAMP(6) WITH TIME ZONE;
+ALTER TABLE chapter ADD COLUMN IF NOT EXISTS deleted_at TIMESTAMP(6) WITH TIME ZONE;
+
+-- tombstones to purge (CourseRepository.lockDeletedCourseIds, ChapterRepository.purgeDeletedChapters),
+-- partial so that the indexes only contain the few deleted rows
+CREATE INDEX IF NOT EXISTS course_deleted_at_idx ON course (deleted_at) WHERE deleted_at IS NOT NULL;
+CREATE INDEX IF NOT EXISTS chapter_deleted_at_idx ON chapter (deleted_at) WHERE deleted_at IS NOT NULL;
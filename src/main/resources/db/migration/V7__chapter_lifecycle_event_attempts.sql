@@ -0,0 +1,3 @@
+-- number of failed attempts to process an event, so that failing events are retried later and eventually dropped
+-- instead of blocking the queue (ChapterService.processDueLifecycleEvents)
+ALTER TABLE chapter_lifecycle_event ADD COLUMN IF NOT EXISTS attempts INT NOT NULL DEFAULT 0;
@@ -0,0 +1,9 @@
+-- failed attempts to publish an event: the event is retried at next_attempt_at and dead-lettered after the maximum
+-- number of attempts, so that a single event that cannot be published does not block the outbox (EventOutbox)
+ALTER TABLE outbox_event ADD COLUMN IF NOT EXISTS attempts INT NOT NULL DEFAULT 0;
+ALTER TABLE outbox_event ADD COLUMN IF NOT EXISTS last_error TEXT;
+ALTER TABLE outbox_event ADD COLUMN IF NOT EXISTS next_attempt_at TIMESTAMP(6) WITH TIME ZONE;
+ALTER TABLE outbox_event ADD COLUMN IF NOT EXISTS dead_lettered_at TIMESTAMP(6) WITH TIME ZONE;
+
+-- events still to be published (OutboxEventRepository.lockOldestEvents), without the dead-lettered ones
+CREATE INDEX IF NOT EXISTS outbox_event_pending_idx ON outbox_event (id) WHERE dead_lettered_at IS NULL;
@@ -0,0 +1,94 @@
+package de.unistuttgart.iste.meitrex.course_service.api;
+
+import de.unistuttgart.iste.meitrex.common.testutil.GraphQlApiTest;
+import de.unistuttgart.iste.meitrex.common.testutil.InjectCurrentUserHeader;
+import de.unistuttgart.iste.meitrex.course_service.persistence.entity.CourseEntity;
+import de.unistuttgart.iste.meitrex.course_service.persistence.entity.CourseMembershipEntity;
+import de.unistuttgart.iste.meitrex.course_service.persistence.repository.CourseMembershipRepository;
+import de.unistuttgart.iste.meitrex.course_service.persistence.repository.CourseRepository;
+import de.unistuttgart.iste.meitrex.course_service.service.MembershipIndex;
+import de.unistuttgart.iste.meitrex.course_service.test_utils.TestUtils;
+import de.unistuttgart.iste.meitrex.generated.dto.UserRoleInCourse;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.graphql.test.tester.WebGraphQlTester;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.UUID;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * Tests that the memberships are looked up correctly with the {@link MembershipIndex}, which the other tests do not
+ * use, as they run with the default membership cache.
+ */
+@TestPropertySource(properties = "membership.lookup=INDEX")
+@GraphQlApiTest
+class MembershipIndexLookupTest {
+
+    @Autowired
+    private CourseRepository courseRepository;
+    @Autowired
+    private CourseMembershipRepository courseMembershipRepository;
+    @Autowired
+    private MembershipIndex membershipIndex;
+
+    @InjectCurrentUserHeader
+    private final UUID currentUserId = UUID.randomUUID();
+
+    /**
+     * Given a published course
+     * When the current user joins the course
+     * Then the membership is returned from the index
+     */
+    @Test
+    void testJoinedCourseIsReturned(final WebGraphQlTester tester) {
+        final CourseEntity course = courseRepository.save(TestUtils.dummyCourseBuilder().published(true).build());
+
+        tester.document("""
+                        mutation($courseId: UUID!) {
+                            joinCourse(courseId: $courseId) {
+                                role
+                            }
+                        }
+                        """)
+                .variable("courseId", course.getId())
+                .execute()
+                .path("joinCourse.role").entity(UserRoleInCourse.class).isEqualTo(UserRoleInCourse.STUDENT);
+
+        assertThat(membershipIndex.getMembershipsOfCourse(course.getId()).getRole(currentUserId),
+                is(UserRoleInCourse.STUDENT));
+        tester.document("""
+                        query($courseId: UUID!) {
+                            _internal_userIdsByCourseId(courseId: $courseId)
+                        }
+                        """)
+                .variable("courseId", course.getId())
+                .execute()
+                .path("_internal_userIdsByCourseId").entityList(UUID.class).containsExactly(currentUserId);
+    }
+
+    /**
+     * Given a membership that was stored without updating the index, e.g., by another replica
+     * When the index is reloaded
+     * Then the membership is returned
+     */
+    @Test
+    void testReloadReadsStoredMemberships(final WebGraphQlTester tester) {
+        final CourseEntity course = courseRepository.save(TestUtils.dummyCourseBuilder().build());
+        final UUID userId = UUID.randomUUID();
+        courseMembershipRepository.save(new CourseMembershipEntity(userId, course.getId(), UserRoleInCourse.TUTOR));
+
+        membershipIndex.reload();
+
+        tester.document("""
+                        query($courseId: UUID!) {
+                            _internal_userIdsByCourseId(courseId: $courseId)
+                        }
+                        """)
+                .variable("courseId", course.getId())
+                .execute()
+                .path("_internal_userIdsByCourseId").entityList(UUID.class).containsExactly(userId);
+    }
+}
@@ -0,0 +1,122 @@
+package de.unistuttgart.iste.meitrex.course_service.api;
+
+import de.unistuttgart.iste.meitrex.common.testutil.GraphQlApiTest;
+import de.unistuttgart.iste.meitrex.common.testutil.MockTestPublisherConfiguration;
+import de.unistuttgart.iste.meitrex.common.user_handling.LoggedInUser;
+import de.unistuttgart.iste.meitrex.common.user_handling.LoggedInUser.UserRoleInCourse;
+import de.unistuttgart.iste.meitrex.course_service.persistence.entity.CourseEntity;
+import de.unistuttgart.iste.meitrex.course_service.persistence.repository.ChapterRepository;
+import de.unistuttgart.iste.meitrex.course_service.persistence.repository.CourseMembershipRepository;
+import de.unistuttgart.iste.meitrex.course_service.persistence.repository.CourseRepository;
+import de.unistuttgart.iste.meitrex.course_service.service.DeletionMode;
+import de.unistuttgart.iste.meitrex.course_service.service.DeletionPurger;
+import de.unistuttgart.iste.meitrex.course_service.test_utils.TestUtils;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.graphql.test.tester.WebGraphQlTester;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+import static de.unistuttgart.iste.meitrex.common.testutil.HeaderUtils.addCurrentUserHeader;
+import static de.unistuttgart.iste.meitrex.common.testutil.TestUsers.userWithMembershipInCourseWithId;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * Tests for the `deleteCourse` mutation in the {@link DeletionMode#SOFT} deletion mode and for purging the deleted
+ * courses with the {@link DeletionPurger}.
+ */
+@ContextConfiguration(classes = MockTestPublisherConfiguration.class)
+@TestPropertySource(properties = "deletion.mode=SOFT")
+@GraphQlApiTest
+class MutationDeleteCourseSoftDeletionTest {
+
+    @Autowired
+    private CourseMembershipRepository courseMembershipRepository;
+    @Autowired
+    private CourseRepository courseRepository;
+    @Autowired
+    private ChapterRepository chapterRepository;
+    @Autowired
+    private DeletionPurger deletionPurger;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Given a course with a chapter and a member
+     * When the deleteCourse mutation is executed
+     * Then the course and the chapter are marked as deleted, the membership is kept until the course is purged
+     * and the course and its members are no longer returned
+     */
+    @Test
+    void testDeletionMarksCourseAsDeleted(WebGraphQlTester tester) {
+        final CourseEntity course = courseRepository.save(TestUtils.dummyCourseBuilder().build());
+        chapterRepository.save(TestUtils.dummyChapterBuilder().courseId(course.getId()).build());
+        final LoggedInUser adminUser = userWithMembershipInCourseWithId(course.getId(), UserRoleInCourse.ADMINISTRATOR);
+        TestUtils.saveCourseMembershipsOfUserToRepository(courseMembershipRepository, adminUser);
+        tester = addCurrentUserHeader(tester, adminUser);
+
+        deleteCourse(tester, course.getId());
+
+        // the rows are still stored, but marked as deleted
+        assertThat(jdbcTemplate.queryForObject("SELECT deleted_at FROM course WHERE id = ?", OffsetDateTime.class,
+                course.getId()), is(notNullValue()));
+        assertThat(jdbcTemplate.queryForList("SELECT deleted_at FROM chapter WHERE course_id = ?", OffsetDateTime.class,
+                course.getId()), contains(notNullValue()));
+        assertThat(courseMembershipRepository.findCourseMembershipEntitiesByCourseId(course.getId()), hasSize(1));
+
+        // but no longer returned
+        assertThat(courseRepository.findById(course.getId()).isPresent(), is(false));
+        assertThat(chapterRepository.findChapterEntitiesByCourseId(course.getId()), is(empty()));
+        assertThat(courseMembershipRepository.findByUserId(adminUser.getId()), is(empty()));
+        tester.document("""
+                        query($courseId: UUID!) {
+                            _internal_userIdsByCourseId(courseId: $courseId)
+                        }
+                        """)
+                .variable("courseId", course.getId())
+                .execute()
+                .path("_internal_userIdsByCourseId").entityList(UUID.class).hasSize(0);
+    }
+
+    /**
+     * Given a course that was marked as deleted before the grace period
+     * When the deletion purger runs
+     * Then the course is removed with its chapters and memberships
+     */
+    @Test
+    void testPurgeRemovesDeletedCourse(WebGraphQlTester tester) {
+        final CourseEntity course = courseRepository.save(TestUtils.dummyCourseBuilder().build());
+        chapterRepository.save(TestUtils.dummyChapterBuilder().courseId(course.getId()).build());
+        final LoggedInUser adminUser = userWithMembershipInCourseWithId(course.getId(), UserRoleInCourse.ADMINISTRATOR);
+        TestUtils.saveCourseMembershipsOfUserToRepository(courseMembershipRepository, adminUser);
+        tester = addCurrentUserHeader(tester, adminUser);
+
+        deleteCourse(tester, course.getId());
+        // move the deletion before the grace period
+        jdbcTemplate.update("UPDATE course SET deleted_at = deleted_at - INTERVAL '2 days' WHERE id = ?", course.getId());
+        jdbcTemplate.update("UPDATE chapter SET deleted_at = deleted_at - INTERVAL '2 days' WHERE course_id = ?",
+                course.getId());
+
+        assertThat(deletionPurger.purge(), is(1));
+
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM course WHERE id = ?", Integer.class,
+                course.getId()), is(0));
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM chapter WHERE course_id = ?", Integer.class,
+                course.getId()), is(0));
+        assertThat(courseMembershipRepository.findCourseMembershipEntitiesByCourseId(course.getId()), is(empty()));
+    }
+
+    private static void deleteCourse(final WebGraphQlTester tester, final UUID courseId) {
+        tester.document("""
+                        mutation {
+                            deleteCourse(id: "%s")
+                        }""".formatted(courseId))
+                .execute()
+                .path("deleteCourse").entity(UUID.class).isEqualTo(courseId);
+    }
+}
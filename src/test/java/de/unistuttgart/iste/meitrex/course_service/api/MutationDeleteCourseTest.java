@@ -8,11 +8,13 @@ import de.unistuttgart.iste.meitrex.course_service.persistence.entity.CourseEnti
 import de.unistuttgart.iste.meitrex.course_service.persistence.repository.ChapterRepository;
 import de.unistuttgart.iste.meitrex.course_service.persistence.repository.CourseMembershipRepository;
 import de.unistuttgart.iste.meitrex.course_service.persistence.repository.CourseRepository;
+import de.unistuttgart.iste.meitrex.course_service.service.DeletionMode;
 import de.unistuttgart.iste.meitrex.course_service.test_utils.TestUtils;
 import org.hamcrest.MatcherAssert;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.graphql.test.tester.WebGraphQlTester;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.context.ContextConfiguration;
 
 import java.util.List;
@@ -24,7 +26,9 @@ import static de.unistuttgart.iste.meitrex.common.testutil.TestUsers.userWithMem
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.*;
 /**
- * Tests for the `deleteCourse` mutation.
+ * Tests for the `deleteCourse` mutation in the default {@link DeletionMode#HARD} deletion mode.
+ *
+ * @see MutationDeleteCourseSoftDeletionTest
  */
 @ContextConfiguration(classes = MockTestPublisherConfiguration.class)
 @GraphQlApiTest
@@ -36,11 +40,13 @@ class MutationDeleteCourseTest {
     private CourseRepository courseRepository;
     @Autowired
     private ChapterRepository chapterRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
 
     /**
      * Given a valid course id
      * When the deleteCourse mutation is executed
-     * Then the course is deleted and the uuid is returned
+     * Then the course is removed with its chapters and memberships and the uuid is returned
      */
     @Test
     void testDeletion(WebGraphQlTester tester) {
@@ -78,6 +84,14 @@ class MutationDeleteCourseTest {
         assertThat(entities.get(0).getId(), equalTo(initialCourses.get(1).getId()));
         // check that the chapter was deleted
         MatcherAssert.assertThat(chapterRepository.findAll(), hasSize(0));
+        // check that the memberships of the course were deleted
+        assertThat(courseMembershipRepository.findCourseMembershipEntitiesByCourseId(initialCourses.get(0).getId()),
+                hasSize(0));
+        // check that the rows were removed instead of being marked as deleted
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM course WHERE id = ?", Integer.class,
+                initialCourses.get(0).getId()), is(0));
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM chapter WHERE course_id = ?", Integer.class,
+                initialCourses.get(0).getId()), is(0));
     }
 
     /**
@@ -7,6 +7,7 @@ import de.unistuttgart.iste.meitrex.course_service.persistence.entity.CourseEnti
 import de.unistuttgart.iste.meitrex.course_service.persistence.entity.CourseMembershipEntity;
 import de.unistuttgart.iste.meitrex.course_service.persistence.repository.CourseMembershipRepository;
 import de.unistuttgart.iste.meitrex.course_service.persistence.repository.CourseRepository;
+import de.unistuttgart.iste.meitrex.course_service.test_utils.TestUtils;
 import de.unistuttgart.iste.meitrex.generated.dto.Course;
 import de.unistuttgart.iste.meitrex.generated.dto.CourseMembership;
 import de.unistuttgart.iste.meitrex.generated.dto.UserRoleInCourse;
@@ -77,6 +78,60 @@ class QueryCourseMembershipsTest {
                 .contains(courseMemberships.get(0), courseMemberships.get(1));
     }
 
+    @Test
+    void testMembershipAvailabilityFilter(final GraphQlTester tester) {
+        final UUID userId = UUID.randomUUID();
+
+        final CourseEntity availableCourse = courseRepository.save(TestUtils.dummyCourseBuilder()
+                .published(true)
+                .startDate(OffsetDateTime.now().minusDays(3))
+                .endDate(OffsetDateTime.now().plusDays(3))
+                .build());
+        final CourseEntity unpublishedCourse = courseRepository.save(TestUtils.dummyCourseBuilder()
+                .published(false)
+                .startDate(OffsetDateTime.now().minusDays(3))
+                .endDate(OffsetDateTime.now().plusDays(3))
+                .build());
+        final CourseEntity endedCourse = courseRepository.save(TestUtils.dummyCourseBuilder()
+                .published(true)
+                .startDate(OffsetDateTime.now().minusDays(3))
+                .endDate(OffsetDateTime.now().minusDays(1))
+                .build());
+
+        for (final CourseEntity course : List.of(availableCourse, unpublishedCourse, endedCourse)) {
+            membershipRepository.save(CourseMembershipEntity.builder()
+                    .userId(userId)
+                    .courseId(course.getId())
+                    .role(UserRoleInCourse.STUDENT)
+                    .build());
+        }
+
+        final String query = """
+                query($userId: UUID!, $availabilityFilter: Boolean) {
+                    _internal_noauth_courseMembershipsByUserId(userId: $userId, availabilityFilter: $availabilityFilter) {
+                        courseId
+                    }
+                }
+                """;
+
+        tester.document(query)
+                .variable("userId", userId)
+                .variable("availabilityFilter", true)
+                .execute()
+                .path("_internal_noauth_courseMembershipsByUserId[*].courseId")
+                .entityList(UUID.class)
+                .containsExactly(availableCourse.getId());
+
+        tester.document(query)
+                .variable("userId", userId)
+                .variable("availabilityFilter", false)
+                .execute()
+                .path("_internal_noauth_courseMembershipsByUserId[*].courseId")
+                .entityList(UUID.class)
+                .hasSize(2)
+                .contains(unpublishedCourse.getId(), endedCourse.getId());
+    }
+
     @Test
     void testMembershipsFieldInCourse(WebGraphQlTester tester) {
         final CourseEntity course = courseRepository.save(createTestCourse());
@@ -4,11 +4,12 @@ package de.unistuttgart.iste.meitrex.course_service.api;
 import de.unistuttgart.iste.meitrex.common.testutil.GraphQlApiTest;
 import de.unistuttgart.iste.meitrex.common.testutil.MockTestPublisherConfiguration;
 import de.unistuttgart.iste.meitrex.course_service.persistence.entity.CourseEntity;
+import de.unistuttgart.iste.meitrex.course_service.persistence.mapper.CourseMapper;
+import de.unistuttgart.iste.meitrex.course_service.persistence.mapper.CourseMapperImpl;
 import de.unistuttgart.iste.meitrex.course_service.persistence.repository.CourseRepository;
 import de.unistuttgart.iste.meitrex.course_service.test_utils.TestUtils;
 import de.unistuttgart.iste.meitrex.generated.dto.*;
 import org.junit.jupiter.api.Test;
-import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.graphql.test.tester.GraphQlTester;
 import org.springframework.test.context.ContextConfiguration;
@@ -29,7 +30,7 @@ class QueryCoursesTest {
     @Autowired
     private CourseRepository courseRepository;
 
-    private final ModelMapper modelMapper = new ModelMapper();
+    private final CourseMapper courseMapper = new CourseMapperImpl();
 
     /**
      * Given no courses exist
@@ -345,8 +346,60 @@ class QueryCoursesTest {
     }
 
 
+    /**
+     * Given four courses exist
+     * When the courses are queried with cursor pagination and a page size of 2
+     * Then the first page contains a cursor to the second page and the second page contains the remaining courses
+     */
+    @Test
+    void testGetAllCoursesWithCursorPagination(final GraphQlTester tester) {
+        final var data = Stream.of(
+                        TestUtils.dummyCourseBuilder().title("Course 1").build(),
+                        TestUtils.dummyCourseBuilder().title("Course 2").build(),
+                        TestUtils.dummyCourseBuilder().title("Course 3").build(),
+                        TestUtils.dummyCourseBuilder().title("Course 4").build())
+                .map(courseRepository::save)
+                .toList();
+
+        final String query = """
+                query($after: String) {
+                    courses(sortBy: ["title"], cursorPagination: {after: $after, size: 2}) {
+                        elements {
+                            id
+                            title
+                            description
+                            startDate
+                            endDate
+                            published
+                        }
+                        pagination {
+                            totalElements
+                            hasNext
+                        }
+                        nextCursor
+                    }
+                }""";
+
+        final GraphQlTester.Response firstPage = tester.document(query)
+                .execute();
+        firstPage.path("courses.elements").entityList(Course.class)
+                .containsExactly(entitiesToDtos(data.subList(0, 2)))
+                .path("courses.pagination.totalElements").entity(Integer.class).isEqualTo(-1)
+                .path("courses.pagination.hasNext").entity(Boolean.class).isEqualTo(true);
+
+        final String nextCursor = firstPage.path("courses.nextCursor").entity(String.class).get();
+
+        tester.document(query)
+                .variable("after", nextCursor)
+                .execute()
+                .path("courses.elements").entityList(Course.class)
+                .containsExactly(entitiesToDtos(data.subList(2, 4)))
+                .path("courses.pagination.hasNext").entity(Boolean.class).isEqualTo(false)
+                .path("courses.nextCursor").valueIsNull();
+    }
+
     private Course entityToDto(final CourseEntity entity) {
-        return modelMapper.map(entity, Course.class);
+        return courseMapper.entityToDto(entity);
     }
 
     private Course[] entitiesToDtos(final List<CourseEntity> entities) {
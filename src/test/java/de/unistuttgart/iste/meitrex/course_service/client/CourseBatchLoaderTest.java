@@ -0,0 +1,89 @@
+package de.unistuttgart.iste.meitrex.course_service.client;
+
+import de.unistuttgart.iste.meitrex.course_service.exception.CourseServiceConnectionException;
+import de.unistuttgart.iste.meitrex.generated.dto.Course;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.util.function.Tuple2;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * Unit tests for {@link CourseBatchLoader}.
+ */
+class CourseBatchLoaderTest {
+
+    private final UUID courseId = UUID.randomUUID();
+    private final UUID otherCourseId = UUID.randomUUID();
+
+    private final List<List<UUID>> requests = Collections.synchronizedList(new ArrayList<>());
+    private final AtomicReference<Throwable> error = new AtomicReference<>();
+    private final AtomicReference<Throwable> otherError = new AtomicReference<>();
+
+    /**
+     * Given a batch with a course that does not exist
+     * When the batch query fails
+     * Then the courses are fetched separately and only the caller of the missing course gets the error
+     */
+    @Test
+    void testMissingCourseIsFetchedSeparately() {
+        final CourseBatchLoader loader = loader(courseIds -> courseIds.contains(otherCourseId)
+                ? Mono.error(new CourseServiceConnectionException("Entities(s) with id(s) %s not found"
+                        .formatted(otherCourseId)))
+                : Mono.just(courseIds.stream().map(id -> Course.builder().setId(id).build()).toList()));
+
+        final var courses = loadBoth(loader);
+
+        assertThat(courses.getT1().getId(), is(courseId));
+        assertThat(error.get(), is(nullValue()));
+        assertThat(otherError.get(), instanceOf(CourseServiceConnectionException.class));
+        assertThat(requests, containsInAnyOrder(List.of(courseId, otherCourseId), List.of(courseId),
+                List.of(otherCourseId)));
+    }
+
+    /**
+     * Given a batch of courses
+     * When the batch query fails for another reason than a missing course
+     * Then all callers get the original error without further requests
+     */
+    @Test
+    void testOtherFailureIsReportedToAllCallers() {
+        final CourseServiceConnectionException failure =
+                new CourseServiceConnectionException("Error fetching from CourseService: Connection refused");
+        final CourseBatchLoader loader = loader(courseIds -> Mono.error(failure));
+
+        loadBoth(loader);
+
+        assertThat(error.get(), is(sameInstance(failure)));
+        assertThat(otherError.get(), is(sameInstance(failure)));
+        assertThat(requests, contains(List.of(courseId, otherCourseId)));
+    }
+
+    private CourseBatchLoader loader(final Function<List<UUID>, Mono<List<Course>>> batchQuery) {
+        return new CourseBatchLoader(courseIds -> {
+            requests.add(courseIds);
+            return batchQuery.apply(courseIds);
+        }, Duration.ofMillis(50), 10);
+    }
+
+    private Tuple2<Course, Course> loadBoth(final CourseBatchLoader loader) {
+        return Mono.zip(
+                loader.load(courseId).onErrorResume(e -> {
+                    error.set(e);
+                    return Mono.just(new Course());
+                }),
+                loader.load(otherCourseId).onErrorResume(e -> {
+                    otherError.set(e);
+                    return Mono.just(new Course());
+                })).block();
+    }
+}
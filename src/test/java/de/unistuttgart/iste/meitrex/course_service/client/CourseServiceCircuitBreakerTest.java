@@ -0,0 +1,112 @@
+package de.unistuttgart.iste.meitrex.course_service.client;
+
+import de.unistuttgart.iste.meitrex.course_service.exception.CourseServiceConnectionException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Unit tests for {@link CourseServiceCircuitBreaker}.
+ */
+class CourseServiceCircuitBreakerTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicInteger calls = new AtomicInteger();
+
+    /**
+     * Given a closed circuit breaker
+     * When the calls fail as often as the failure threshold
+     * Then the breaker opens and rejects further calls without sending them
+     */
+    @Test
+    void testOpensAfterConsecutiveFailures() {
+        final CourseServiceCircuitBreaker circuitBreaker =
+                new CourseServiceCircuitBreaker(3, Duration.ofHours(1), meterRegistry);
+
+        for (int i = 0; i < 3; i++) {
+            assertThrows(RuntimeException.class, () -> circuitBreaker.protect(failingCall(), error -> true).block());
+        }
+
+        assertThat(circuitBreaker.getState(), is(CourseServiceCircuitBreaker.State.OPEN));
+        assertThat(meterRegistry.get("course_service_client.circuit_breaker.state").gauge().value(), is(1.0));
+
+        final Exception exception = assertThrows(RuntimeException.class,
+                () -> circuitBreaker.protect(failingCall(), error -> true).block());
+        assertThat(exception.getCause(), instanceOf(CourseServiceConnectionException.class));
+        assertThat(exception.getCause().getMessage(), containsString("Circuit breaker is open"));
+        assertThat(calls.get(), is(3));
+    }
+
+    /**
+     * Given a closed circuit breaker
+     * When the calls fail with errors that do not count as failures
+     * Then the breaker stays closed
+     */
+    @Test
+    void testIgnoresErrorsNotCountingAsFailures() {
+        final CourseServiceCircuitBreaker circuitBreaker =
+                new CourseServiceCircuitBreaker(1, Duration.ofHours(1), meterRegistry);
+
+        assertThrows(RuntimeException.class, () -> circuitBreaker.protect(failingCall(), error -> false).block());
+
+        assertThat(circuitBreaker.getState(), is(CourseServiceCircuitBreaker.State.CLOSED));
+    }
+
+    /**
+     * Given an open circuit breaker whose open duration has elapsed
+     * When calls are sent
+     * Then a single probe call is let through and the breaker closes when it succeeds
+     */
+    @Test
+    void testHalfOpenLetsSingleProbeThrough() {
+        final CourseServiceCircuitBreaker circuitBreaker =
+                new CourseServiceCircuitBreaker(1, Duration.ZERO, meterRegistry);
+        assertThrows(RuntimeException.class, () -> circuitBreaker.protect(failingCall(), error -> true).block());
+
+        final Sinks.One<String> probeResult = Sinks.one();
+        final Mono<String> probe = circuitBreaker.protect(probeResult.asMono(), error -> true).cache();
+        probe.subscribe();
+
+        assertThat(circuitBreaker.getState(), is(CourseServiceCircuitBreaker.State.HALF_OPEN));
+        assertThat(meterRegistry.get("course_service_client.circuit_breaker.state").gauge().value(), is(2.0));
+        assertThrows(RuntimeException.class, () -> circuitBreaker.protect(failingCall(), error -> true).block());
+        assertThat(calls.get(), is(1));
+
+        probeResult.tryEmitValue("ok");
+
+        assertThat(probe.block(), is("ok"));
+        assertThat(circuitBreaker.getState(), is(CourseServiceCircuitBreaker.State.CLOSED));
+    }
+
+    /**
+     * Given an open circuit breaker whose open duration has elapsed
+     * When the probe call fails
+     * Then the breaker opens again
+     */
+    @Test
+    void testFailedProbeOpensAgain() {
+        final CourseServiceCircuitBreaker circuitBreaker =
+                new CourseServiceCircuitBreaker(1, Duration.ZERO, meterRegistry);
+        assertThrows(RuntimeException.class, () -> circuitBreaker.protect(failingCall(), error -> true).block());
+
+        assertThrows(RuntimeException.class, () -> circuitBreaker.protect(failingCall(), error -> true).block());
+
+        assertThat(circuitBreaker.getState(), is(CourseServiceCircuitBreaker.State.OPEN));
+        assertThat(calls.get(), is(2));
+    }
+
+    private Mono<String> failingCall() {
+        return Mono.defer(() -> {
+            calls.incrementAndGet();
+            return Mono.error(new IllegalStateException("Connection refused"));
+        });
+    }
+}
@@ -0,0 +1,144 @@
+package de.unistuttgart.iste.meitrex.course_service.client;
+
+import de.unistuttgart.iste.meitrex.common.event.CourseChangeEvent;
+import de.unistuttgart.iste.meitrex.common.event.CrudOperation;
+import de.unistuttgart.iste.meitrex.common.event.UserCourseMembershipChangedEvent;
+import de.unistuttgart.iste.meitrex.course_service.exception.CourseServiceConnectionException;
+import de.unistuttgart.iste.meitrex.generated.dto.Course;
+import de.unistuttgart.iste.meitrex.generated.dto.CourseMembership;
+import de.unistuttgart.iste.meitrex.generated.dto.UserRoleInCourse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Unit tests for {@link CourseServiceClientCache}.
+ */
+class CourseServiceClientCacheTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CourseServiceClientCache cache =
+            new CourseServiceClientCache(100, Duration.ofMinutes(10), Duration.ofMinutes(1), meterRegistry);
+
+    private final UUID courseId = UUID.randomUUID();
+    private final AtomicInteger loads = new AtomicInteger();
+
+    /**
+     * Given a course that is not cached
+     * When the course is looked up twice
+     * Then it is fetched once and the miss and the hit are counted
+     */
+    @Test
+    void testCachesFetchedCourse() {
+        final Course course = Course.builder().setId(courseId).setTitle("Test Course").build();
+
+        assertThat(cache.getCourse(courseId, this::load).block(), is(course));
+        assertThat(cache.getCourse(courseId, this::load).block(), is(course));
+
+        assertThat(loads.get(), is(1));
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "course_service_client.courses")
+                .tag("result", "miss").functionCounter().count(), is(1.0));
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "course_service_client.courses")
+                .tag("result", "hit").functionCounter().count(), is(1.0));
+    }
+
+    /**
+     * Given a course that does not exist
+     * When the course is looked up twice
+     * Then it is fetched once and both lookups fail with the not-found error
+     */
+    @Test
+    void testCachesNotFoundResult() {
+        final CourseServiceConnectionException notFound =
+                new CourseServiceConnectionException("Entities(s) with id(s) %s not found".formatted(courseId));
+
+        for (int i = 0; i < 2; i++) {
+            final Mono<Course> lookup = cache.getCourse(courseId, id -> {
+                loads.incrementAndGet();
+                return Mono.error(notFound);
+            });
+            final Exception exception = assertThrows(RuntimeException.class, lookup::block);
+            assertThat(exception.getCause(), is(sameInstance(notFound)));
+        }
+
+        assertThat(loads.get(), is(1));
+    }
+
+    /**
+     * Given the course service cannot be reached
+     * When a course is looked up twice
+     * Then the error is not cached and the course is fetched again
+     */
+    @Test
+    void testDoesNotCacheConnectionErrors() {
+        for (int i = 0; i < 2; i++) {
+            final Mono<Course> lookup = cache.getCourse(courseId, id -> {
+                loads.incrementAndGet();
+                return Mono.error(new CourseServiceConnectionException("Connection refused"));
+            });
+            assertThrows(RuntimeException.class, lookup::block);
+        }
+
+        assertThat(loads.get(), is(2));
+    }
+
+    /**
+     * Given cached memberships and a cached course
+     * When a membership of the course changes and the course is deleted
+     * Then the memberships and the course are fetched again
+     */
+    @Test
+    void testEvictsOnEvents() {
+        final CourseMembership membership = CourseMembership.builder()
+                .setUserId(UUID.randomUUID())
+                .setCourseId(courseId)
+                .setRole(UserRoleInCourse.STUDENT)
+                .build();
+        final AtomicInteger membershipLoads = new AtomicInteger();
+        final Function<UUID, Flux<CourseMembership>> membershipLoader = id -> {
+            membershipLoads.incrementAndGet();
+            return Flux.just(membership);
+        };
+
+        cache.getMemberships(courseId, membershipLoader).collectList().block();
+        cache.getCourse(courseId, this::load).block();
+
+        cache.onUserCourseMembershipChanged(UserCourseMembershipChangedEvent.builder()
+                .courseId(courseId)
+                .userId(membership.getUserId())
+                .previousRole(UserRoleInCourse.STUDENT)
+                .newRole(UserRoleInCourse.TUTOR)
+                .build());
+
+        assertThat(cache.getMemberships(courseId, membershipLoader).collectList().block(), contains(membership));
+        assertThat(membershipLoads.get(), is(2));
+        cache.getCourse(courseId, this::load).block();
+        assertThat(loads.get(), is(1));
+
+        cache.onCourseChanged(CourseChangeEvent.builder()
+                .courseId(courseId)
+                .operation(CrudOperation.DELETE)
+                .build());
+
+        cache.getMemberships(courseId, membershipLoader).collectList().block();
+        cache.getCourse(courseId, this::load).block();
+        assertThat(membershipLoads.get(), is(3));
+        assertThat(loads.get(), is(2));
+    }
+
+    private Mono<Course> load(final UUID id) {
+        loads.incrementAndGet();
+        return Mono.just(Course.builder().setId(id).setTitle("Test Course").build());
+    }
+}
@@ -7,25 +7,37 @@ import de.unistuttgart.iste.meitrex.common.user_handling.LoggedInUser;
 import de.unistuttgart.iste.meitrex.course_service.exception.CourseServiceConnectionException;
 import de.unistuttgart.iste.meitrex.course_service.persistence.entity.CourseEntity;
 import de.unistuttgart.iste.meitrex.course_service.persistence.entity.CourseMembershipEntity;
+import de.unistuttgart.iste.meitrex.course_service.persistence.mapper.ChapterMapper;
 import de.unistuttgart.iste.meitrex.course_service.persistence.repository.CourseMembershipRepository;
 import de.unistuttgart.iste.meitrex.course_service.persistence.repository.CourseRepository;
 import de.unistuttgart.iste.meitrex.course_service.test_utils.TestUtils;
 import de.unistuttgart.iste.meitrex.generated.dto.Chapter;
+import de.unistuttgart.iste.meitrex.generated.dto.Course;
 import de.unistuttgart.iste.meitrex.generated.dto.CourseMembership;
 import de.unistuttgart.iste.meitrex.generated.dto.UserRoleInCourse;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.graphql.GraphQlRequest;
+import org.springframework.graphql.GraphQlResponse;
+import org.springframework.graphql.client.ClientGraphQlResponse;
 import org.springframework.graphql.client.GraphQlClient;
+import org.springframework.graphql.client.GraphQlTransport;
 import org.springframework.test.web.reactive.server.WebTestClient;
 import org.springframework.test.web.servlet.client.MockMvcWebTestClient;
 import org.springframework.web.context.WebApplicationContext;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
+import java.time.Duration;
 import java.time.OffsetDateTime;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static de.unistuttgart.iste.meitrex.common.testutil.TestUsers.userWithMembershipInCourseWithId;
 import static org.hamcrest.MatcherAssert.assertThat;
@@ -43,6 +55,9 @@ class CourseServiceClientTest {
 
     private GraphQlClient graphQlClient;
 
+    private final AtomicInteger requestCount = new AtomicInteger();
+    private final List<String> requestDocuments = Collections.synchronizedList(new ArrayList<>());
+
     @Autowired
     private WebApplicationContext applicationContext;
 
@@ -53,7 +68,7 @@ class CourseServiceClientTest {
     private CourseRepository courseRepository;
 
     @Autowired
-    private ModelMapper modelMapper;
+    private ChapterMapper chapterMapper;
 
     @Autowired
     private CourseMembershipRepository courseMembershipRepository;
@@ -64,7 +79,7 @@ class CourseServiceClientTest {
         final WebTestClient webTestClient = MockMvcWebTestClient.bindToApplicationContext(applicationContext)
                 .configureClient().baseUrl("/graphql").build();
 
-        graphQlClient = GraphQlClient.builder(new WebTestClientTransport(webTestClient)).build();
+        graphQlClient = GraphQlClient.builder(countingRequests(new WebTestClientTransport(webTestClient))).build();
     }
 
     @Test
@@ -80,10 +95,7 @@ class CourseServiceClientTest {
 
         assertThat(actualChapters.getFirst().getCourse().getId(), is(course.getId()));
 
-        ChapterEntity compareEntity = modelMapper.map(actualChapters.getFirst(), ChapterEntity.class);
-        compareEntity.setCourseId(actualChapters.getFirst().getCourse().getId());
-
-        assertThat(compareEntity, is(chapterEntity));
+        assertThat(actualChapters.getFirst(), is(chapterMapper.entityToDto(chapterEntity)));
     }
 
     @Test
@@ -121,6 +133,118 @@ class CourseServiceClientTest {
     }
 
 
+    /**
+     * Given two courses
+     * When the courses are fetched concurrently, one of them twice
+     * Then they are fetched with a single request
+     */
+    @Test
+    void testFetchCourseByIdBatchesConcurrentLookups() {
+        final CourseServiceClient courseServiceClient = new CourseServiceClient(graphQlClient, Duration.ofMillis(100), 100);
+        final CourseEntity otherCourse = courseRepository.save(createTestCourse());
+
+        final var courses = Mono.zip(
+                courseServiceClient.fetchCourseById(course.getId()),
+                courseServiceClient.fetchCourseById(otherCourse.getId()),
+                courseServiceClient.fetchCourseById(course.getId())).block();
+
+        assertThat(courses, notNullValue());
+        assertThat(courses.getT1().getId(), is(course.getId()));
+        assertThat(courses.getT2().getId(), is(otherCourse.getId()));
+        assertThat(courses.getT3().getId(), is(course.getId()));
+        assertThat(requestCount.get(), is(1));
+    }
+
+    /**
+     * Given a course
+     * When the course and a course that does not exist are fetched concurrently
+     * Then the course is returned and only the lookup of the missing course fails
+     */
+    @Test
+    void testFetchCourseByIdReportsMissingCourseOnlyToItsCaller() {
+        final CourseServiceClient courseServiceClient = new CourseServiceClient(graphQlClient, Duration.ofMillis(100), 100);
+        final UUID wrongCourseId = UUID.randomUUID();
+        final AtomicReference<Throwable> error = new AtomicReference<>();
+
+        final var courses = Mono.zip(
+                courseServiceClient.fetchCourseById(course.getId()),
+                courseServiceClient.fetchCourseById(wrongCourseId)
+                        .onErrorResume(e -> {
+                            error.set(e);
+                            return Mono.just(new Course());
+                        })).block();
+
+        assertThat(courses, notNullValue());
+        assertThat(courses.getT1().getTitle(), is(course.getTitle()));
+        assertThat(error.get(), instanceOf(CourseServiceConnectionException.class));
+        assertThat(error.get().getMessage(), containsString("Entities(s) with id(s) %s not found".formatted(wrongCourseId)));
+    }
+
+    /**
+     * Given a client with a cache
+     * When a course and its chapters are queried twice
+     * Then they are fetched from the course service once
+     */
+    @Test
+    void testQueryCourseByIdWithCache() throws CourseServiceConnectionException {
+        final CourseServiceClient courseServiceClient = new CourseServiceClient(graphQlClient,
+                new CourseServiceClientCache(100, Duration.ofMinutes(1), Duration.ofSeconds(10), null));
+
+        assertThat(courseServiceClient.queryCourseById(course.getId()).getTitle(), is(course.getTitle()));
+        assertThat(courseServiceClient.queryCourseById(course.getId()).getTitle(), is(course.getTitle()));
+        courseServiceClient.queryChapterByCourseId(course.getId());
+        courseServiceClient.queryChapterByCourseId(course.getId());
+
+        assertThat(requestCount.get(), is(2));
+    }
+
+    /**
+     * Given a persisted query whose document is not registered by the course service
+     * When it is sent
+     * Then the course service answers with a not-found error, upon which the client would send the document
+     */
+    @Test
+    void testUnknownPersistedQueryIsNotFound() {
+        final GraphQlResponse response = graphQlClient.document(PersistedQuery.MARKER)
+                .extension(PersistedQuery.EXTENSION, PersistedQuery.extension("query { courses { elements { id } } }"))
+                .execute()
+                .block();
+
+        assertThat(response, notNullValue());
+        assertThat(PersistedQuery.isNotFound(response), is(true));
+    }
+
+    /**
+     * Given a document that the course service has not registered as a persisted query
+     * When it is sent twice
+     * Then the first request is sent again in full with its hash, which registers the document, and the second
+     * request is answered from the hash only
+     */
+    @Test
+    void testUnknownPersistedQueryIsRegisteredOnFirstMiss() {
+        final CourseServiceClient courseServiceClient = new CourseServiceClient(graphQlClient);
+        // the alias makes the document unique, so that it has not been registered by another test
+        final String alias = "course" + UUID.randomUUID().toString().replace("-", "");
+        final String document = """
+                query($ids: [UUID!]!) {
+                    %s: coursesByIds(ids: $ids) {
+                        id
+                    }
+                }
+                """.formatted(alias);
+        final Map<String, Object> variables = Map.of("ids", List.of(course.getId()));
+
+        final ClientGraphQlResponse first = courseServiceClient.execute(document, variables).block();
+        final ClientGraphQlResponse second = courseServiceClient.execute(document, variables).block();
+
+        assertThat(first, notNullValue());
+        assertThat(second, notNullValue());
+        assertThat(first.getErrors(), is(empty()));
+        assertThat(second.getErrors(), is(empty()));
+        assertThat(second.field(alias + "[0].id").toEntity(UUID.class), is(course.getId()));
+        assertThat(requestDocuments, contains(PersistedQuery.MARKER, document, PersistedQuery.MARKER));
+    }
+
     @Test
     void testQueryMembershipsInCourse() throws CourseServiceConnectionException {
         final CourseServiceClient courseServiceClient = new CourseServiceClient(graphQlClient);
@@ -207,6 +331,22 @@ class CourseServiceClientTest {
         }
     }
 
+    private GraphQlTransport countingRequests(final GraphQlTransport transport) {
+        return new GraphQlTransport() {
+            @Override
+            public Mono<GraphQlResponse> execute(final GraphQlRequest request) {
+                requestCount.incrementAndGet();
+                requestDocuments.add(request.getDocument());
+                return transport.execute(request);
+            }
+
+            @Override
+            public Flux<GraphQlResponse> executeSubscription(final GraphQlRequest request) {
+                return transport.executeSubscription(request);
+            }
+        };
+    }
+
     private static CourseEntity createTestCourse() {
         return CourseEntity.builder()
                 .startDate(OffsetDateTime.parse("2021-01-01T00:00:00+00:00"))
@@ -0,0 +1,74 @@
+package de.unistuttgart.iste.meitrex.course_service.client;
+
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Unit tests for {@link RetryPolicy}.
+ */
+class RetryPolicyTest {
+
+    private final RetryPolicy retryPolicy =
+            new RetryPolicy(2, Duration.ofMillis(1), Duration.ofMillis(10), 0.5, Duration.ofSeconds(10));
+    private final AtomicInteger attempts = new AtomicInteger();
+
+    /**
+     * Given a request that fails once
+     * When it is retried
+     * Then the result of the second attempt is returned
+     */
+    @Test
+    void testRetriesFailedRequest() {
+        final Mono<String> request = Mono.defer(() -> attempts.incrementAndGet() == 1
+                ? Mono.error(new IllegalStateException("Connection refused"))
+                : Mono.just("ok"));
+
+        assertThat(request.retryWhen(retryPolicy.toRetry(error -> true)).block(), is("ok"));
+        assertThat(attempts.get(), is(2));
+    }
+
+    /**
+     * Given a request that always fails
+     * When it is retried
+     * Then the original failure is propagated after the retries are exhausted
+     */
+    @Test
+    void testPropagatesLastFailure() {
+        final Mono<String> request = failingRequest();
+
+        final Exception exception = assertThrows(IllegalStateException.class,
+                () -> request.retryWhen(retryPolicy.toRetry(error -> true)).block());
+
+        assertThat(exception.getMessage(), is("Connection refused"));
+        assertThat(attempts.get(), is(3));
+    }
+
+    /**
+     * Given a request that fails with an error that is not retryable
+     * When it is retried
+     * Then it is not sent again
+     */
+    @Test
+    void testDoesNotRetryNonRetryableFailure() {
+        final Mono<String> request = failingRequest();
+
+        assertThrows(IllegalStateException.class,
+                () -> request.retryWhen(retryPolicy.toRetry(error -> false)).block());
+
+        assertThat(attempts.get(), is(1));
+    }
+
+    private Mono<String> failingRequest() {
+        return Mono.defer(() -> {
+            attempts.incrementAndGet();
+            return Mono.error(new IllegalStateException("Connection refused"));
+        });
+    }
+}
@@ -0,0 +1,84 @@
+package de.unistuttgart.iste.meitrex.course_service.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import de.unistuttgart.iste.meitrex.common.user_handling.LoggedInUser;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.UUID;
+
+import static de.unistuttgart.iste.meitrex.common.testutil.TestUsers.userWithMembershipInCourseWithId;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * Unit tests for {@link LoggedInUserCache}.
+ */
+class LoggedInUserCacheTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final LoggedInUserCache loggedInUserCache =
+            new LoggedInUserCache(meterRegistry, 100, Duration.ofMinutes(5));
+
+    /**
+     * Given a user cached for a header value
+     * When getUser is called twice with the header value
+     * Then both calls are cache hits and return equal but separate users
+     */
+    @Test
+    void testRepeatedHeaderIsServedFromCache() throws Exception {
+        final LoggedInUser user = userWithMembershipInCourseWithId(UUID.randomUUID(),
+                LoggedInUser.UserRoleInCourse.STUDENT);
+        final String headerValue = objectMapper.writeValueAsString(user);
+
+        assertThat(loggedInUserCache.getUser(headerValue), is(nullValue()));
+        loggedInUserCache.putUser(headerValue, parse(headerValue));
+
+        final LoggedInUser first = loggedInUserCache.getUser(headerValue);
+        final LoggedInUser second = loggedInUserCache.getUser(headerValue);
+
+        assertThat(first.getId(), is(user.getId()));
+        assertThat(second, is(first));
+        assertThat(second, is(not(sameInstance(first))));
+
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "loggedInUser").tag("result", "hit")
+                .functionCounter().count(), is(2.0));
+        assertThat(meterRegistry.get("cache.parse.bytes.saved").counter().count(),
+                is(2.0 * headerValue.getBytes(StandardCharsets.UTF_8).length));
+    }
+
+    /**
+     * Given a cached user whose course memberships were modified after caching it and after returning it
+     * When getUser is called again with the same header value
+     * Then the modification is not visible
+     */
+    @Test
+    void testModificationsDoNotLeakIntoCache() throws Exception {
+        final LoggedInUser user = userWithMembershipInCourseWithId(UUID.randomUUID(),
+                LoggedInUser.UserRoleInCourse.STUDENT);
+        final String headerValue = objectMapper.writeValueAsString(user);
+
+        final LoggedInUser parsed = parse(headerValue);
+        loggedInUserCache.putUser(headerValue, parsed);
+        // the user of the request that parsed the header is not the cached one
+        parsed.getCourseMemberships().clear();
+
+        final LoggedInUser first = loggedInUserCache.getUser(headerValue);
+        first.getCourseMemberships().clear();
+
+        final LoggedInUser second = loggedInUserCache.getUser(headerValue);
+
+        assertThat(second.getCourseMemberships(), hasSize(1));
+    }
+
+    @SneakyThrows
+    private LoggedInUser parse(final String headerValue) {
+        return objectMapper.readValue(headerValue, LoggedInUser.class);
+    }
+}
@@ -0,0 +1,130 @@
+package de.unistuttgart.iste.meitrex.course_service.config;
+
+import de.unistuttgart.iste.meitrex.course_service.client.PersistedQuery;
+import de.unistuttgart.iste.meitrex.course_service.client.QueryDefinitions;
+import graphql.ExecutionInput;
+import graphql.execution.preparsed.PreparsedDocumentEntry;
+import graphql.parser.Parser;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * Unit tests for {@link PersistedQueryDocumentProvider}.
+ */
+class PersistedQueryDocumentProviderTest {
+
+    private final PersistedQueryDocumentProvider provider =
+            new PersistedQueryDocumentProvider(new PreparsedDocumentCache(new SimpleMeterRegistry(), 100), 100);
+
+    private final List<String> parsedQueries = new ArrayList<>();
+    private final Function<ExecutionInput, PreparsedDocumentEntry> parseAndValidate = executionInput -> {
+        parsedQueries.add(executionInput.getQuery());
+        return new PreparsedDocumentEntry(Parser.parse(executionInput.getQuery()));
+    };
+
+    /**
+     * Given a persisted query of a registered document
+     * When it is requested twice
+     * Then the document is parsed and validated once and reused
+     */
+    @Test
+    void testRegisteredDocumentIsParsedOnce() {
+        final ExecutionInput executionInput = persistedQuery(PersistedQuery.hash(QueryDefinitions.COURSES_BY_IDS));
+
+        final PreparsedDocumentEntry first = provider.getDocumentAsync(executionInput, parseAndValidate).join();
+        final PreparsedDocumentEntry second = provider.getDocumentAsync(executionInput, parseAndValidate).join();
+
+        assertThat(first.hasErrors(), is(false));
+        assertThat(second, is(sameInstance(first)));
+        assertThat(parsedQueries, contains(QueryDefinitions.COURSES_BY_IDS));
+    }
+
+    /**
+     * Given a persisted query with a hash that is not registered
+     * When it is requested
+     * Then a not-found error is returned without parsing anything
+     */
+    @Test
+    void testUnknownHashIsNotFound() {
+        final PreparsedDocumentEntry entry = provider.getDocumentAsync(
+                persistedQuery(PersistedQuery.hash("query { courses { elements { id } } }")), parseAndValidate).join();
+
+        assertThat(entry.hasErrors(), is(true));
+        assertThat(entry.getErrors().getFirst().getMessage(), is(PersistedQuery.NOT_FOUND_MESSAGE));
+        assertThat(parsedQueries, is(empty()));
+    }
+
+    /**
+     * Given a persisted query with an unknown hash that is sent together with its query text
+     * When it is requested and then requested again with the hash only
+     * Then the query is registered and both requests are answered with the document, parsed and validated once
+     */
+    @Test
+    void testClientRegistersQueryWithMatchingHash() {
+        final String query = "query { courses { elements { id } } }";
+        final String hash = PersistedQuery.hash(query);
+
+        final PreparsedDocumentEntry first = provider.getDocumentAsync(
+                persistedQuery(query, hash), parseAndValidate).join();
+        final PreparsedDocumentEntry second = provider.getDocumentAsync(persistedQuery(hash), parseAndValidate).join();
+
+        assertThat(first.hasErrors(), is(false));
+        assertThat(second, is(sameInstance(first)));
+        assertThat(parsedQueries, contains(query));
+    }
+
+    /**
+     * Given a persisted query sent with query text that does not match the hash
+     * When it is requested
+     * Then an error is returned without parsing or registering the query
+     */
+    @Test
+    void testQueryWithMismatchingHashIsRejected() {
+        final String hash = PersistedQuery.hash("query { courses { elements { id } } }");
+
+        final PreparsedDocumentEntry entry = provider.getDocumentAsync(
+                persistedQuery("query { courses { elements { title } } }", hash), parseAndValidate).join();
+
+        assertThat(entry.hasErrors(), is(true));
+        assertThat(entry.getErrors().getFirst().getMessage(),
+                is(PersistedQueryDocumentProvider.HASH_MISMATCH_MESSAGE));
+        assertThat(parsedQueries, is(empty()));
+        assertThat(provider.getDocumentAsync(persistedQuery(hash), parseAndValidate).join()
+                .getErrors().getFirst().getMessage(), is(PersistedQuery.NOT_FOUND_MESSAGE));
+    }
+
+    /**
+     * Given a request with query text that is not a persisted query
+     * When it is requested twice
+     * Then it is parsed and validated once through the document cache
+     */
+    @Test
+    void testOtherRequestsAreParsedThroughDocumentCache() {
+        final String query = "query { coursesByIds(ids: []) { id } }";
+        final ExecutionInput executionInput = ExecutionInput.newExecutionInput().query(query).build();
+
+        provider.getDocumentAsync(executionInput, parseAndValidate).join();
+        provider.getDocumentAsync(executionInput, parseAndValidate).join();
+
+        assertThat(parsedQueries, contains(query));
+    }
+
+    private static ExecutionInput persistedQuery(final String hash) {
+        return persistedQuery(PersistedQuery.MARKER, hash);
+    }
+
+    private static ExecutionInput persistedQuery(final String query, final String hash) {
+        return ExecutionInput.newExecutionInput()
+                .query(query)
+                .extensions(Map.of(PersistedQuery.EXTENSION, Map.of("version", 1, PersistedQuery.HASH_KEY, hash)))
+                .build();
+    }
+}
@@ -0,0 +1,72 @@
+package de.unistuttgart.iste.meitrex.course_service.config;
+
+import graphql.ExecutionInput;
+import graphql.GraphqlErrorBuilder;
+import graphql.execution.preparsed.PreparsedDocumentEntry;
+import graphql.parser.Parser;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * Unit tests for {@link PreparsedDocumentCache}.
+ */
+class PreparsedDocumentCacheTest {
+
+    private static final String QUERY = "query { coursesByIds(ids: []) { id } }";
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final PreparsedDocumentCache preparsedDocumentCache = new PreparsedDocumentCache(meterRegistry, 100);
+
+    private final AtomicInteger parses = new AtomicInteger();
+
+    /**
+     * Given the same query text twice
+     * When the document is requested
+     * Then it is parsed and validated once and the hit ratio and the saved parse time are recorded
+     */
+    @Test
+    void testRepeatedQueryIsServedFromCache() {
+        final Function<ExecutionInput, PreparsedDocumentEntry> parseAndValidate = executionInput -> {
+            parses.incrementAndGet();
+            return new PreparsedDocumentEntry(Parser.parse(executionInput.getQuery()));
+        };
+
+        final PreparsedDocumentEntry first = preparsedDocumentCache.getDocumentAsync(input(QUERY), parseAndValidate).join();
+        final PreparsedDocumentEntry second = preparsedDocumentCache.getDocumentAsync(input(QUERY), parseAndValidate).join();
+
+        assertThat(second, is(sameInstance(first)));
+        assertThat(parses.get(), is(1));
+        assertThat(meterRegistry.get("cache.hit.ratio").tag("cache", "graphqlDocument").gauge().value(), is(0.5));
+        assertThat(meterRegistry.get("cache.parse.time.saved").tag("cache", "graphqlDocument").counter().count(),
+                is(greaterThan(0.0)));
+    }
+
+    /**
+     * Given a query text with validation errors
+     * When the document is requested twice
+     * Then it is validated both times, as documents with errors are not cached
+     */
+    @Test
+    void testDocumentsWithErrorsAreNotCached() {
+        final Function<ExecutionInput, PreparsedDocumentEntry> parseAndValidate = executionInput -> {
+            parses.incrementAndGet();
+            return new PreparsedDocumentEntry(GraphqlErrorBuilder.newError().message("Validation error").build());
+        };
+
+        preparsedDocumentCache.getDocumentAsync(input(QUERY), parseAndValidate).join();
+        final PreparsedDocumentEntry entry = preparsedDocumentCache.getDocumentAsync(input(QUERY), parseAndValidate).join();
+
+        assertThat(entry.hasErrors(), is(true));
+        assertThat(parses.get(), is(2));
+    }
+
+    private static ExecutionInput input(final String query) {
+        return ExecutionInput.newExecutionInput().query(query).build();
+    }
+}
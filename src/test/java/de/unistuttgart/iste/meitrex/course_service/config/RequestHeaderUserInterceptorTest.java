@@ -0,0 +1,107 @@
+package de.unistuttgart.iste.meitrex.course_service.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import de.unistuttgart.iste.meitrex.common.user_handling.LoggedInUser;
+import graphql.ExecutionInput;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.graphql.server.WebGraphQlInterceptor;
+import org.springframework.graphql.server.WebGraphQlRequest;
+import org.springframework.http.HttpHeaders;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+
+import static de.unistuttgart.iste.meitrex.common.testutil.TestUsers.userWithMembershipInCourseWithId;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for {@link RequestHeaderUserInterceptor}.
+ */
+class RequestHeaderUserInterceptorTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+    private final AtomicInteger parses = new AtomicInteger();
+
+    private final RequestHeaderUserInterceptor interceptor = new RequestHeaderUserInterceptor(
+            new LoggedInUserCache(new SimpleMeterRegistry(), 100, Duration.ofMinutes(5)),
+            this::processUser);
+
+    /**
+     * Given the same user header in two requests
+     * When the requests are intercepted and executed
+     * Then the header is parsed once for the first request, the second request is served from the cache and both
+     * requests get the user in their context
+     */
+    @Test
+    void testHeaderIsParsedOnceOnMissAndNotOnHit() throws Exception {
+        final LoggedInUser user = userWithMembershipInCourseWithId(UUID.randomUUID(),
+                LoggedInUser.UserRoleInCourse.STUDENT);
+        final String headerValue = objectMapper.writeValueAsString(user);
+
+        final LoggedInUser firstUser = interceptAndExecute(headerValue);
+        assertThat(parses.get(), is(1));
+
+        final LoggedInUser secondUser = interceptAndExecute(headerValue);
+        assertThat(parses.get(), is(1));
+
+        assertThat(firstUser.getId(), is(user.getId()));
+        assertThat(secondUser, is(firstUser));
+    }
+
+    /**
+     * Like the {@code RequestHeaderUserProcessor}, adds the user of the header to the context, but counts how often
+     * the header is parsed. The header is parsed whenever the execution input is created, as a processor that parses
+     * lazily would.
+     */
+    private void processUser(final WebGraphQlRequest request) {
+        final String headerValue = request.getHeaders().getFirst("CurrentUser");
+        request.configureExecutionInput((executionInput, builder) -> {
+            parses.incrementAndGet();
+            try {
+                return builder.graphQLContext(Map.of("currentUser",
+                        objectMapper.readValue(headerValue, LoggedInUser.class))).build();
+            } catch (final Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+    }
+
+    /**
+     * Intercepts a request with the given user header and creates its execution input once, as the execution of the
+     * request does.
+     *
+     * @return the user in the context of the execution input
+     */
+    private LoggedInUser interceptAndExecute(final String headerValue) {
+        final HttpHeaders headers = new HttpHeaders();
+        headers.add("CurrentUser", headerValue);
+
+        final WebGraphQlRequest request = mock(WebGraphQlRequest.class);
+        final List<BiFunction<ExecutionInput, ExecutionInput.Builder, ExecutionInput>> configurers = new ArrayList<>();
+        when(request.getHeaders()).thenReturn(headers);
+        doAnswer(invocation -> configurers.add(invocation.getArgument(0)))
+                .when(request).configureExecutionInput(any());
+
+        final WebGraphQlInterceptor.Chain chain = mock(WebGraphQlInterceptor.Chain.class);
+        when(chain.next(request)).thenReturn(Mono.empty());
+        interceptor.intercept(request, chain);
+
+        ExecutionInput executionInput = ExecutionInput.newExecutionInput("{ currentUser }").build();
+        for (final BiFunction<ExecutionInput, ExecutionInput.Builder, ExecutionInput> configurer : configurers) {
+            final ExecutionInput current = executionInput;
+            executionInput = executionInput.transform(builder -> configurer.apply(current, builder));
+        }
+        return executionInput.getGraphQLContext().get("currentUser");
+    }
+}
@@ -0,0 +1,74 @@
+package de.unistuttgart.iste.meitrex.course_service.persistence;
+
+import de.unistuttgart.iste.meitrex.common.testutil.GraphQlApiTest;
+import de.unistuttgart.iste.meitrex.course_service.persistence.entity.ChapterEntity;
+import de.unistuttgart.iste.meitrex.course_service.persistence.entity.ChapterLifecycleEventEntity;
+import de.unistuttgart.iste.meitrex.course_service.persistence.entity.ChapterLifecycleEventEntity.Kind;
+import de.unistuttgart.iste.meitrex.course_service.persistence.entity.CourseEntity;
+import de.unistuttgart.iste.meitrex.course_service.persistence.repository.ChapterLifecycleEventRepository;
+import de.unistuttgart.iste.meitrex.course_service.persistence.repository.ChapterRepository;
+import de.unistuttgart.iste.meitrex.course_service.persistence.repository.CourseRepository;
+import de.unistuttgart.iste.meitrex.course_service.service.ChapterLifecycleEventPoller;
+import de.unistuttgart.iste.meitrex.course_service.service.ChapterScheduler;
+import de.unistuttgart.iste.meitrex.course_service.service.ChapterService;
+import de.unistuttgart.iste.meitrex.course_service.test_utils.TestUtils;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.OffsetDateTime;
+import java.time.temporal.ChronoUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+
+/**
+ * Tests that the chapter lifecycle events recorded while the daily runs of the {@link ChapterScheduler} send the
+ * notifications are not sent again after switching to the {@link ChapterScheduler.Mode#QUEUE} mode.
+ */
+@GraphQlApiTest
+class ChapterLifecycleEventModeSwitchTest {
+
+    @Autowired
+    private CourseRepository courseRepository;
+    @Autowired
+    private ChapterRepository chapterRepository;
+    @Autowired
+    private ChapterLifecycleEventRepository chapterLifecycleEventRepository;
+    @Autowired
+    private ChapterService chapterService;
+    @Autowired
+    private ChapterLifecycleEventPoller chapterLifecycleEventPoller;
+
+    /**
+     * Given a chapter with an event that became due while the daily run was active and an event due in the future
+     * When the daily run of the LOCAL mode checks the current day and the mode is switched to QUEUE afterwards
+     * Then the past event is not processed again and only the future event is kept
+     */
+    @Test
+    void testSwitchToQueueModeDoesNotRepeatEventsOfNotifiedDays() {
+        final CourseEntity course = courseRepository.save(TestUtils.dummyCourseBuilder().build());
+        final ChapterEntity chapter = chapterRepository.save(TestUtils.dummyChapterBuilder()
+                .courseId(course.getId())
+                .build());
+        // truncated to the precision of the database
+        final OffsetDateTime now = OffsetDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+        chapterLifecycleEventRepository.save(new ChapterLifecycleEventEntity(chapter.getId(), Kind.UNLOCK,
+                now.minusMinutes(1)));
+        final ChapterLifecycleEventEntity futureEvent = chapterLifecycleEventRepository.save(
+                new ChapterLifecycleEventEntity(chapter.getId(), Kind.LOCK, now.plusDays(2)));
+
+        // the daily run of the LOCAL mode
+        chapterService.checkChapters();
+
+        ReflectionTestUtils.setField(chapterLifecycleEventPoller, "mode", ChapterScheduler.Mode.QUEUE);
+        assertThat(chapterLifecycleEventPoller.poll(), is(0));
+
+        assertThat(chapterLifecycleEventRepository.findAll().stream()
+                        .filter(event -> event.getChapterId().equals(chapter.getId()))
+                        .map(ChapterLifecycleEventEntity::getKind)
+                        .toList(),
+                contains(futureEvent.getKind()));
+    }
+}
@@ -0,0 +1,95 @@
+package de.unistuttgart.iste.meitrex.course_service.persistence;
+
+import de.unistuttgart.iste.meitrex.common.testutil.GraphQlApiTest;
+import de.unistuttgart.iste.meitrex.course_service.persistence.entity.ChapterEntity;
+import de.unistuttgart.iste.meitrex.course_service.persistence.repository.ChapterRepository;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * Tests that the queries of the chapter lock/unlock scheduler stay index-backed on a large chapter table.
+ * <p>
+ * Unlike the {@link IndexUsageTest}, sequential scans are not disabled, as the table is large enough for the
+ * planner to choose the index on its own. The table is filled once for all tests, which still takes a while,
+ * so the test is tagged as a volume test and only run by the {@code volumeTest} task.
+ */
+@GraphQlApiTest
+@Tag("volume")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ChapterScheduleQueryVolumeTest {
+
+    private static final int CHAPTER_COUNT = 1_000_000;
+    // the chapters start on one of 2000 consecutive days, so 500 chapters start on each day
+    private static final int DAYS = 2000;
+
+    private static final OffsetDateTime FROM = OffsetDateTime.parse("2021-06-01T00:00:00Z");
+    private static final OffsetDateTime TO = FROM.plusDays(1);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ChapterRepository chapterRepository;
+
+    @BeforeAll
+    void setUp() {
+        jdbcTemplate.update("""
+                INSERT INTO chapter (id, title, description, number, start_date, end_date, course_id)
+                SELECT md5(random()::text || i)::uuid,
+                       'Chapter ' || i,
+                       '',
+                       i % 20 + 1,
+                       TIMESTAMPTZ '2020-01-01 00:00:00+00' + (i % ?) * INTERVAL '1 day',
+                       TIMESTAMPTZ '2020-01-01 00:00:00+00' + (i % ? + 30) * INTERVAL '1 day',
+                       md5(random()::text || (i / 20))::uuid
+                FROM generate_series(1, ?) AS i
+                """, DAYS, DAYS, CHAPTER_COUNT);
+        jdbcTemplate.execute("ANALYZE chapter");
+    }
+
+    @AfterAll
+    void tearDown() {
+        jdbcTemplate.execute("TRUNCATE chapter_lifecycle_event, chapter");
+    }
+
+    @Test
+    void testFindChaptersToUnlock() {
+        final List<ChapterEntity> chapters = chapterRepository.findChaptersToUnlock(FROM, TO);
+
+        assertThat(chapters, hasSize(CHAPTER_COUNT / DAYS));
+    }
+
+    @Test
+    void testFindChaptersToLock() {
+        final List<ChapterEntity> chapters = chapterRepository.findChaptersToLock(FROM, TO);
+
+        assertThat(chapters, hasSize(CHAPTER_COUNT / DAYS));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            // the queries of ChapterRepository.findChaptersToUnlock and findChaptersToLock,
+            // including the restriction to chapters that are not deleted
+            "SELECT * FROM chapter WHERE start_date >= ? AND start_date < ? AND deleted_at IS NULL",
+            "SELECT * FROM chapter WHERE end_date >= ? AND end_date < ? AND deleted_at IS NULL",
+    })
+    void testSchedulerQueryUsesIndex(final String query) {
+        final String plan = String.join("\n", jdbcTemplate.queryForList("EXPLAIN " + query, String.class, FROM, TO));
+
+        assertThat(plan, not(containsString("Seq Scan")));
+        assertThat(plan, containsString("Index"));
+    }
+}
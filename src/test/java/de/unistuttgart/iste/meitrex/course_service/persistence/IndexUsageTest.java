@@ -0,0 +1,73 @@
+package de.unistuttgart.iste.meitrex.course_service.persistence;
+
+import de.unistuttgart.iste.meitrex.common.testutil.GraphQlApiTest;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * Tests that the hot queries of the repositories are backed by an index created by the migrations.
+ * <p>
+ * As the test tables are small, the planner would prefer a sequential scan even if an index exists.
+ * Sequential scans are therefore disabled for the query, so that the planner only falls back to one
+ * if no index can be used.
+ */
+@GraphQlApiTest
+class IndexUsageTest {
+
+    private static final String COURSE_ID = "'6f1c8e5a-3b0d-4c7e-9a51-0d2b7a4e9c11'::uuid";
+    private static final String USER_ID = "'0b9d3f27-6a1e-4d58-8c2f-71e5a9b3d402'::uuid";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            // chapters of a course in the default order
+            "SELECT * FROM chapter WHERE course_id = " + COURSE_ID + " ORDER BY number",
+            // chapters to unlock and to lock on a day
+            "SELECT * FROM chapter WHERE start_date >= '2024-01-01T00:00:00Z' AND start_date < '2024-01-02T00:00:00Z'",
+            "SELECT * FROM chapter WHERE end_date >= '2024-01-01T00:00:00Z' AND end_date < '2024-01-02T00:00:00Z'",
+            // memberships of a course, with and without role
+            "SELECT * FROM course_membership WHERE course_id = " + COURSE_ID,
+            "SELECT user_id FROM course_membership WHERE course_id = " + COURSE_ID + " AND course_role = 0",
+            // memberships of a user
+            "SELECT * FROM course_membership WHERE user_id = " + USER_ID,
+            // due chapter lifecycle events
+            "SELECT * FROM chapter_lifecycle_event WHERE due_at <= now() ORDER BY due_at LIMIT 100",
+    })
+    void testQueryDoesNotUseSequentialScan(final String query) {
+        final String plan = explain(query);
+
+        assertThat(plan, not(containsString("Seq Scan")));
+        assertThat(plan, containsString("Index"));
+    }
+
+    private String explain(final String query) {
+        return jdbcTemplate.execute((ConnectionCallback<String>) connection -> {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("SET enable_seqscan = off");
+
+                final List<String> lines = new ArrayList<>();
+                try (ResultSet resultSet = statement.executeQuery("EXPLAIN " + query)) {
+                    while (resultSet.next()) {
+                        lines.add(resultSet.getString(1));
+                    }
+                }
+
+                statement.execute("RESET enable_seqscan");
+                return String.join("\n", lines);
+            }
+        });
+    }
+}
@@ -0,0 +1,58 @@
+package de.unistuttgart.iste.meitrex.course_service.persistence;
+
+import de.unistuttgart.iste.meitrex.common.testutil.GraphQlApiTest;
+import de.unistuttgart.iste.meitrex.course_service.persistence.repository.ScheduleLeaseRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.UUID;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+/**
+ * Tests the lease queries of {@link ScheduleLeaseRepository} against the database.
+ */
+@GraphQlApiTest
+class ScheduleLeaseRepositoryTest {
+
+    @Autowired
+    private ScheduleLeaseRepository scheduleLeaseRepository;
+
+    /**
+     * Given a lease held by one owner
+     * When another owner tries to acquire it
+     * Then the lease is only acquired after the first owner has released it
+     */
+    @Test
+    void testLeaseIsExclusiveUntilReleased() {
+        final String name = "test-" + UUID.randomUUID();
+
+        assertThat(scheduleLeaseRepository.tryAcquire(name, "first", 60), is(1));
+        // the owner can extend its own lease
+        assertThat(scheduleLeaseRepository.tryAcquire(name, "first", 60), is(1));
+        assertThat(scheduleLeaseRepository.tryAcquire(name, "second", 60), is(0));
+
+        // only the owner can release the lease
+        assertThat(scheduleLeaseRepository.release(name, "second"), is(0));
+        assertThat(scheduleLeaseRepository.release(name, "first"), is(1));
+
+        assertThat(scheduleLeaseRepository.tryAcquire(name, "second", 60), is(1));
+        assertThat(scheduleLeaseRepository.findById(name).orElseThrow().getLockedBy(), is("second"));
+    }
+
+    /**
+     * Given a lease whose owner did not release it, e.g., because it crashed
+     * When another owner tries to acquire it after it expired
+     * Then the lease is acquired
+     */
+    @Test
+    void testExpiredLeaseCanBeTakenOver() {
+        final String name = "test-" + UUID.randomUUID();
+
+        assertThat(scheduleLeaseRepository.tryAcquire(name, "crashed", 0), is(1));
+
+        assertThat(scheduleLeaseRepository.tryAcquire(name, "second", 60), is(1));
+        assertThat(scheduleLeaseRepository.findById(name).orElseThrow().getLockedBy(), is("second"));
+    }
+}
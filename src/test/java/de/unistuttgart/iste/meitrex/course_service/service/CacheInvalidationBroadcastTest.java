@@ -0,0 +1,166 @@
+package de.unistuttgart.iste.meitrex.course_service.service;
+
+import de.unistuttgart.iste.meitrex.course_service.controller.CacheInvalidationController;
+import de.unistuttgart.iste.meitrex.course_service.persistence.entity.CourseEntity;
+import de.unistuttgart.iste.meitrex.course_service.persistence.entity.CourseMembershipEntity;
+import de.unistuttgart.iste.meitrex.course_service.persistence.mapper.CourseMapperImpl;
+import de.unistuttgart.iste.meitrex.course_service.persistence.repository.CourseMembershipRepository;
+import de.unistuttgart.iste.meitrex.course_service.persistence.repository.CourseRepository;
+import de.unistuttgart.iste.meitrex.generated.dto.UserRoleInCourse;
+import io.dapr.Topic;
+import io.dapr.client.domain.CloudEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests that the cache invalidation messages reach every replica of the service, simulated by two replicas that
+ * share the database and receive the messages of the cache pub/sub component.
+ */
+class CacheInvalidationBroadcastTest {
+
+    private final CourseRepository courseRepository = mock(CourseRepository.class);
+    private final CourseMembershipRepository courseMembershipRepository = mock(CourseMembershipRepository.class);
+
+    private final Replica replica = new Replica();
+    private final Replica otherReplica = new Replica();
+
+    /**
+     * A replica with its own caches, outbox and subscription.
+     */
+    private class Replica {
+        private final EventOutbox eventOutbox = mock(EventOutbox.class);
+        private final CourseCache courseCache = new CourseCache(courseRepository, new CourseMapperImpl(), eventOutbox,
+                new SimpleMeterRegistry(), 100, Duration.ofMinutes(10));
+        private final MembershipCache membershipCache = new MembershipCache(courseMembershipRepository, eventOutbox,
+                new SimpleMeterRegistry(), 1000, Duration.ofMinutes(10));
+        private final CacheInvalidationController listener =
+                new CacheInvalidationController(courseCache, membershipCache);
+    }
+
+    /**
+     * Given a course that is cached on two replicas
+     * When the course is changed on one replica and the invalidation message is broadcast
+     * Then both replicas evict the course and load the changed course
+     */
+    @Test
+    void testCourseIsEvictedOnEveryReplica() {
+        final CourseEntity course = dummyCourseEntity("title");
+        when(courseRepository.findById(course.getId())).thenReturn(Optional.of(course));
+        replica.courseCache.getCourse(course.getId());
+        otherReplica.courseCache.getCourse(course.getId());
+
+        final CourseEntity changedCourse = dummyCourseEntity("changed title");
+        changedCourse.setId(course.getId());
+        when(courseRepository.findById(course.getId())).thenReturn(Optional.of(changedCourse));
+        inCommittedTransaction(() -> replica.courseCache.invalidate(course.getId()));
+
+        final ArgumentCaptor<CourseCache.Invalidation> invalidation =
+                ArgumentCaptor.forClass(CourseCache.Invalidation.class);
+        verify(replica.eventOutbox).notifyCourseCacheInvalidated(invalidation.capture());
+        broadcast(invalidation.getValue());
+
+        assertThat(replica.courseCache.getCourse(course.getId()).orElseThrow().getTitle(), is("changed title"));
+        assertThat(otherReplica.courseCache.getCourse(course.getId()).orElseThrow().getTitle(), is("changed title"));
+    }
+
+    /**
+     * Given memberships of a course that are cached on two replicas
+     * When a membership is created on one replica and the invalidation message is broadcast
+     * Then both replicas evict the memberships and load the changed memberships
+     */
+    @Test
+    void testMembershipsAreEvictedOnEveryReplica() {
+        final UUID courseId = UUID.randomUUID();
+        final UUID userId = UUID.randomUUID();
+        when(courseMembershipRepository.findCourseMembershipEntitiesByCourseId(courseId)).thenReturn(List.of());
+        replica.membershipCache.getMembershipsOfCourse(courseId);
+        otherReplica.membershipCache.getMembershipsOfCourse(courseId);
+
+        when(courseMembershipRepository.findCourseMembershipEntitiesByCourseId(courseId))
+                .thenReturn(List.of(new CourseMembershipEntity(userId, courseId, UserRoleInCourse.STUDENT)));
+        inCommittedTransaction(() -> replica.membershipCache.update(courseId, userId, UserRoleInCourse.STUDENT));
+
+        final ArgumentCaptor<MembershipLookup.Invalidation> invalidation =
+                ArgumentCaptor.forClass(MembershipLookup.Invalidation.class);
+        verify(replica.eventOutbox).notifyMembershipCacheInvalidated(invalidation.capture());
+        broadcast(invalidation.getValue());
+
+        assertThat(replica.membershipCache.getMembershipsOfCourse(courseId).getRole(userId),
+                is(UserRoleInCourse.STUDENT));
+        assertThat(otherReplica.membershipCache.getMembershipsOfCourse(courseId).getRole(userId),
+                is(UserRoleInCourse.STUDENT));
+    }
+
+    /**
+     * Given the subscriptions of the cache invalidation messages
+     * Then they use the cache pub/sub component, which assigns each replica its own consumer, so that the messages
+     * are delivered to every replica as simulated by {@link #broadcast(CourseCache.Invalidation)}
+     */
+    @Test
+    @SneakyThrows
+    void testSubscriptionsUseConsumerPerReplica() {
+        for (final String method : List.of("onCourseCacheInvalidated", "onMembershipCacheInvalidated")) {
+            final Topic topic = CacheInvalidationController.class.getMethod(method, CloudEvent.class)
+                    .getAnnotation(Topic.class);
+            assertThat(topic.pubsubName(), is(CacheInvalidationPublisher.PUBSUB_NAME));
+        }
+
+        final String component = Files.readString(Path.of("components", "cache-pubsub.yaml"));
+        assertThat(component, containsString("name: " + CacheInvalidationPublisher.PUBSUB_NAME));
+        assertThat(component, containsString("name: consumerID\n      value: \"{uuid}\""));
+    }
+
+    private void broadcast(final CourseCache.Invalidation invalidation) {
+        for (final Replica receiver : List.of(replica, otherReplica)) {
+            receiver.listener.onCourseCacheInvalidated(cloudEvent(invalidation));
+        }
+    }
+
+    private void broadcast(final MembershipLookup.Invalidation invalidation) {
+        for (final Replica receiver : List.of(replica, otherReplica)) {
+            receiver.listener.onMembershipCacheInvalidated(cloudEvent(invalidation));
+        }
+    }
+
+    private static <T> CloudEvent<T> cloudEvent(final T data) {
+        final CloudEvent<T> cloudEvent = new CloudEvent<>();
+        cloudEvent.setData(data);
+        return cloudEvent;
+    }
+
+    private static void inCommittedTransaction(final Runnable action) {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            action.run();
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private static CourseEntity dummyCourseEntity(final String title) {
+        return CourseEntity.builder()
+                .id(UUID.randomUUID())
+                .title(title)
+                .description("description")
+                .startDate(OffsetDateTime.parse("2021-01-01T00:00:00Z"))
+                .endDate(OffsetDateTime.parse("2021-01-01T00:00:00Z"))
+                .build();
+    }
+}
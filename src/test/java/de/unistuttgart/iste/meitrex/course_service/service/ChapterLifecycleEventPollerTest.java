@@ -0,0 +1,48 @@
+package de.unistuttgart.iste.meitrex.course_service.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for {@link ChapterLifecycleEventPoller}.
+ */
+class ChapterLifecycleEventPollerTest {
+
+    private final ChapterService chapterService = mock(ChapterService.class);
+
+    private final ChapterLifecycleEventPoller chapterLifecycleEventPoller = new ChapterLifecycleEventPoller(chapterService);
+
+    /**
+     * Given more due events than fit into one batch
+     * When the queue is polled
+     * Then batches are processed until a batch is not full
+     */
+    @Test
+    void testPollDrainsQueueInBatches() {
+        ReflectionTestUtils.setField(chapterLifecycleEventPoller, "batchSize", 10);
+        when(chapterService.processDueLifecycleEvents(10)).thenReturn(10, 10, 3);
+
+        assertThat(chapterLifecycleEventPoller.poll(), is(23));
+
+        verify(chapterService, times(3)).processDueLifecycleEvents(10);
+    }
+
+    /**
+     * Given a scheduling mode other than the queue
+     * When the queue is polled
+     * Then no events are processed
+     */
+    @Test
+    void testPollDisabledOutsideQueueMode() {
+        ReflectionTestUtils.setField(chapterLifecycleEventPoller, "mode", ChapterScheduler.Mode.LEASED);
+
+        assertThat(chapterLifecycleEventPoller.poll(), is(0));
+
+        verify(chapterService, never()).processDueLifecycleEvents(anyInt());
+    }
+}
@@ -0,0 +1,264 @@
+package de.unistuttgart.iste.meitrex.course_service.service;
+
+import de.unistuttgart.iste.meitrex.course_service.persistence.entity.ScheduleCheckpointEntity;
+import de.unistuttgart.iste.meitrex.course_service.persistence.repository.ScheduleCheckpointRepository;
+import de.unistuttgart.iste.meitrex.course_service.persistence.repository.ScheduleLeaseRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for {@link ChapterScheduler}.
+ */
+class ChapterSchedulerTest {
+
+    private final ChapterService chapterService = mock(ChapterService.class);
+    private final ScheduleLeaseRepository scheduleLeaseRepository = mock(ScheduleLeaseRepository.class);
+    private final ScheduleCheckpointRepository scheduleCheckpointRepository = mock(ScheduleCheckpointRepository.class);
+
+    /**
+     * Runs the callbacks like a transaction, recording whether a callback is running.
+     */
+    private final AtomicBoolean inTransaction = new AtomicBoolean();
+    private final TransactionOperations transactionOperations = new TransactionOperations() {
+        @Override
+        public <T> T execute(final TransactionCallback<T> action) {
+            inTransaction.set(true);
+            try {
+                return action.doInTransaction(new SimpleTransactionStatus());
+            } finally {
+                inTransaction.set(false);
+            }
+        }
+    };
+
+    private final ChapterScheduler chapterScheduler = new ChapterScheduler(
+            chapterService,
+            scheduleLeaseRepository,
+            scheduleCheckpointRepository,
+            transactionOperations);
+
+    private final LocalDate today = LocalDate.now(ZoneOffset.UTC);
+
+    @BeforeEach
+    void setUp() {
+        when(chapterService.getScheduleZone()).thenReturn(ZoneOffset.UTC);
+    }
+
+    /**
+     * Given the lease is held by another replica
+     * When the leased run is started
+     * Then no chapters are checked and no checkpoint is written
+     */
+    @Test
+    void testRunLeasedSkipsIfLeaseIsHeld() {
+        when(scheduleLeaseRepository.tryAcquire(eq(ChapterScheduler.JOB_NAME), anyString(), anyDouble())).thenReturn(0);
+
+        assertThat(chapterScheduler.runLeased(), is(0));
+
+        verify(chapterService, never()).checkChaptersThroughOutbox(any(LocalDate.class));
+        verify(scheduleCheckpointRepository, never()).save(any());
+        verify(scheduleLeaseRepository, never()).release(any(), any());
+    }
+
+    /**
+     * Given no checkpoint exists
+     * When the leased run is started
+     * Then only the current day is checked and checkpointed and the lease is released
+     */
+    @Test
+    void testRunLeasedWithoutCheckpoint() {
+        when(scheduleLeaseRepository.tryAcquire(eq(ChapterScheduler.JOB_NAME), anyString(), anyDouble())).thenReturn(1);
+        when(scheduleCheckpointRepository.findById(ChapterScheduler.JOB_NAME)).thenReturn(Optional.empty());
+
+        assertThat(chapterScheduler.runLeased(), is(1));
+
+        verify(chapterService).checkChaptersThroughOutbox(today);
+        verify(scheduleCheckpointRepository).save(checkpoint(today));
+        verify(scheduleLeaseRepository).release(eq(ChapterScheduler.JOB_NAME), anyString());
+    }
+
+    /**
+     * Given the last completed day is three days ago
+     * When the leased run is started
+     * Then the missed days and the current day are checked in order and each of them is checkpointed
+     */
+    @Test
+    void testRunLeasedCatchesUpMissedDays() {
+        when(scheduleLeaseRepository.tryAcquire(eq(ChapterScheduler.JOB_NAME), anyString(), anyDouble())).thenReturn(1);
+        when(scheduleCheckpointRepository.findById(ChapterScheduler.JOB_NAME))
+                .thenReturn(Optional.of(new ScheduleCheckpointEntity(ChapterScheduler.JOB_NAME,
+                        today.minusDays(3),
+                        OffsetDateTime.now())));
+
+        assertThat(chapterScheduler.runLeased(), is(3));
+
+        final var inOrder = inOrder(chapterService, scheduleCheckpointRepository);
+        for (int daysAgo = 2; daysAgo >= 0; daysAgo--) {
+            inOrder.verify(chapterService).checkChaptersThroughOutbox(today.minusDays(daysAgo));
+            inOrder.verify(scheduleCheckpointRepository).save(checkpoint(today.minusDays(daysAgo)));
+        }
+        verify(chapterService, never()).checkChaptersThroughOutbox(today.minusDays(3));
+    }
+
+    /**
+     * Given the current day has already been completed
+     * When the leased run is started
+     * Then no chapters are checked
+     */
+    @Test
+    void testRunLeasedAlreadyCompleted() {
+        when(scheduleLeaseRepository.tryAcquire(eq(ChapterScheduler.JOB_NAME), anyString(), anyDouble())).thenReturn(1);
+        when(scheduleCheckpointRepository.findById(ChapterScheduler.JOB_NAME))
+                .thenReturn(Optional.of(new ScheduleCheckpointEntity(ChapterScheduler.JOB_NAME,
+                        today,
+                        OffsetDateTime.now())));
+
+        assertThat(chapterScheduler.runLeased(), is(0));
+
+        verify(chapterService, never()).checkChaptersThroughOutbox(any(LocalDate.class));
+    }
+
+    /**
+     * Given the last completed day is older than the maximum number of catch-up days
+     * When the leased run is started
+     * Then only the days within the catch-up limit are checked
+     */
+    @Test
+    void testRunLeasedLimitsCatchUp() {
+        ReflectionTestUtils.setField(chapterScheduler, "maxCatchUpDays", 2);
+        when(scheduleLeaseRepository.tryAcquire(eq(ChapterScheduler.JOB_NAME), anyString(), anyDouble())).thenReturn(1);
+        when(scheduleCheckpointRepository.findById(ChapterScheduler.JOB_NAME))
+                .thenReturn(Optional.of(new ScheduleCheckpointEntity(ChapterScheduler.JOB_NAME,
+                        today.minusDays(30),
+                        OffsetDateTime.now())));
+
+        assertThat(chapterScheduler.runLeased(), is(3));
+
+        verify(chapterService).checkChaptersThroughOutbox(today.minusDays(2));
+        verify(chapterService).checkChaptersThroughOutbox(today.minusDays(1));
+        verify(chapterService).checkChaptersThroughOutbox(today);
+        verify(chapterService, times(3)).checkChaptersThroughOutbox(any(LocalDate.class));
+    }
+
+    /**
+     * Given a day that has not been completed
+     * When the leased run processes it
+     * Then its notifications are added to the outbox in the transaction that writes its checkpoint
+     */
+    @Test
+    void testRunLeasedCheckpointsDayInTransactionOfNotifications() {
+        when(scheduleLeaseRepository.tryAcquire(eq(ChapterScheduler.JOB_NAME), anyString(), anyDouble())).thenReturn(1);
+        when(scheduleCheckpointRepository.findById(ChapterScheduler.JOB_NAME))
+                .thenReturn(Optional.of(new ScheduleCheckpointEntity(ChapterScheduler.JOB_NAME,
+                        today.minusDays(1),
+                        OffsetDateTime.now())));
+        final List<Boolean> calledInTransaction = new ArrayList<>();
+        when(chapterService.checkChaptersThroughOutbox(today)).thenAnswer(invocation -> {
+            calledInTransaction.add(inTransaction.get());
+            return 1;
+        });
+        when(scheduleCheckpointRepository.save(any())).thenAnswer(invocation -> {
+            calledInTransaction.add(inTransaction.get());
+            return invocation.getArgument(0);
+        });
+
+        assertThat(chapterScheduler.runLeased(), is(1));
+
+        assertThat(calledInTransaction, contains(true, true));
+        verify(chapterService, never()).checkChapters(any(LocalDate.class));
+    }
+
+    /**
+     * Given the notifications of a day fail, e.g., because the replica is shut down while processing the day
+     * When the leased run processes it
+     * Then no checkpoint is written for the day, so that the next run processes it again, and the lease is released
+     */
+    @Test
+    void testRunLeasedDoesNotCheckpointFailedDay() {
+        when(scheduleLeaseRepository.tryAcquire(eq(ChapterScheduler.JOB_NAME), anyString(), anyDouble())).thenReturn(1);
+        when(scheduleCheckpointRepository.findById(ChapterScheduler.JOB_NAME))
+                .thenReturn(Optional.of(new ScheduleCheckpointEntity(ChapterScheduler.JOB_NAME,
+                        today.minusDays(1),
+                        OffsetDateTime.now())));
+        when(chapterService.checkChaptersThroughOutbox(today)).thenThrow(new IllegalStateException("Shutting down"));
+
+        assertThrows(IllegalStateException.class, chapterScheduler::runLeased);
+
+        verify(scheduleCheckpointRepository, never()).save(any());
+        verify(scheduleLeaseRepository).release(eq(ChapterScheduler.JOB_NAME), anyString());
+    }
+
+    /**
+     * Given the lease is lost after the first processed day
+     * When the leased run is started
+     * Then the run stops after the first day, so that the new owner continues from its checkpoint
+     */
+    @Test
+    void testRunLeasedStopsWhenLeaseIsLost() {
+        when(scheduleLeaseRepository.tryAcquire(eq(ChapterScheduler.JOB_NAME), anyString(), anyDouble()))
+                .thenReturn(1, 1, 0);
+        when(scheduleCheckpointRepository.findById(ChapterScheduler.JOB_NAME))
+                .thenReturn(Optional.of(new ScheduleCheckpointEntity(ChapterScheduler.JOB_NAME,
+                        today.minusDays(3),
+                        OffsetDateTime.now())));
+
+        assertThat(chapterScheduler.runLeased(), is(1));
+
+        verify(chapterService).checkChaptersThroughOutbox(today.minusDays(2));
+        verify(chapterService, times(1)).checkChaptersThroughOutbox(any(LocalDate.class));
+    }
+
+    /**
+     * Given the local scheduling mode
+     * When the scheduled job runs
+     * Then the current day is checked without using the lease
+     */
+    @Test
+    void testLocalMode() {
+        ReflectionTestUtils.setField(chapterScheduler, "mode", ChapterScheduler.Mode.LOCAL);
+
+        chapterScheduler.checkChapters();
+
+        verify(chapterService).checkChapters();
+        verifyNoInteractions(scheduleLeaseRepository, scheduleCheckpointRepository);
+    }
+
+    /**
+     * Given the queue scheduling mode
+     * When the scheduled job runs
+     * Then no chapters are checked, as the notifications are sent by the lifecycle event poller
+     */
+    @Test
+    void testQueueMode() {
+        ReflectionTestUtils.setField(chapterScheduler, "mode", ChapterScheduler.Mode.QUEUE);
+
+        chapterScheduler.checkChapters();
+        chapterScheduler.catchUpOnStartup();
+
+        verifyNoInteractions(chapterService, scheduleLeaseRepository, scheduleCheckpointRepository);
+    }
+
+    private static ScheduleCheckpointEntity checkpoint(final LocalDate day) {
+        return argThat(checkpoint -> checkpoint.getName().equals(ChapterScheduler.JOB_NAME)
+                                     && checkpoint.getLastCompletedDay().equals(day));
+    }
+}
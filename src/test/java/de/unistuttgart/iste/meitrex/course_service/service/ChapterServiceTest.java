@@ -4,23 +4,30 @@ import de.unistuttgart.iste.meitrex.common.dapr.TopicPublisher;
 import de.unistuttgart.iste.meitrex.common.event.CrudOperation;
 import de.unistuttgart.iste.meitrex.common.event.ServerSource;
 import de.unistuttgart.iste.meitrex.course_service.persistence.entity.ChapterEntity;
-import de.unistuttgart.iste.meitrex.course_service.persistence.entity.CourseEntity;
+import de.unistuttgart.iste.meitrex.course_service.persistence.entity.ChapterLifecycleEventEntity;
 import de.unistuttgart.iste.meitrex.course_service.persistence.mapper.ChapterMapper;
+import de.unistuttgart.iste.meitrex.course_service.persistence.mapper.ChapterMapperImpl;
+import de.unistuttgart.iste.meitrex.course_service.persistence.repository.ChapterLifecycleEventRepository;
 import de.unistuttgart.iste.meitrex.course_service.persistence.repository.ChapterRepository;
 import de.unistuttgart.iste.meitrex.course_service.persistence.validation.ChapterValidator;
 import de.unistuttgart.iste.meitrex.generated.dto.*;
 import jakarta.persistence.EntityNotFoundException;
 import jakarta.validation.ValidationException;
 import org.junit.jupiter.api.Test;
-import org.modelmapper.ModelMapper;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.time.*;
 import java.util.*;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.greaterThan;
 import static org.hamcrest.Matchers.is;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 
@@ -32,10 +39,13 @@ class ChapterServiceTest {
     private final ChapterRepository chapterRepository = mock(ChapterRepository.class);
     private final CourseService courseService = mock(CourseService.class);
     private final MembershipService membershipService = mock(MembershipService.class);
-    private final ChapterMapper chapterMapper = new ChapterMapper(new ModelMapper());
+    private final ChapterMapper chapterMapper = new ChapterMapperImpl();
     private final ChapterValidator chapterValidator = spy(new ChapterValidator());
 
     private final TopicPublisher topicPublisher = mock(TopicPublisher.class);
+    private final ChapterLifecycleEventRepository chapterLifecycleEventRepository =
+            mock(ChapterLifecycleEventRepository.class);
+    private final EventOutbox eventOutbox = mock(EventOutbox.class);
 
     private final ChapterService chapterService = new ChapterService(
             chapterMapper,
@@ -43,7 +53,9 @@ class ChapterServiceTest {
             courseService,
             membershipService,
             chapterValidator,
-            topicPublisher);
+            topicPublisher,
+            chapterLifecycleEventRepository,
+            eventOutbox);
 
     @Test
     void testGetChaptersByIdsMissingChapter() {
@@ -67,9 +79,7 @@ class ChapterServiceTest {
         final CreateChapterInput testCreateChapterInput = dummyCreateChapterInputBuilder().build();
         final ChapterEntity expectedChapter = dummyChapterEntityBuilder().build();
 
-        // mock repository and service
-        when(courseService.requireCourseExisting(any()))
-                .thenReturn(new CourseEntity()); // actual return value does not matter
+        // mock repository
         when(chapterRepository.save(any()))
                 .thenReturn(expectedChapter);
 
@@ -87,6 +97,7 @@ class ChapterServiceTest {
         // verify that the repository and validator were called
         verify(chapterValidator)
                 .validateCreateChapterInput(testCreateChapterInput);
+        verify(courseService).requireCourseStored(testCreateChapterInput.getCourseId());
         verify(chapterRepository, times(1))
                 .save(any(ChapterEntity.class));
     }
@@ -104,10 +115,6 @@ class ChapterServiceTest {
                 .setEndDate(OffsetDateTime.now())
                 .build();
 
-        // mock service
-        when(courseService.requireCourseExisting(any()))
-                .thenReturn(new CourseEntity()); // actual return value does not matter
-
         // act and assert
         assertThrows(ValidationException.class, () -> chapterService.createChapter(testCreateChapterInput));
 
@@ -129,7 +136,7 @@ class ChapterServiceTest {
                 .build();
 
         // mock service
-        doThrow(EntityNotFoundException.class).when(courseService).requireCourseExisting(any());
+        doThrow(EntityNotFoundException.class).when(courseService).requireCourseStored(any());
 
         // act and assert
         assertThrows(EntityNotFoundException.class, () -> chapterService.createChapter(testCreateChapterInput));
@@ -217,6 +224,7 @@ class ChapterServiceTest {
     void testDeleteChapterSuccessful() {
         // arrange test data
         final UUID testChapterId = UUID.randomUUID();
+        ReflectionTestUtils.setField(chapterService, "deletionMode", DeletionMode.HARD);
 
         // mock repository
         doNothing()
@@ -234,7 +242,7 @@ class ChapterServiceTest {
         verify(chapterRepository).deleteById(testChapterId);
 
         //verify notification method was called
-        verify(topicPublisher).notifyChapterChanges(List.of(testChapterId), CrudOperation.DELETE);
+        verify(eventOutbox).notifyChapterChanges(List.of(testChapterId), CrudOperation.DELETE);
     }
 
     /**
@@ -255,7 +263,140 @@ class ChapterServiceTest {
         assertThrows(EntityNotFoundException.class, () -> chapterService.deleteChapter(testChapterId));
 
         //verify notification method was NOT called
-        verify(topicPublisher, never()).notifyChapterChanges(List.of(testChapterId), CrudOperation.DELETE);
+        verify(eventOutbox, never()).notifyChapterChanges(List.of(testChapterId), CrudOperation.DELETE);
+    }
+
+    /**
+     * Given a ChapterId in the soft deletion mode
+     * When deleteChapter is called
+     * Then the chapter is only marked as deleted and no event is published yet
+     */
+    @Test
+    void testDeleteChapterSoft() {
+        // arrange test data
+        final UUID testChapterId = UUID.randomUUID();
+        ReflectionTestUtils.setField(chapterService, "deletionMode", DeletionMode.SOFT);
+
+        // mock repository
+        when(chapterRepository.markDeleted(eq(testChapterId), any())).thenReturn(1);
+
+        // act
+        final UUID deletedChapterId = chapterService.deleteChapter(testChapterId);
+
+        // assert
+        assertThat(deletedChapterId, is(testChapterId));
+        verify(chapterRepository, never()).deleteById(any());
+        verifyNoInteractions(eventOutbox);
+    }
+
+    /**
+     * Given a non-existing or already deleted ChapterId in the soft deletion mode
+     * When deleteChapter is called
+     * Then a EntityNotFoundException is thrown
+     */
+    @Test
+    void testDeleteChapterSoftNotExisting() {
+        // arrange test data
+        final UUID testChapterId = UUID.randomUUID();
+        ReflectionTestUtils.setField(chapterService, "deletionMode", DeletionMode.SOFT);
+
+        // mock repository
+        when(chapterRepository.markDeleted(eq(testChapterId), any())).thenReturn(0);
+
+        // act and assert
+        assertThrows(EntityNotFoundException.class, () -> chapterService.deleteChapter(testChapterId));
+    }
+
+    /**
+     * Given chapters that were marked as deleted before the grace period
+     * When purgeDeletedChapters is called
+     * Then the chapters are purged and a single deletion event is published for them
+     */
+    @Test
+    void testPurgeDeletedChapters() {
+        // arrange test data
+        final OffsetDateTime deletedBefore = OffsetDateTime.now();
+        final List<UUID> chapterIds = List.of(UUID.randomUUID(), UUID.randomUUID());
+
+        // mock repository
+        when(chapterRepository.lockDeletedChapterIds(deletedBefore, 10)).thenReturn(chapterIds);
+
+        // act and assert
+        assertThat(chapterService.purgeDeletedChapters(deletedBefore, 10), is(2));
+        verify(chapterRepository).deleteAllByIds(chapterIds);
+        verify(eventOutbox).notifyChapterChanges(chapterIds, CrudOperation.DELETE);
+    }
+
+    /**
+     * Given chapters of two different courses
+     * When getCoursesForChapters is called
+     * Then the courses are loaded with a single call and each chapter is mapped to its course
+     */
+    @Test
+    void testGetCoursesForChapters() {
+        // arrange test data
+        final Course course1 = Course.builder().setId(UUID.randomUUID()).setTitle("Course 1").build();
+        final Course course2 = Course.builder().setId(UUID.randomUUID()).setTitle("Course 2").build();
+        final Chapter chapter1 = Chapter.builder().setId(UUID.randomUUID()).setCourse(course1).build();
+        final Chapter chapter2 = Chapter.builder().setId(UUID.randomUUID()).setCourse(course1).build();
+        final Chapter chapter3 = Chapter.builder().setId(UUID.randomUUID()).setCourse(course2).build();
+
+        // mock service
+        when(courseService.getCoursesByIds(List.of(course1.getId(), course2.getId())))
+                .thenReturn(List.of(course1, course2));
+
+        // act
+        final Map<Chapter, Course> result = chapterService.getCoursesForChapters(List.of(chapter1, chapter2, chapter3));
+
+        // assert
+        assertThat(result.get(chapter1), is(course1));
+        assertThat(result.get(chapter2), is(course1));
+        assertThat(result.get(chapter3), is(course2));
+
+        // verify that the courses were loaded in a single call
+        verify(courseService, times(1)).getCoursesByIds(any());
+        verify(chapterRepository, never()).findById(any());
+    }
+
+    /**
+     * Given chapters of two courses and a pagination with a page size of 1
+     * When getChaptersOfCourses is called
+     * Then the chapters are fetched with a single query and paginated per course
+     */
+    @Test
+    void testGetChaptersOfCoursesPaginatesPerCourse() {
+        // arrange test data
+        final UUID courseId1 = UUID.randomUUID();
+        final UUID courseId2 = UUID.randomUUID();
+        final UUID courseWithoutChapters = UUID.randomUUID();
+        final ChapterEntity chapter1 = dummyChapterEntityBuilder().courseId(courseId1).number(1).build();
+        final ChapterEntity chapter2 = dummyChapterEntityBuilder().courseId(courseId1).number(2).build();
+        final ChapterEntity chapter3 = dummyChapterEntityBuilder().courseId(courseId2).number(1).build();
+
+        // mock repository
+        when(chapterRepository.findAll(any(Specification.class), any(Sort.class)))
+                .thenReturn(List.of(chapter1, chapter2, chapter3));
+
+        // act
+        final Map<UUID, ChapterPayload> result = chapterService.getChaptersOfCourses(
+                List.of(courseId1, courseId2, courseWithoutChapters),
+                null,
+                List.of("number"),
+                List.of(SortDirection.ASC),
+                Pagination.builder().setPage(0).setSize(1).build());
+
+        // assert
+        assertThat(result.get(courseId1).getElements(), hasSize(1));
+        assertThat(result.get(courseId1).getElements().get(0).getId(), is(chapter1.getId()));
+        assertThat(result.get(courseId1).getPagination().getTotalElements(), is(2));
+        assertThat(result.get(courseId1).getPagination().getHasNext(), is(true));
+        assertThat(result.get(courseId2).getElements(), hasSize(1));
+        assertThat(result.get(courseId2).getElements().get(0).getId(), is(chapter3.getId()));
+        assertThat(result.get(courseWithoutChapters).getElements(), hasSize(0));
+
+        // verify that a single query was executed
+        verify(chapterRepository, times(1)).findAll(any(Specification.class), any(Sort.class));
+        verify(courseService, never()).requireCourseExisting(any());
     }
 
     private static UpdateChapterInput.Builder dummyUpdateChapterInputBuilder(final UUID uuid) {
@@ -295,13 +436,13 @@ class ChapterServiceTest {
         var ms=mock(MembershipService.class);
         var val=mock(ChapterValidator.class);
         var pub=mock(TopicPublisher.class);
-        var s=new ChapterService(map,repo,course,ms,val,pub);
+        var s=new ChapterService(map,repo,course,ms,val,pub,mock(ChapterLifecycleEventRepository.class),mock(EventOutbox.class));
         UUID cid=UUID.randomUUID(), chid=UUID.randomUUID();
         var ch=ChapterEntity.builder().id(chid).courseId(cid).title("Intro").build();
-        when(repo.findChaptersToUnlock(any())).thenReturn(List.of(ch));
-        when(repo.findChaptersToLock(any())).thenReturn(List.of());
-        var dto=new Course(); dto.setTitle("CS101"); when(course.getCourseById(cid)).thenReturn(dto);
-        var users=List.of(UUID.randomUUID()); when(ms.getUserIdsOfCourse(cid)).thenReturn(users);
+        when(repo.findChaptersToUnlock(any(), any())).thenReturn(List.of(ch));
+        when(repo.findChaptersToLock(any(), any())).thenReturn(List.of());
+        var dto=new Course(); dto.setId(cid); dto.setTitle("CS101"); when(course.getCoursesByIds(List.of(cid))).thenReturn(List.of(dto));
+        var users=List.of(UUID.randomUUID()); when(ms.getUserIdsOfCourses(List.of(cid))).thenReturn(Map.of(cid, users));
         s.checkChapters();
         verify(pub).notificationEvent(eq(cid), eq(users), eq(ServerSource.CHAPTER),
                 eq("/courses/"+cid+"/chapters/"+chid), eq("New Chapter Unlocked!"),
@@ -315,16 +456,277 @@ class ChapterServiceTest {
         var ms=mock(MembershipService.class);
         var val=mock(ChapterValidator.class);
         var pub=mock(TopicPublisher.class);
-        var s=new ChapterService(map,repo,course,ms,val,pub);
+        var s=new ChapterService(map,repo,course,ms,val,pub,mock(ChapterLifecycleEventRepository.class),mock(EventOutbox.class));
         UUID cid=UUID.randomUUID(), chid=UUID.randomUUID();
         var ch=ChapterEntity.builder().id(chid).courseId(cid).title("Intro").build();
-        when(repo.findChaptersToUnlock(any())).thenReturn(List.of());
-        when(repo.findChaptersToLock(any())).thenReturn(List.of(ch));
-        var dto=new Course(); dto.setTitle("CS101"); when(course.getCourseById(cid)).thenReturn(dto);
-        var users=List.of(UUID.randomUUID()); when(ms.getUserIdsOfCourse(cid)).thenReturn(users);
+        when(repo.findChaptersToUnlock(any(), any())).thenReturn(List.of());
+        when(repo.findChaptersToLock(any(), any())).thenReturn(List.of(ch));
+        var dto=new Course(); dto.setId(cid); dto.setTitle("CS101"); when(course.getCoursesByIds(List.of(cid))).thenReturn(List.of(dto));
+        var users=List.of(UUID.randomUUID()); when(ms.getUserIdsOfCourses(List.of(cid))).thenReturn(Map.of(cid, users));
         s.checkChapters();
         verify(pub).notificationEvent(eq(cid), eq(users), eq(ServerSource.CHAPTER),
                 eq("/courses/"+cid+"/chapters/"+chid), eq("An Old Chapter Locked"),
                 eq("CS101's Chapter Intro is locked"));
     }
+
+    /**
+     * Given chapters of the same course that unlock and lock today and a course with more members than the batch size
+     * When checkChapters is called
+     * Then the course and its members are loaded once and the members are notified in batches
+     */
+    @Test
+    void testCheckChaptersBatchesNotifications() {
+        // arrange test data
+        final UUID courseId = UUID.randomUUID();
+        final ChapterEntity unlockedChapter = dummyChapterEntityBuilder().courseId(courseId).title("Unlocked").build();
+        final ChapterEntity lockedChapter = dummyChapterEntityBuilder().courseId(courseId).title("Locked").build();
+        final List<UUID> users = List.of(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID());
+        ReflectionTestUtils.setField(chapterService, "notificationBatchSize", 2);
+
+        // mock repository and services
+        when(chapterRepository.findChaptersToUnlock(any(), any())).thenReturn(List.of(unlockedChapter));
+        when(chapterRepository.findChaptersToLock(any(), any())).thenReturn(List.of(lockedChapter));
+        when(courseService.getCoursesByIds(List.of(courseId)))
+                .thenReturn(List.of(Course.builder().setId(courseId).setTitle("CS101").build()));
+        when(membershipService.getUserIdsOfCourses(List.of(courseId))).thenReturn(Map.of(courseId, users));
+
+        // act
+        final int publishedEvents = chapterService.checkChapters(OffsetDateTime.now(), OffsetDateTime.now().plusDays(1));
+
+        // assert
+        assertThat(publishedEvents, is(4));
+        verify(topicPublisher).notificationEvent(eq(courseId), eq(users.subList(0, 2)), eq(ServerSource.CHAPTER),
+                any(), eq("New Chapter Unlocked!"), eq("CS101's Chapter Unlocked is unlocked"));
+        verify(topicPublisher).notificationEvent(eq(courseId), eq(users.subList(2, 3)), eq(ServerSource.CHAPTER),
+                any(), eq("New Chapter Unlocked!"), eq("CS101's Chapter Unlocked is unlocked"));
+        verify(topicPublisher, times(2)).notificationEvent(eq(courseId), any(), eq(ServerSource.CHAPTER),
+                any(), eq("An Old Chapter Locked"), eq("CS101's Chapter Locked is locked"));
+
+        // verify that courses and members were loaded once
+        verify(courseService, times(1)).getCoursesByIds(any());
+        verify(membershipService, times(1)).getUserIdsOfCourses(any());
+        verify(courseService, never()).getCourseById(any());
+    }
+
+    /**
+     * Given chapters that unlock and lock today in a course without members
+     * When checkChapters is called
+     * Then no notification is published
+     */
+    @Test
+    void testCheckChaptersCourseWithoutMembers() {
+        // arrange test data
+        final UUID courseId = UUID.randomUUID();
+        final ChapterEntity unlockedChapter = dummyChapterEntityBuilder().courseId(courseId).title("Unlocked").build();
+        final ChapterEntity lockedChapter = dummyChapterEntityBuilder().courseId(courseId).title("Locked").build();
+
+        // mock repository and services, the course has no entry in the members map
+        when(chapterRepository.findChaptersToUnlock(any(), any())).thenReturn(List.of(unlockedChapter));
+        when(chapterRepository.findChaptersToLock(any(), any())).thenReturn(List.of(lockedChapter));
+        when(courseService.getCoursesByIds(List.of(courseId)))
+                .thenReturn(List.of(Course.builder().setId(courseId).setTitle("CS101").build()));
+        when(membershipService.getUserIdsOfCourses(List.of(courseId))).thenReturn(Map.of());
+
+        // act
+        final int publishedEvents = chapterService.checkChapters(OffsetDateTime.now(), OffsetDateTime.now().plusDays(1));
+
+        // assert
+        assertThat(publishedEvents, is(0));
+        verifyNoInteractions(topicPublisher);
+    }
+
+    /**
+     * Given a chapter that unlocks on a day
+     * When checkChaptersThroughOutbox is called for the day
+     * Then the notification is added to the outbox instead of being published
+     */
+    @Test
+    void testCheckChaptersThroughOutboxAddsNotificationsToOutbox() {
+        // arrange test data
+        final UUID courseId = UUID.randomUUID();
+        final ChapterEntity unlockedChapter = dummyChapterEntityBuilder().courseId(courseId).title("Unlocked").build();
+        final List<UUID> users = List.of(UUID.randomUUID());
+
+        // mock repository and services
+        when(chapterRepository.findChaptersToUnlock(any(), any())).thenReturn(List.of(unlockedChapter));
+        when(chapterRepository.findChaptersToLock(any(), any())).thenReturn(List.of());
+        when(courseService.getCoursesByIds(List.of(courseId)))
+                .thenReturn(List.of(Course.builder().setId(courseId).setTitle("CS101").build()));
+        when(membershipService.getUserIdsOfCourses(List.of(courseId))).thenReturn(Map.of(courseId, users));
+
+        // act
+        final LocalDate day = LocalDate.now();
+        final int addedEvents = chapterService.checkChaptersThroughOutbox(day);
+
+        // assert
+        assertThat(addedEvents, is(1));
+        verify(eventOutbox).notifyChapterNotification(new EventOutbox.ChapterNotification(courseId, users,
+                "/courses/" + courseId + "/chapters/" + unlockedChapter.getId(), "New Chapter Unlocked!",
+                "CS101's Chapter Unlocked is unlocked"));
+        verifyNoInteractions(topicPublisher);
+        // the lifecycle events covered by the notifications are removed
+        verify(chapterLifecycleEventRepository)
+                .deleteDueBefore(day.plusDays(1).atStartOfDay(ZoneId.systemDefault()).toOffsetDateTime());
+    }
+
+    /**
+     * Given no chapters that unlock or lock on a day
+     * When checkChapters is called for the day
+     * Then the lifecycle events due until the end of the day are removed, as the daily run covers them
+     */
+    @Test
+    void testCheckChaptersOfDayRemovesCoveredLifecycleEvents() {
+        when(chapterRepository.findChaptersToUnlock(any(), any())).thenReturn(List.of());
+        when(chapterRepository.findChaptersToLock(any(), any())).thenReturn(List.of());
+
+        final LocalDate day = LocalDate.of(2024, 3, 31);
+        chapterService.checkChapters(day);
+
+        verify(chapterLifecycleEventRepository)
+                .deleteDueBefore(day.plusDays(1).atStartOfDay(ZoneId.systemDefault()).toOffsetDateTime());
+    }
+
+    /**
+     * Given a CreateChapterInput with a start and end date in the future
+     * When createChapter is called
+     * Then an unlock and a lock event are added to the lifecycle event queue
+     */
+    @Test
+    void testCreateChapterSchedulesLifecycleEvents() {
+        // arrange test data
+        final OffsetDateTime startDate = OffsetDateTime.now().plusDays(1);
+        final OffsetDateTime endDate = OffsetDateTime.now().plusDays(8);
+        final CreateChapterInput testCreateChapterInput = dummyCreateChapterInputBuilder()
+                .setStartDate(startDate)
+                .setEndDate(endDate)
+                .build();
+        final ChapterEntity expectedChapter = dummyChapterEntityBuilder()
+                .startDate(startDate)
+                .endDate(endDate)
+                .build();
+
+        // mock repository
+        when(chapterRepository.save(any()))
+                .thenReturn(expectedChapter);
+
+        // act
+        chapterService.createChapter(testCreateChapterInput);
+
+        // assert
+        verify(chapterLifecycleEventRepository).saveAll(List.of(
+                new ChapterLifecycleEventEntity(expectedChapter.getId(), ChapterLifecycleEventEntity.Kind.UNLOCK, startDate),
+                new ChapterLifecycleEventEntity(expectedChapter.getId(), ChapterLifecycleEventEntity.Kind.LOCK, endDate)));
+    }
+
+    /**
+     * Given due unlock and lock events, one of them of a chapter that no longer exists
+     * When processDueLifecycleEvents is called
+     * Then the members of the course of the existing chapter are notified and all events are removed from the queue
+     */
+    @Test
+    void testProcessDueLifecycleEvents() {
+        // arrange test data
+        final UUID courseId = UUID.randomUUID();
+        final ChapterEntity chapter = dummyChapterEntityBuilder().courseId(courseId).title("Intro").build();
+        final UUID deletedChapterId = UUID.randomUUID();
+        final List<ChapterLifecycleEventEntity> events = List.of(
+                new ChapterLifecycleEventEntity(chapter.getId(), ChapterLifecycleEventEntity.Kind.UNLOCK, OffsetDateTime.now()),
+                new ChapterLifecycleEventEntity(deletedChapterId, ChapterLifecycleEventEntity.Kind.LOCK, OffsetDateTime.now()));
+        final List<UUID> users = List.of(UUID.randomUUID());
+
+        // mock repositories and services
+        when(chapterLifecycleEventRepository.lockDueEvents(any(), eq(10))).thenReturn(events);
+        when(chapterRepository.findAllById(List.of(chapter.getId(), deletedChapterId))).thenReturn(List.of(chapter));
+        when(courseService.getCoursesByIds(List.of(courseId)))
+                .thenReturn(List.of(Course.builder().setId(courseId).setTitle("CS101").build()));
+        when(membershipService.getUserIdsOfCourses(List.of(courseId))).thenReturn(Map.of(courseId, users));
+
+        // act
+        final int processedEvents = chapterService.processDueLifecycleEvents(10);
+
+        // assert
+        assertThat(processedEvents, is(2));
+        verify(topicPublisher).notificationEvent(eq(courseId), eq(users), eq(ServerSource.CHAPTER),
+                eq("/courses/" + courseId + "/chapters/" + chapter.getId()), eq("New Chapter Unlocked!"),
+                eq("CS101's Chapter Intro is unlocked"));
+        verifyNoMoreInteractions(topicPublisher);
+        verify(chapterLifecycleEventRepository).deleteAll(events);
+    }
+
+    /**
+     * Given due events of two courses, one of which cannot be found
+     * When processDueLifecycleEvents is called
+     * Then the members of the other course are notified and the events of the missing course are due again later
+     */
+    @Test
+    void testProcessDueLifecycleEventsRetriesEventsOfFailedCourse() {
+        // arrange test data
+        final UUID courseId = UUID.randomUUID();
+        final UUID missingCourseId = UUID.randomUUID();
+        final ChapterEntity chapter = dummyChapterEntityBuilder().courseId(courseId).title("Intro").build();
+        final ChapterEntity chapterOfMissingCourse = dummyChapterEntityBuilder().courseId(missingCourseId).build();
+        final OffsetDateTime dueAt = OffsetDateTime.now();
+        final ChapterLifecycleEventEntity event =
+                new ChapterLifecycleEventEntity(chapter.getId(), ChapterLifecycleEventEntity.Kind.UNLOCK, dueAt);
+        final ChapterLifecycleEventEntity failingEvent =
+                new ChapterLifecycleEventEntity(chapterOfMissingCourse.getId(), ChapterLifecycleEventEntity.Kind.LOCK, dueAt);
+        final List<UUID> users = List.of(UUID.randomUUID());
+
+        // mock repositories and services
+        when(chapterLifecycleEventRepository.lockDueEvents(any(), eq(10))).thenReturn(List.of(event, failingEvent));
+        when(chapterRepository.findAllById(List.of(chapter.getId(), chapterOfMissingCourse.getId())))
+                .thenReturn(List.of(chapter, chapterOfMissingCourse));
+        when(courseService.getCoursesByIds(List.of(courseId, missingCourseId)))
+                .thenThrow(new EntityNotFoundException("Course not found"));
+        when(courseService.getCourseById(courseId)).thenReturn(Course.builder().setId(courseId).setTitle("CS101").build());
+        when(courseService.getCourseById(missingCourseId)).thenThrow(new EntityNotFoundException("Course not found"));
+        when(membershipService.getUserIdsOfCourses(List.of(courseId))).thenReturn(Map.of(courseId, users));
+
+        // act
+        final int processedEvents = chapterService.processDueLifecycleEvents(10);
+
+        // assert
+        assertThat(processedEvents, is(2));
+        verify(topicPublisher).notificationEvent(eq(courseId), eq(users), eq(ServerSource.CHAPTER),
+                eq("/courses/" + courseId + "/chapters/" + chapter.getId()), eq("New Chapter Unlocked!"),
+                eq("CS101's Chapter Intro is unlocked"));
+        verifyNoMoreInteractions(topicPublisher);
+        verify(chapterLifecycleEventRepository).deleteAll(List.of(event));
+        verify(chapterLifecycleEventRepository).saveAll(List.of(failingEvent));
+        assertThat(failingEvent.getAttempts(), is(1));
+        assertThat(failingEvent.getDueAt(), is(greaterThan(dueAt)));
+    }
+
+    /**
+     * Given a due event that already failed as often as allowed
+     * When processDueLifecycleEvents is called and it fails again
+     * Then the event is dropped
+     */
+    @Test
+    void testProcessDueLifecycleEventsDropsEventAfterMaxAttempts() {
+        // arrange test data
+        final UUID courseId = UUID.randomUUID();
+        final ChapterEntity chapter = dummyChapterEntityBuilder().courseId(courseId).build();
+        final ChapterLifecycleEventEntity event = ChapterLifecycleEventEntity.builder()
+                .chapterId(chapter.getId())
+                .kind(ChapterLifecycleEventEntity.Kind.UNLOCK)
+                .dueAt(OffsetDateTime.now())
+                .attempts(4)
+                .build();
+        ReflectionTestUtils.setField(chapterService, "lifecycleMaxAttempts", 5);
+
+        // mock repositories and services
+        when(chapterLifecycleEventRepository.lockDueEvents(any(), eq(10))).thenReturn(List.of(event));
+        when(chapterRepository.findAllById(List.of(chapter.getId()))).thenReturn(List.of(chapter));
+        when(courseService.getCoursesByIds(List.of(courseId))).thenThrow(new EntityNotFoundException("Course not found"));
+        when(courseService.getCourseById(courseId)).thenThrow(new EntityNotFoundException("Course not found"));
+
+        // act
+        chapterService.processDueLifecycleEvents(10);
+
+        // assert
+        verifyNoInteractions(topicPublisher);
+        verify(chapterLifecycleEventRepository).deleteAll(List.of(event));
+        verify(chapterLifecycleEventRepository, never()).saveAll(any());
+    }
 }
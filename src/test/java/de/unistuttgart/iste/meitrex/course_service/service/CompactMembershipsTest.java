@@ -0,0 +1,97 @@
+package de.unistuttgart.iste.meitrex.course_service.service;
+
+import de.unistuttgart.iste.meitrex.course_service.persistence.entity.CourseMembershipEntity;
+import de.unistuttgart.iste.meitrex.generated.dto.UserRoleInCourse;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * Unit tests for {@link CompactMemberships}.
+ */
+class CompactMembershipsTest {
+
+    /**
+     * Given memberships in unsorted order
+     * When they are stored compactly
+     * Then the ids are sorted and every role can be looked up by its id
+     */
+    @Test
+    void testCompactMembershipsAreSortedAndSearchable() {
+        final UUID courseId = UUID.randomUUID();
+        final List<CourseMembershipEntity> entities = IntStream.range(0, 50)
+                .mapToObj(i -> new CourseMembershipEntity(UUID.randomUUID(), courseId,
+                        UserRoleInCourse.values()[i % UserRoleInCourse.values().length]))
+                .toList();
+
+        final CompactMemberships memberships =
+                CompactMemberships.of(entities, CourseMembershipEntity::getUserId);
+
+        assertThat(memberships.size(), is(50));
+        final List<UUID> sortedIds = new ArrayList<>(memberships.getIds());
+        sortedIds.sort(Comparator.comparing(UUID::getMostSignificantBits)
+                .thenComparing(UUID::getLeastSignificantBits));
+        assertThat(memberships.getIds(), is(sortedIds));
+        for (final CourseMembershipEntity entity : entities) {
+            assertThat(memberships.getRole(entity.getUserId()), is(entity.getRole()));
+        }
+        assertThat(memberships.getRole(UUID.randomUUID()), is(nullValue()));
+    }
+
+    /**
+     * Given compactly stored memberships
+     * When memberships are added, changed and removed
+     * Then copies with the changes are returned and the original is unchanged
+     */
+    @Test
+    void testCompactMembershipsWith() {
+        final UUID courseId = UUID.randomUUID();
+        final UUID userId = UUID.randomUUID();
+        final UUID otherUserId = UUID.randomUUID();
+        final CompactMemberships memberships = CompactMemberships.of(
+                List.of(new CourseMembershipEntity(userId, courseId, UserRoleInCourse.STUDENT)),
+                CourseMembershipEntity::getUserId);
+
+        final CompactMemberships added = memberships.with(otherUserId, UserRoleInCourse.TUTOR);
+        assertThat(added.getIds(), containsInAnyOrder(userId, otherUserId));
+        assertThat(added.getRole(otherUserId), is(UserRoleInCourse.TUTOR));
+
+        final CompactMemberships changed = added.with(userId, UserRoleInCourse.ADMINISTRATOR);
+        assertThat(changed.getRole(userId), is(UserRoleInCourse.ADMINISTRATOR));
+        assertThat(added.getRole(userId), is(UserRoleInCourse.STUDENT));
+
+        final CompactMemberships removed = changed.with(otherUserId, null);
+        assertThat(removed.getIds(), contains(userId));
+        assertThat(removed.with(otherUserId, null), is(sameInstance(removed)));
+        assertThat(memberships.getIds(), contains(userId));
+    }
+
+    /**
+     * Given a membership without a role, which the nullable role column allows
+     * When it is stored compactly
+     * Then it is kept and its role is null
+     */
+    @Test
+    void testCompactMembershipsWithoutRole() {
+        final UUID courseId = UUID.randomUUID();
+        final UUID userId = UUID.randomUUID();
+        final UUID otherUserId = UUID.randomUUID();
+
+        final CompactMemberships memberships = CompactMemberships.of(List.of(
+                        new CourseMembershipEntity(userId, courseId, null),
+                        new CourseMembershipEntity(otherUserId, courseId, UserRoleInCourse.STUDENT)),
+                CourseMembershipEntity::getUserId);
+
+        assertThat(memberships.getIds(), containsInAnyOrder(userId, otherUserId));
+        assertThat(memberships.getRole(userId), is(nullValue()));
+        assertThat(memberships.getRole(memberships.getIds().indexOf(userId)), is(nullValue()));
+        assertThat(memberships.getRole(otherUserId), is(UserRoleInCourse.STUDENT));
+    }
+}
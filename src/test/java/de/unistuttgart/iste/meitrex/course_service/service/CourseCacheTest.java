@@ -0,0 +1,149 @@
+package de.unistuttgart.iste.meitrex.course_service.service;
+
+import de.unistuttgart.iste.meitrex.course_service.persistence.entity.CourseEntity;
+import de.unistuttgart.iste.meitrex.course_service.persistence.mapper.CourseMapperImpl;
+import de.unistuttgart.iste.meitrex.course_service.persistence.repository.CourseRepository;
+import de.unistuttgart.iste.meitrex.generated.dto.Course;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityNotFoundException;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for {@link CourseCache}.
+ */
+class CourseCacheTest {
+
+    private final CourseRepository courseRepository = mock(CourseRepository.class);
+    private final EventOutbox eventOutbox = mock(EventOutbox.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final CourseCache courseCache = new CourseCache(courseRepository,
+            new CourseMapperImpl(),
+            eventOutbox,
+            meterRegistry,
+            100,
+            Duration.ofMinutes(10));
+
+    /**
+     * Given an existing course
+     * When it is looked up twice
+     * Then the database is only queried once and the second lookup is counted as a hit
+     */
+    @Test
+    void testRepeatedLookupIsServedFromCache() {
+        final CourseEntity entity = dummyCourseEntity();
+        when(courseRepository.findById(entity.getId())).thenReturn(Optional.of(entity));
+
+        final Optional<Course> first = courseCache.getCourse(entity.getId());
+        final Optional<Course> second = courseCache.getCourse(entity.getId());
+
+        assertThat(first.map(Course::getTitle), is(Optional.of(entity.getTitle())));
+        assertThat(second.orElseThrow(), is(sameInstance(first.orElseThrow())));
+        verify(courseRepository, times(1)).findById(entity.getId());
+
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "course").tag("result", "hit")
+                .functionCounter().count(), is(1.0));
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "course").tag("result", "miss")
+                .functionCounter().count(), is(1.0));
+    }
+
+    /**
+     * Given a course that does not exist
+     * When it is looked up twice
+     * Then no course is returned and the absence is not cached
+     */
+    @Test
+    void testMissingCourseIsNotCached() {
+        final UUID courseId = UUID.randomUUID();
+        when(courseRepository.findById(courseId)).thenReturn(Optional.empty());
+
+        assertThat(courseCache.getCourse(courseId), is(Optional.empty()));
+        assertThat(courseCache.getCourse(courseId), is(Optional.empty()));
+
+        verify(courseRepository, times(2)).findById(courseId);
+    }
+
+    /**
+     * Given one cached and one uncached course
+     * When both are looked up together
+     * Then only the uncached course is loaded and the courses are returned in the order of the ids
+     */
+    @Test
+    void testGetCoursesLoadsOnlyMissingCourses() {
+        final CourseEntity cached = dummyCourseEntity();
+        final CourseEntity uncached = dummyCourseEntity();
+        when(courseRepository.findById(cached.getId())).thenReturn(Optional.of(cached));
+        when(courseRepository.findAllById(List.of(uncached.getId()))).thenReturn(List.of(uncached));
+        courseCache.getCourse(cached.getId());
+
+        final List<Course> courses = courseCache.getCourses(List.of(uncached.getId(), cached.getId()));
+
+        assertThat(courses.stream().map(Course::getId).toList(), contains(uncached.getId(), cached.getId()));
+        verify(courseRepository).findAllById(List.of(uncached.getId()));
+    }
+
+    /**
+     * Given an id of a course that does not exist
+     * When it is looked up together with an existing course
+     * Then an EntityNotFoundException is thrown
+     */
+    @Test
+    void testGetCoursesWithMissingCourse() {
+        final CourseEntity entity = dummyCourseEntity();
+        when(courseRepository.findAllById(any())).thenReturn(List.of(entity));
+
+        final List<UUID> ids = List.of(entity.getId(), UUID.randomUUID());
+        assertThrows(EntityNotFoundException.class, () -> courseCache.getCourses(ids));
+    }
+
+    /**
+     * Given a cached course
+     * When it is invalidated in a transaction
+     * Then it is evicted, evicted again after the commit, and an invalidation message is added to the outbox
+     */
+    @Test
+    void testInvalidate() {
+        final CourseEntity entity = dummyCourseEntity();
+        when(courseRepository.findById(entity.getId())).thenReturn(Optional.of(entity));
+        courseCache.getCourse(entity.getId());
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            courseCache.invalidate(entity.getId());
+            courseCache.getCourse(entity.getId());
+            verify(courseRepository, times(2)).findById(entity.getId());
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        courseCache.getCourse(entity.getId());
+        verify(courseRepository, times(3)).findById(entity.getId());
+        verify(eventOutbox).notifyCourseCacheInvalidated(new CourseCache.Invalidation(entity.getId()));
+    }
+
+    private static CourseEntity dummyCourseEntity() {
+        return CourseEntity.builder()
+                .id(UUID.randomUUID())
+                .title("title")
+                .description("description")
+                .startDate(OffsetDateTime.parse("2021-01-01T00:00:00Z"))
+                .endDate(OffsetDateTime.parse("2021-01-01T00:00:00Z"))
+                .build();
+    }
+}
@@ -1,12 +1,11 @@
 package de.unistuttgart.iste.meitrex.course_service.service;
 
-import de.unistuttgart.iste.meitrex.common.dapr.TopicPublisher;
 import de.unistuttgart.iste.meitrex.common.event.CrudOperation;
 import de.unistuttgart.iste.meitrex.common.event.ServerSource;
-import de.unistuttgart.iste.meitrex.course_service.persistence.entity.ChapterEntity;
 import de.unistuttgart.iste.meitrex.course_service.persistence.entity.CourseEntity;
 import de.unistuttgart.iste.meitrex.course_service.persistence.mapper.ChapterMapper;
 import de.unistuttgart.iste.meitrex.course_service.persistence.mapper.CourseMapper;
+import de.unistuttgart.iste.meitrex.course_service.persistence.mapper.CourseMapperImpl;
 import de.unistuttgart.iste.meitrex.course_service.persistence.repository.ChapterRepository;
 import de.unistuttgart.iste.meitrex.course_service.persistence.repository.CourseRepository;
 import de.unistuttgart.iste.meitrex.course_service.persistence.validation.ChapterValidator;
@@ -16,7 +15,7 @@ import jakarta.persistence.EntityNotFoundException;
 import jakarta.validation.ValidationException;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
-import org.modelmapper.ModelMapper;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.time.OffsetDateTime;
 import java.util.*;
@@ -25,6 +24,7 @@ import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.is;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 /**
@@ -33,13 +33,15 @@ import static org.mockito.Mockito.*;
 class CourseServiceTest {
 
     private final CourseRepository courseRepository = Mockito.mock(CourseRepository.class);
-    private final CourseMapper courseMapper = new CourseMapper(new ModelMapper());
+    private final ChapterRepository chapterRepository = Mockito.mock(ChapterRepository.class);
+    private final CourseMapper courseMapper = new CourseMapperImpl();
     private final CourseValidator courseValidator = Mockito.spy(CourseValidator.class);
-    private final TopicPublisher topicPublisher = Mockito.mock(TopicPublisher.class);
+    private final EventOutbox eventOutbox = Mockito.mock(EventOutbox.class);
+    private final CourseCache courseCache = Mockito.mock(CourseCache.class);
 
     private final MembershipService membershipService = Mockito.mock(MembershipService.class);
 
-    private final CourseService courseService = new CourseService(courseRepository, membershipService, courseMapper, courseValidator, topicPublisher);
+    private final CourseService courseService = new CourseService(courseRepository, chapterRepository, membershipService, courseMapper, courseValidator, eventOutbox, courseCache);
 
     /**
      * Given a valid CreateCourseInput
@@ -150,8 +152,8 @@ class CourseServiceTest {
         // mock repository
         doReturn(expectedCourseEntity)
                 .when(courseRepository).save(any(CourseEntity.class));
-        doReturn(Optional.of(expectedCourseEntity))
-                .when(courseRepository).findById(any(UUID.class));
+        doReturn(true)
+                .when(courseRepository).existsById(expectedCourseEntity.getId());
 
         // act
         final Course actualCourse = courseService.updateCourse(input);
@@ -166,6 +168,7 @@ class CourseServiceTest {
         // verify
         verify(courseValidator).validateUpdateCourseInput(input);
         verify(courseRepository, times(1)).save(any(CourseEntity.class));
+        verify(courseCache).invalidate(expectedCourseEntity.getId());
     }
 
     /**
@@ -201,11 +204,13 @@ class CourseServiceTest {
     @Test
     void testDeleteCourseSuccessful() {
         // arrange
+        ReflectionTestUtils.setField(courseService, "deletionMode", DeletionMode.HARD);
         final CourseEntity entity = dummyCourseEntityBuilder().build();
+        final List<UUID> chapterIds = List.of(UUID.randomUUID(), UUID.randomUUID());
 
         // mock repository
-        when(courseRepository.findById(entity.getId())).thenReturn(Optional.of(entity));
-        entity.setChapters(List.of(dummyChapterBuilder(entity.getId()), dummyChapterBuilder(entity.getId())));
+        when(courseRepository.deleteCourseById(entity.getId())).thenReturn(1);
+        when(chapterRepository.lockIdsByCourseId(entity.getId())).thenReturn(chapterIds);
 
         // act
         final UUID actualId = courseService.deleteCourse(entity.getId());
@@ -213,14 +218,14 @@ class CourseServiceTest {
         // assert
         assertThat(actualId, is(entity.getId()));
 
-        // verify
-        verify(courseRepository).delete(entity);
-        verify(topicPublisher).notifyCourseChanges(entity.getId(), CrudOperation.DELETE);
-        verify(topicPublisher).notifyChapterChanges(entity.getChapters()
-                .stream()
-                .map(ChapterEntity::getId)
-                .toList(), CrudOperation.DELETE);
-
+        // verify that the course, its memberships and chapters are deleted without loading them
+        verify(courseRepository).deleteCourseById(entity.getId());
+        verify(membershipService).deleteMembershipByCourseId(entity.getId());
+        verify(chapterRepository).deleteAllByIds(chapterIds);
+        verify(courseRepository, never()).findById(any());
+        verify(eventOutbox).notifyCourseChanges(entity.getId(), CrudOperation.DELETE);
+        verify(eventOutbox).notifyChapterChanges(chapterIds, CrudOperation.DELETE);
+        verify(courseCache).invalidate(entity.getId());
     }
 
     /**
@@ -242,24 +247,76 @@ class CourseServiceTest {
         // we do not care if the repository was called
     }
 
+    /**
+     * Given a valid CourseId in the soft deletion mode
+     * When deleteCourse is called
+     * Then the course and its chapters are only marked as deleted and no events are published yet
+     */
+    @Test
+    void testDeleteCourseSoft() {
+        // arrange
+        ReflectionTestUtils.setField(courseService, "deletionMode", DeletionMode.SOFT);
+        final UUID id = UUID.randomUUID();
+
+        // mock repository
+        when(courseRepository.markDeleted(eq(id), any())).thenReturn(1);
+
+        // act
+        final UUID actualId = courseService.deleteCourse(id);
+
+        // assert
+        assertThat(actualId, is(id));
+        verify(chapterRepository).markDeletedByCourseId(eq(id), any());
+        verify(courseRepository, never()).deleteCourseById(any());
+        verifyNoInteractions(membershipService, eventOutbox);
+        verify(courseCache).invalidate(id);
+    }
+
+    /**
+     * Given courses that were marked as deleted before the grace period
+     * When purgeDeletedCourses is called
+     * Then each course is purged with its memberships and chapters and the deletion events are published
+     */
+    @Test
+    void testPurgeDeletedCourses() {
+        // arrange
+        final OffsetDateTime deletedBefore = OffsetDateTime.now();
+        final UUID courseId = UUID.randomUUID();
+        final List<UUID> chapterIds = List.of(UUID.randomUUID());
+
+        // mock repository
+        when(courseRepository.lockDeletedCourseIds(deletedBefore, 10)).thenReturn(List.of(courseId));
+        when(courseRepository.deleteCourseById(courseId)).thenReturn(1);
+        when(chapterRepository.lockIdsByCourseId(courseId)).thenReturn(chapterIds);
+
+        // act and assert
+        assertThat(courseService.purgeDeletedCourses(deletedBefore, 10), is(1));
+
+        verify(membershipService).deleteMembershipByCourseId(courseId);
+        verify(chapterRepository).deleteAllByIds(chapterIds);
+        verify(eventOutbox).notifyCourseChanges(courseId, CrudOperation.DELETE);
+        verify(eventOutbox).notifyChapterChanges(chapterIds, CrudOperation.DELETE);
+    }
+
     /**
      * Given a valid CourseId
      * When requireCourseExisting is called
-     * Then no exception is thrown
+     * Then the course is returned from the course cache
      */
     @Test
     void testRequireCourseExisting() {
         // arrange
-        final CourseEntity entity = dummyCourseEntityBuilder().build();
+        final Course course = courseMapper.entityToDto(dummyCourseEntityBuilder().build());
 
-        // mock repository
-        doReturn(Optional.of(entity)).when(courseRepository).findById(entity.getId());
+        // mock cache
+        doReturn(Optional.of(course)).when(courseCache).getCourse(course.getId());
 
         // act
-        assertThat(courseService.requireCourseExisting(entity.getId()), is(entity));
+        assertThat(courseService.requireCourseExisting(course.getId()), is(course));
 
         // verify
-        verify(courseRepository).findById(entity.getId());
+        verify(courseCache).getCourse(course.getId());
+        verifyNoInteractions(courseRepository);
     }
 
     /**
@@ -272,14 +329,36 @@ class CourseServiceTest {
         // arrange
         final UUID id = UUID.randomUUID();
 
-        // mock repository
-        doReturn(Optional.empty()).when(courseRepository).findById(id);
+        // mock cache
+        doReturn(Optional.empty()).when(courseCache).getCourse(id);
 
         // act and assert
         assertThrows(EntityNotFoundException.class, () -> courseService.requireCourseExisting(id));
 
         // verify
-        verify(courseRepository).findById(id);
+        verify(courseCache).getCourse(id);
+    }
+
+    /**
+     * Given a course that is still cached, but was deleted on another replica
+     * When requireCourseStored is called
+     * Then an EntityNotFoundException is thrown, as the database is checked instead of the cache
+     */
+    @Test
+    void testRequireCourseStoredIgnoresCache() {
+        // arrange
+        final Course course = courseMapper.entityToDto(dummyCourseEntityBuilder().build());
+
+        // mock cache and repository
+        lenient().doReturn(Optional.of(course)).when(courseCache).getCourse(course.getId());
+        doReturn(false).when(courseRepository).existsById(course.getId());
+
+        // act and assert
+        assertThrows(EntityNotFoundException.class, () -> courseService.requireCourseStored(course.getId()));
+
+        // verify
+        verify(courseRepository).existsById(course.getId());
+        verifyNoInteractions(courseCache);
     }
 
     private CreateCourseInput.Builder dummyCreateCourseInputBuilder() {
@@ -307,18 +386,4 @@ class CourseServiceTest {
                 .setEndDate(OffsetDateTime.parse("2021-01-01T00:00:00Z"));
     }
 
-    private ChapterEntity dummyChapterBuilder(final UUID courseId) {
-        return ChapterEntity.builder()
-                .id(UUID.randomUUID())
-                .courseId(courseId)
-                .description("TestChapter")
-                .title("Test")
-                .number(1)
-                .startDate(OffsetDateTime.now())
-                .endDate(OffsetDateTime.now())
-                .suggestedStartDate(OffsetDateTime.now())
-                .suggestedEndDate(OffsetDateTime.now())
-                .build();
-    }
-
 }
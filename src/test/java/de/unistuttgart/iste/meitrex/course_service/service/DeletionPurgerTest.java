@@ -0,0 +1,48 @@
+package de.unistuttgart.iste.meitrex.course_service.service;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for {@link DeletionPurger}.
+ */
+class DeletionPurgerTest {
+
+    private final CourseService courseService = mock(CourseService.class);
+    private final ChapterService chapterService = mock(ChapterService.class);
+
+    private final DeletionPurger deletionPurger = new DeletionPurger(courseService, chapterService);
+
+    /**
+     * Given a grace period and a batch size
+     * When the purge runs
+     * Then one batch of courses and chapters deleted before the grace period is purged
+     */
+    @Test
+    void testPurgeUsesGracePeriodAndBatchSize() {
+        ReflectionTestUtils.setField(deletionPurger, "gracePeriod", Duration.ofHours(2));
+        ReflectionTestUtils.setField(deletionPurger, "batchSize", 7);
+        when(courseService.purgeDeletedCourses(any(), eq(7))).thenReturn(2);
+        when(chapterService.purgeDeletedChapters(any(), eq(7))).thenReturn(3);
+
+        final OffsetDateTime before = OffsetDateTime.now().minusHours(2);
+        assertThat(deletionPurger.purge(), is(5));
+        final OffsetDateTime after = OffsetDateTime.now().minusHours(2);
+
+        final ArgumentCaptor<OffsetDateTime> deletedBeforeCaptor = ArgumentCaptor.forClass(OffsetDateTime.class);
+        verify(courseService).purgeDeletedCourses(deletedBeforeCaptor.capture(), eq(7));
+        verify(chapterService).purgeDeletedChapters(deletedBeforeCaptor.getValue(), 7);
+
+        assertThat(deletedBeforeCaptor.getValue(), is(both(greaterThanOrEqualTo(before)).and(lessThanOrEqualTo(after))));
+    }
+}
@@ -0,0 +1,215 @@
+package de.unistuttgart.iste.meitrex.course_service.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import de.unistuttgart.iste.meitrex.common.dapr.TopicPublisher;
+import de.unistuttgart.iste.meitrex.common.event.CrudOperation;
+import de.unistuttgart.iste.meitrex.common.event.ServerSource;
+import de.unistuttgart.iste.meitrex.common.event.UserCourseMembershipChangedEvent;
+import de.unistuttgart.iste.meitrex.course_service.persistence.entity.OutboxEventEntity;
+import de.unistuttgart.iste.meitrex.course_service.persistence.repository.OutboxEventRepository;
+import de.unistuttgart.iste.meitrex.generated.dto.UserRoleInCourse;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for {@link EventOutbox}.
+ */
+class EventOutboxTest {
+
+    private final OutboxEventRepository outboxEventRepository = mock(OutboxEventRepository.class);
+    private final TopicPublisher topicPublisher = mock(TopicPublisher.class);
+    private final CacheInvalidationPublisher cacheInvalidationPublisher = mock(CacheInvalidationPublisher.class);
+
+    private final EventOutbox eventOutbox = new EventOutbox(
+            outboxEventRepository,
+            topicPublisher,
+            cacheInvalidationPublisher,
+            new ObjectMapper().registerModule(new JavaTimeModule()));
+
+    /**
+     * Given events added to the outbox
+     * When the oldest events are published
+     * Then the topic publisher is called with the original events and the events are removed
+     */
+    @Test
+    void testAddedEventsArePublishedInOrder() {
+        final UUID courseId = UUID.randomUUID();
+        final List<UUID> chapterIds = List.of(UUID.randomUUID(), UUID.randomUUID());
+        final UserCourseMembershipChangedEvent membershipEvent = UserCourseMembershipChangedEvent.builder()
+                .courseId(courseId)
+                .userId(UUID.randomUUID())
+                .previousRole(UserRoleInCourse.STUDENT)
+                .newRole(null)
+                .build();
+
+        eventOutbox.notifyUserCourseMembershipChanged(membershipEvent);
+        eventOutbox.notifyChapterChanges(chapterIds, CrudOperation.DELETE);
+        eventOutbox.notifyCourseChanges(courseId, CrudOperation.DELETE);
+
+        final ArgumentCaptor<OutboxEventEntity> outboxEventCaptor = ArgumentCaptor.forClass(OutboxEventEntity.class);
+        verify(outboxEventRepository, times(3)).save(outboxEventCaptor.capture());
+        verifyNoInteractions(topicPublisher);
+
+        final List<OutboxEventEntity> outboxEvents = outboxEventCaptor.getAllValues();
+        when(outboxEventRepository.lockOldestEvents(10)).thenReturn(outboxEvents);
+
+        assertThat(eventOutbox.publishOldestEvents(10), is(3));
+
+        final var inOrder = inOrder(topicPublisher);
+        inOrder.verify(topicPublisher).notifyUserCourseMembershipChanged(membershipEvent);
+        inOrder.verify(topicPublisher).notifyChapterChanges(chapterIds, CrudOperation.DELETE);
+        inOrder.verify(topicPublisher).notifyCourseChanges(courseId, CrudOperation.DELETE);
+        verify(outboxEventRepository).deleteAllInBatch(outboxEvents);
+    }
+
+    /**
+     * Given an event whose publication fails
+     * When the oldest events are published
+     * Then the other events are published and removed and the failed event is kept for a later attempt
+     */
+    @Test
+    void testFailedEventIsRetriedLater() {
+        final UUID failingCourseId = UUID.randomUUID();
+        eventOutbox.notifyCourseChanges(UUID.randomUUID(), CrudOperation.DELETE);
+        eventOutbox.notifyCourseChanges(failingCourseId, CrudOperation.DELETE);
+        eventOutbox.notifyCourseChanges(UUID.randomUUID(), CrudOperation.DELETE);
+
+        final ArgumentCaptor<OutboxEventEntity> outboxEventCaptor = ArgumentCaptor.forClass(OutboxEventEntity.class);
+        verify(outboxEventRepository, times(3)).save(outboxEventCaptor.capture());
+        final List<OutboxEventEntity> outboxEvents = outboxEventCaptor.getAllValues();
+        final OutboxEventEntity failingEvent = outboxEvents.get(1);
+
+        when(outboxEventRepository.lockOldestEvents(10)).thenReturn(outboxEvents);
+        doThrow(new IllegalStateException("sidecar not reachable"))
+                .when(topicPublisher).notifyCourseChanges(failingCourseId, CrudOperation.DELETE);
+
+        assertThat(eventOutbox.publishOldestEvents(10), is(2));
+
+        verify(topicPublisher, times(3)).notifyCourseChanges(any(), any());
+        verify(outboxEventRepository).deleteAllInBatch(List.of(outboxEvents.get(0), outboxEvents.get(2)));
+        verify(outboxEventRepository).saveAll(List.of(failingEvent));
+        assertThat(failingEvent.getAttempts(), is(1));
+        assertThat(failingEvent.getLastError(), containsString("sidecar not reachable"));
+        assertThat(failingEvent.getNextAttemptAt(), is(notNullValue()));
+        assertThat(failingEvent.getDeadLetteredAt(), is(nullValue()));
+    }
+
+    /**
+     * Given an event that failed as often as allowed
+     * When publishing it fails again
+     * Then it is dead-lettered
+     */
+    @Test
+    void testEventIsDeadLetteredAfterMaxAttempts() {
+        ReflectionTestUtils.setField(eventOutbox, "maxAttempts", 3);
+        final UUID failingCourseId = UUID.randomUUID();
+        eventOutbox.notifyCourseChanges(failingCourseId, CrudOperation.DELETE);
+
+        final ArgumentCaptor<OutboxEventEntity> outboxEventCaptor = ArgumentCaptor.forClass(OutboxEventEntity.class);
+        verify(outboxEventRepository).save(outboxEventCaptor.capture());
+        final OutboxEventEntity failingEvent = outboxEventCaptor.getValue();
+        failingEvent.setAttempts(2);
+
+        when(outboxEventRepository.lockOldestEvents(10)).thenReturn(List.of(failingEvent));
+        doThrow(new IllegalStateException("invalid event"))
+                .when(topicPublisher).notifyCourseChanges(failingCourseId, CrudOperation.DELETE);
+
+        assertThat(eventOutbox.publishOldestEvents(10), is(0));
+
+        verify(outboxEventRepository).saveAll(List.of(failingEvent));
+        assertThat(failingEvent.getAttempts(), is(3));
+        assertThat(failingEvent.getDeadLetteredAt(), is(notNullValue()));
+    }
+
+    /**
+     * Given membership change events of more users than fit into one batch
+     * When they are added to the outbox and published
+     * Then one outbox event is stored per batch and every membership change event is published
+     */
+    @Test
+    void testMembershipEventsAreStoredAndPublishedInBatches() {
+        ReflectionTestUtils.setField(eventOutbox, "membershipEventBatchSize", 2);
+        final UUID courseId = UUID.randomUUID();
+        final List<UserCourseMembershipChangedEvent> events = IntStream.range(0, 5)
+                .mapToObj(i -> UserCourseMembershipChangedEvent.builder()
+                        .courseId(courseId)
+                        .userId(UUID.randomUUID())
+                        .previousRole(UserRoleInCourse.STUDENT)
+                        .newRole(null)
+                        .build())
+                .toList();
+
+        eventOutbox.notifyUserCourseMembershipsChanged(events);
+
+        @SuppressWarnings("unchecked") final ArgumentCaptor<List<OutboxEventEntity>> outboxEventsCaptor =
+                ArgumentCaptor.forClass(List.class);
+        verify(outboxEventRepository).saveAll(outboxEventsCaptor.capture());
+        final List<OutboxEventEntity> outboxEvents = outboxEventsCaptor.getValue();
+        assertThat(outboxEvents, hasSize(3));
+
+        when(outboxEventRepository.lockOldestEvents(10)).thenReturn(outboxEvents);
+
+        assertThat(eventOutbox.publishOldestEvents(10), is(3));
+
+        for (final UserCourseMembershipChangedEvent event : events) {
+            verify(topicPublisher).notifyUserCourseMembershipChanged(event);
+        }
+        verify(outboxEventRepository).deleteAllInBatch(outboxEvents);
+    }
+
+    /**
+     * Given a course cache invalidation added to the outbox
+     * When the oldest events are published
+     * Then the invalidation is published to the other replicas and not as a course change event
+     */
+    @Test
+    void testCourseCacheInvalidationIsPublished() {
+        final CourseCache.Invalidation invalidation = new CourseCache.Invalidation(UUID.randomUUID());
+
+        eventOutbox.notifyCourseCacheInvalidated(invalidation);
+
+        final ArgumentCaptor<OutboxEventEntity> outboxEventCaptor = ArgumentCaptor.forClass(OutboxEventEntity.class);
+        verify(outboxEventRepository).save(outboxEventCaptor.capture());
+        when(outboxEventRepository.lockOldestEvents(10)).thenReturn(List.of(outboxEventCaptor.getValue()));
+
+        assertThat(eventOutbox.publishOldestEvents(10), is(1));
+
+        verify(cacheInvalidationPublisher).publish(invalidation);
+        verifyNoInteractions(topicPublisher);
+    }
+
+    /**
+     * Given a chapter notification added to the outbox
+     * When the oldest events are published
+     * Then the notification is published to the members of the course
+     */
+    @Test
+    void testChapterNotificationIsPublished() {
+        final UUID courseId = UUID.randomUUID();
+        final List<UUID> userIds = List.of(UUID.randomUUID(), UUID.randomUUID());
+
+        eventOutbox.notifyChapterNotification(new EventOutbox.ChapterNotification(courseId, userIds,
+                "/courses/" + courseId + "/chapters/1", "New Chapter Unlocked!", "CS101's Chapter 1 is unlocked"));
+
+        final ArgumentCaptor<OutboxEventEntity> outboxEventCaptor = ArgumentCaptor.forClass(OutboxEventEntity.class);
+        verify(outboxEventRepository).save(outboxEventCaptor.capture());
+        verifyNoInteractions(topicPublisher);
+        when(outboxEventRepository.lockOldestEvents(10)).thenReturn(List.of(outboxEventCaptor.getValue()));
+
+        assertThat(eventOutbox.publishOldestEvents(10), is(1));
+
+        verify(topicPublisher).notificationEvent(courseId, userIds, ServerSource.CHAPTER,
+                "/courses/" + courseId + "/chapters/1", "New Chapter Unlocked!", "CS101's Chapter 1 is unlocked");
+    }
+}
@@ -0,0 +1,81 @@
+package de.unistuttgart.iste.meitrex.course_service.service;
+
+import de.unistuttgart.iste.meitrex.course_service.persistence.repository.CourseMembershipRepository;
+import de.unistuttgart.iste.meitrex.generated.dto.UserRoleInCourse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for {@link MembershipCache}.
+ */
+class MembershipCacheTest {
+
+    private final CourseMembershipRepository courseMembershipRepository = mock(CourseMembershipRepository.class);
+    private final EventOutbox eventOutbox = mock(EventOutbox.class);
+
+    private final MembershipCache membershipCache = new MembershipCache(courseMembershipRepository,
+            eventOutbox,
+            new SimpleMeterRegistry(),
+            1000,
+            Duration.ofMinutes(10));
+
+    /**
+     * Given cached memberships of a course and a user
+     * When a membership is created in a transaction
+     * Then the cached entries are updated after the commit without loading them again
+     */
+    @Test
+    void testUpdateAfterCommit() {
+        final UUID courseId = UUID.randomUUID();
+        final UUID userId = UUID.randomUUID();
+        when(courseMembershipRepository.findCourseMembershipEntitiesByCourseId(courseId)).thenReturn(List.of());
+        when(courseMembershipRepository.findByUserId(userId)).thenReturn(List.of());
+        membershipCache.getMembershipsOfCourse(courseId);
+        membershipCache.getMembershipsOfUser(userId);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            membershipCache.update(courseId, userId, UserRoleInCourse.STUDENT);
+
+            // not visible before the commit
+            assertThat(membershipCache.getMembershipsOfCourse(courseId).size(), is(0));
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertThat(membershipCache.getMembershipsOfCourse(courseId).getRole(userId), is(UserRoleInCourse.STUDENT));
+        assertThat(membershipCache.getMembershipsOfUser(userId).getRole(courseId), is(UserRoleInCourse.STUDENT));
+        verify(courseMembershipRepository, times(1)).findCourseMembershipEntitiesByCourseId(courseId);
+        verify(courseMembershipRepository, times(1)).findByUserId(userId);
+        verify(eventOutbox).notifyMembershipCacheInvalidated(new MembershipLookup.Invalidation(courseId, List.of(userId)));
+    }
+
+    /**
+     * Given cached memberships of a course
+     * When an invalidation message of another replica is received
+     * Then the memberships are loaded again
+     */
+    @Test
+    void testInvalidate() {
+        final UUID courseId = UUID.randomUUID();
+        when(courseMembershipRepository.findCourseMembershipEntitiesByCourseId(courseId)).thenReturn(List.of());
+        membershipCache.getMembershipsOfCourse(courseId);
+
+        membershipCache.invalidate(new MembershipLookup.Invalidation(courseId, List.of()));
+        membershipCache.getMembershipsOfCourse(courseId);
+
+        verify(courseMembershipRepository, times(2)).findCourseMembershipEntitiesByCourseId(courseId);
+    }
+}
@@ -0,0 +1,139 @@
+package de.unistuttgart.iste.meitrex.course_service.service;
+
+import de.unistuttgart.iste.meitrex.course_service.persistence.entity.CourseMembershipEntity;
+import de.unistuttgart.iste.meitrex.course_service.persistence.repository.CourseMembershipRepository;
+import de.unistuttgart.iste.meitrex.generated.dto.UserRoleInCourse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for {@link MembershipIndex}.
+ */
+class MembershipIndexTest {
+
+    private final CourseMembershipRepository courseMembershipRepository = mock(CourseMembershipRepository.class);
+    private final EventOutbox eventOutbox = mock(EventOutbox.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final MembershipIndex membershipIndex =
+            new MembershipIndex(courseMembershipRepository, eventOutbox, meterRegistry);
+
+    private final UUID courseId = UUID.randomUUID();
+    private final UUID otherCourseId = UUID.randomUUID();
+    private final UUID userId = UUID.randomUUID();
+    private final UUID otherUserId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        when(courseMembershipRepository.findAll()).thenReturn(List.of(
+                new CourseMembershipEntity(userId, courseId, UserRoleInCourse.ADMINISTRATOR),
+                new CourseMembershipEntity(otherUserId, courseId, UserRoleInCourse.STUDENT),
+                new CourseMembershipEntity(userId, otherCourseId, UserRoleInCourse.TUTOR)));
+        membershipIndex.reload();
+    }
+
+    /**
+     * Given loaded memberships
+     * When the memberships of courses and users are looked up
+     * Then they are answered from the index without querying the database
+     */
+    @Test
+    void testLookupsAreServedFromIndex() {
+        assertThat(membershipIndex.getMembershipsOfCourse(courseId).getIds(), containsInAnyOrder(userId, otherUserId));
+        assertThat(membershipIndex.getMembershipsOfCourse(courseId).getRole(otherUserId), is(UserRoleInCourse.STUDENT));
+        assertThat(membershipIndex.getMembershipsOfUser(userId).getRole(otherCourseId), is(UserRoleInCourse.TUTOR));
+        assertThat(membershipIndex.getMembershipsOfCourse(UUID.randomUUID()).size(), is(0));
+        assertThat(membershipIndex.getMembershipsOfCourses(List.of(courseId, otherCourseId)).get(otherCourseId).getIds(),
+                contains(userId));
+
+        verify(courseMembershipRepository, times(1)).findAll();
+        verifyNoMoreInteractions(courseMembershipRepository);
+        assertThat(meterRegistry.get("membership.index.size").gauge().value(), is(3.0));
+    }
+
+    /**
+     * Given loaded memberships
+     * When memberships are changed and the memberships of a course are removed in transactions
+     * Then the index is updated after the commits and the other replicas are notified
+     */
+    @Test
+    void testMutationsAreAppliedAfterCommit() {
+        final UUID newUserId = UUID.randomUUID();
+
+        inCommittedTransaction(() -> {
+            membershipIndex.update(courseId, newUserId, UserRoleInCourse.TUTOR);
+            membershipIndex.update(courseId, otherUserId, null);
+
+            // not visible before the commit
+            assertThat(membershipIndex.getMembershipsOfCourse(courseId).getRole(newUserId), is(nullValue()));
+        });
+
+        assertThat(membershipIndex.getMembershipsOfCourse(courseId).getIds(), containsInAnyOrder(userId, newUserId));
+        assertThat(membershipIndex.getMembershipsOfUser(newUserId).getRole(courseId), is(UserRoleInCourse.TUTOR));
+        assertThat(membershipIndex.getMembershipsOfUser(otherUserId).size(), is(0));
+
+        inCommittedTransaction(() -> membershipIndex.removeCourse(otherCourseId, List.of(userId)));
+
+        assertThat(membershipIndex.getMembershipsOfCourse(otherCourseId).size(), is(0));
+        assertThat(membershipIndex.getMembershipsOfUser(userId).getIds(), contains(courseId));
+        verify(eventOutbox, times(3)).notifyMembershipCacheInvalidated(any());
+    }
+
+    /**
+     * Given loaded memberships
+     * When an invalidation message of another replica is received
+     * Then the memberships of the course and users are read from the database again
+     */
+    @Test
+    void testInvalidateReadsChangedMemberships() {
+        when(courseMembershipRepository.findCourseMembershipEntitiesByCourseId(courseId))
+                .thenReturn(List.of(new CourseMembershipEntity(userId, courseId, UserRoleInCourse.ADMINISTRATOR)));
+        when(courseMembershipRepository.findByUserId(otherUserId)).thenReturn(List.of());
+
+        membershipIndex.invalidate(new MembershipLookup.Invalidation(courseId, List.of(otherUserId)));
+
+        assertThat(membershipIndex.getMembershipsOfCourse(courseId).getIds(), contains(userId));
+        assertThat(membershipIndex.getMembershipsOfUser(otherUserId).size(), is(0));
+    }
+
+    /**
+     * Given loaded memberships
+     * When a membership is changed while the index is reloaded from memberships that do not contain the change yet
+     * Then the change is kept in the reloaded index
+     */
+    @Test
+    void testChangesDuringReloadAreKept() {
+        final UUID newUserId = UUID.randomUUID();
+        when(courseMembershipRepository.findAll()).thenAnswer(invocation -> {
+            inCommittedTransaction(() -> membershipIndex.update(courseId, newUserId, UserRoleInCourse.STUDENT));
+            return List.of(new CourseMembershipEntity(userId, courseId, UserRoleInCourse.ADMINISTRATOR));
+        });
+
+        membershipIndex.reload();
+
+        assertThat(membershipIndex.getMembershipsOfCourse(courseId).getIds(), containsInAnyOrder(userId, newUserId));
+        assertThat(membershipIndex.getMembershipsOfUser(newUserId).getRole(courseId), is(UserRoleInCourse.STUDENT));
+        assertThat(membershipIndex.getMembershipsOfUser(otherUserId).size(), is(0));
+    }
+
+    private static void inCommittedTransaction(final Runnable action) {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            action.run();
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+}
@@ -1,26 +1,29 @@
 package de.unistuttgart.iste.meitrex.course_service.service;
 
-import de.unistuttgart.iste.meitrex.common.dapr.TopicPublisher;
-import de.unistuttgart.iste.meitrex.course_service.persistence.entity.CourseEntity;
+import de.unistuttgart.iste.meitrex.common.event.UserCourseMembershipChangedEvent;
 import de.unistuttgart.iste.meitrex.course_service.persistence.entity.CourseMembershipEntity;
-import de.unistuttgart.iste.meitrex.course_service.persistence.mapper.CourseMapper;
 import de.unistuttgart.iste.meitrex.course_service.persistence.mapper.MembershipMapper;
+import de.unistuttgart.iste.meitrex.course_service.persistence.mapper.MembershipMapperImpl;
 import de.unistuttgart.iste.meitrex.course_service.persistence.repository.CourseMembershipRepository;
 import de.unistuttgart.iste.meitrex.course_service.persistence.repository.CourseRepository;
 import de.unistuttgart.iste.meitrex.generated.dto.*;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
-import org.modelmapper.ModelMapper;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.time.Duration;
 import java.time.OffsetDateTime;
 import java.util.*;
+import java.util.stream.Collectors;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
-import static org.mockito.Mockito.mock;
-import static org.mockito.Mockito.when;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
 
 class MembershipServiceTest {
 
@@ -28,20 +31,25 @@ class MembershipServiceTest {
 
     private final CourseRepository courseRepository = mock(CourseRepository.class);
 
-    private final ModelMapper modelMapper = new ModelMapper();
+    private final MembershipMapper membershipMapper = new MembershipMapperImpl();
 
-    private final MembershipMapper membershipMapper = new MembershipMapper(modelMapper);
+    private final EventOutbox eventOutbox = mock(EventOutbox.class);
 
-    private final CourseMapper courseMapper = new CourseMapper(modelMapper);
+    private final CourseCache courseCache = mock(CourseCache.class);
 
-    private final TopicPublisher topicPublisher = mock(TopicPublisher.class);
+    private final MembershipCache membershipCache = new MembershipCache(courseMembershipRepository,
+            eventOutbox,
+            new SimpleMeterRegistry(),
+            1000,
+            Duration.ofMinutes(10));
 
     private final MembershipService membershipService = new MembershipService(
             courseMembershipRepository,
             courseRepository,
             membershipMapper,
-            courseMapper,
-            topicPublisher);
+            eventOutbox,
+            courseCache,
+            membershipCache);
 
     @Test
     void getAllMembershipsByUserIdsTest() {
@@ -64,15 +72,10 @@ class MembershipServiceTest {
                     .setCourse(courses.get(i)).build());
         }
 
-        final List<CourseEntity> courseEntities = courses.stream()
-                .map(course -> modelMapper.map(course, CourseEntity.class))
-                .toList();
-
-        //mock repository
+        //mock repository and cache
         when(courseMembershipRepository.findByUserId(userId)).thenReturn(entities);
-        when(courseRepository.getReferenceById(courses.get(0).getId())).thenReturn(courseEntities.get(0));
-        when(courseRepository.getReferenceById(courses.get(1).getId())).thenReturn(courseEntities.get(1));
-        when(courseRepository.getReferenceById(courses.get(2).getId())).thenReturn(courseEntities.get(2));
+        when(courseCache.getExistingCourses(any())).thenReturn(courses.stream()
+                .collect(Collectors.toMap(Course::getId, course -> course)));
 
         // run method under test
         final List<CourseMembership> resultSet = membershipService.getAllMembershipByUserId(userId, null);
@@ -88,62 +91,67 @@ class MembershipServiceTest {
     @Test
     void getMembershipsWithFilter() {
         // init data
-        final List<CourseMembershipEntity> entities = new ArrayList<>();
         final UUID userId = UUID.randomUUID();
-        final List<Course> courses = new ArrayList<>();
-
-        courses.add(Course.builder().setId(UUID.randomUUID()).setPublished(false).build());
-        courses.add(Course.builder().setId(UUID.randomUUID())
-                .setPublished(true)
-                .setStartDate(OffsetDateTime.now().minusDays(3))
-                .setEndDate(OffsetDateTime.now().minusDays(1))
-                .build());
-        courses.add(Course.builder().setId(UUID.randomUUID())
-                .setPublished(true)
-                .setStartDate(OffsetDateTime.now().plusDays(1))
-                .setEndDate(OffsetDateTime.now().plusDays(3))
-                .build());
-
-        final Course onlyAvailableCourse = Course.builder()
-                .setId(UUID.randomUUID())
+        final CourseMembershipEntity availableMembership = CourseMembershipEntity.builder()
+                .userId(userId)
+                .courseId(UUID.randomUUID())
+                .role(UserRoleInCourse.STUDENT).build();
+        final CourseMembershipEntity unavailableMembership = CourseMembershipEntity.builder()
+                .userId(userId)
+                .courseId(UUID.randomUUID())
+                .role(UserRoleInCourse.STUDENT).build();
+
+        final Course availableCourse = Course.builder()
+                .setId(availableMembership.getCourseId())
                 .setPublished(true)
-                .setStartDate(OffsetDateTime.now().minusDays(3))
-                .setEndDate(OffsetDateTime.now().plusDays(3))
+                .setStartDate(OffsetDateTime.now().minusDays(1))
+                .setEndDate(OffsetDateTime.now().plusDays(1))
+                .build();
+        final Course unavailableCourse = Course.builder()
+                .setId(unavailableMembership.getCourseId())
+                .setPublished(false)
+                .setStartDate(OffsetDateTime.now().minusDays(1))
+                .setEndDate(OffsetDateTime.now().plusDays(1))
                 .build();
-        courses.add(onlyAvailableCourse);
-
-        for (int i = 0; i < 4; i++) {
-            entities.add(CourseMembershipEntity.builder()
-                    .userId(userId)
-                    .courseId(courses.get(i).getId())
-                    .role(UserRoleInCourse.STUDENT).build());
-        }
-        final List<CourseEntity> courseEntities = courses.stream()
-                .map(course -> modelMapper.map(course, CourseEntity.class))
-                .toList();
 
-        // mock repository and mapper
-        when(courseMembershipRepository.findByUserId(userId)).thenReturn(entities);
-        when(courseRepository.getReferenceById(courses.get(0).getId())).thenReturn(courseEntities.get(0));
-        when(courseRepository.getReferenceById(courses.get(1).getId())).thenReturn(courseEntities.get(1));
-        when(courseRepository.getReferenceById(courses.get(2).getId())).thenReturn(courseEntities.get(2));
-        when(courseRepository.getReferenceById(courses.get(3).getId())).thenReturn(courseEntities.get(3));
+        // mock repository and cache, the availability is evaluated with the cached courses
+        when(courseMembershipRepository.findByUserId(userId))
+                .thenReturn(List.of(availableMembership, unavailableMembership));
+        when(courseCache.getExistingCourses(any())).thenReturn(Map.of(
+                availableCourse.getId(), availableCourse,
+                unavailableCourse.getId(), unavailableCourse));
 
         // run method under test
         List<CourseMembership> resultSet = membershipService.getAllMembershipByUserId(userId, true);
 
         // compare results
         assertThat(resultSet, hasSize(1));
-        assertThat(resultSet.get(0).getCourseId(), is(onlyAvailableCourse.getId()));
+        assertThat(resultSet.get(0).getCourseId(), is(availableMembership.getCourseId()));
 
         // run method under test but with false as parameter
         resultSet = membershipService.getAllMembershipByUserId(userId, false);
 
         // compare results
-        assertThat(resultSet, hasSize(3));
-        assertThat(resultSet.get(0).getCourseId(), is(courses.get(0).getId()));
-        assertThat(resultSet.get(1).getCourseId(), is(courses.get(1).getId()));
-        assertThat(resultSet.get(2).getCourseId(), is(courses.get(2).getId()));
+        assertThat(resultSet, hasSize(1));
+        assertThat(resultSet.get(0).getCourseId(), is(unavailableMembership.getCourseId()));
+
+        // the memberships are loaded once and the courses are not loaded one by one
+        verify(courseRepository, never()).getReferenceById(any());
+        verify(courseMembershipRepository, times(1)).findByUserId(userId);
+    }
+
+    @Test
+    void getAllMembershipsByUserIdSkipsDeletedCoursesTest() {
+        final UUID userId = UUID.randomUUID();
+        final CourseMembershipEntity membershipOfDeletedCourse = CourseMembershipEntity.builder()
+                .userId(userId)
+                .courseId(UUID.randomUUID())
+                .role(UserRoleInCourse.STUDENT).build();
+
+        when(courseMembershipRepository.findByUserId(userId)).thenReturn(List.of(membershipOfDeletedCourse));
+        when(courseCache.getExistingCourses(any())).thenReturn(Map.of());
+
+        assertThat(membershipService.getAllMembershipByUserId(userId, null), hasSize(0));
     }
 
     @Test
@@ -154,7 +162,10 @@ class MembershipServiceTest {
         List<UUID> mockUserIds = List.of(user1, user2);
 
         // Mock repository behavior
-        when(courseMembershipRepository.findUserIdsByCourseId(courseId)).thenReturn(mockUserIds);
+        when(courseCache.getCourse(courseId)).thenReturn(Optional.of(Course.builder().setId(courseId).build()));
+        when(courseMembershipRepository.findCourseMembershipEntitiesByCourseId(courseId)).thenReturn(mockUserIds.stream()
+                .map(userId -> new CourseMembershipEntity(userId, courseId, UserRoleInCourse.STUDENT))
+                .toList());
 
         // Run method under test
         List<UUID> result = membershipService.getUserIdsOfCourse(courseId);
@@ -163,6 +174,91 @@ class MembershipServiceTest {
         assertEquals(2, result.size());
         assertTrue(result.contains(user1));
         assertTrue(result.contains(user2));
+
+        // the second call is served from the cache
+        assertThat(membershipService.getUserIdsOfCourse(courseId), is(result));
+        verify(courseMembershipRepository, times(1)).findCourseMembershipEntitiesByCourseId(courseId);
+    }
+
+    /**
+     * Given a course that is marked as deleted, i.e., not found by the course cache, but still has memberships
+     * When getUserIdsOfCourse is called
+     * Then no users are returned
+     */
+    @Test
+    void getUserIdsByCourseIdOfDeletedCourseTest() {
+        final UUID courseId = UUID.randomUUID();
+        when(courseCache.getCourse(courseId)).thenReturn(Optional.empty());
+        when(courseMembershipRepository.findCourseMembershipEntitiesByCourseId(courseId)).thenReturn(List.of(
+                new CourseMembershipEntity(UUID.randomUUID(), courseId, UserRoleInCourse.STUDENT)));
+
+        assertThat(membershipService.getUserIdsOfCourse(courseId), hasSize(0));
+    }
+
+    @Test
+    void getMembershipsOfCoursesTest() {
+        final UUID courseId1 = UUID.randomUUID();
+        final UUID courseId2 = UUID.randomUUID();
+        final UUID courseWithoutMembers = UUID.randomUUID();
+        final List<UUID> courseIds = List.of(courseId1, courseId2, courseWithoutMembers);
+
+        final List<CourseMembershipEntity> entities = List.of(
+                CourseMembershipEntity.builder().userId(UUID.randomUUID()).courseId(courseId1)
+                        .role(UserRoleInCourse.STUDENT).build(),
+                CourseMembershipEntity.builder().userId(UUID.randomUUID()).courseId(courseId1)
+                        .role(UserRoleInCourse.TUTOR).build(),
+                CourseMembershipEntity.builder().userId(UUID.randomUUID()).courseId(courseId2)
+                        .role(UserRoleInCourse.ADMINISTRATOR).build());
+
+        // Mock repository behavior
+        when(courseMembershipRepository.findByCourseIdIn(argThat(ids -> ids.containsAll(courseIds))))
+                .thenReturn(entities);
+
+        // Run method under test
+        final Map<UUID, List<CourseMembership>> result = membershipService.getMembershipsOfCourses(courseIds);
+
+        // Assert
+        assertThat(result.get(courseId1), hasSize(2));
+        assertThat(result.get(courseId2), hasSize(1));
+        assertThat(result.get(courseWithoutMembers), hasSize(0));
+
+        // the existence of the courses is not checked again
+        verify(courseRepository, never()).existsById(any());
+    }
+
+    @Test
+    void deleteMembershipByCourseIdPublishesEventsInBulkTest() {
+        final UUID courseId = UUID.randomUUID();
+        final List<CourseMembershipEntity> entities = List.of(
+                CourseMembershipEntity.builder().userId(UUID.randomUUID()).courseId(courseId)
+                        .role(UserRoleInCourse.STUDENT).build(),
+                CourseMembershipEntity.builder().userId(UUID.randomUUID()).courseId(courseId)
+                        .role(UserRoleInCourse.ADMINISTRATOR).build());
+
+        // Mock repository behavior
+        when(courseMembershipRepository.lockByCourseId(courseId)).thenReturn(entities);
+
+        // Run method under test
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            membershipService.deleteMembershipByCourseId(courseId);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        // Assert that all events are handed to the outbox at once
+        verify(eventOutbox).notifyUserCourseMembershipsChanged(entities.stream()
+                .map(entity -> UserCourseMembershipChangedEvent.builder()
+                        .courseId(courseId)
+                        .userId(entity.getUserId())
+                        .previousRole(entity.getRole())
+                        .newRole(null)
+                        .build())
+                .toList());
+        verify(courseMembershipRepository).deleteAllByCourseId(courseId);
+        verify(eventOutbox, never()).notifyUserCourseMembershipChanged(any());
+        verify(eventOutbox).notifyMembershipCacheInvalidated(new MembershipLookup.Invalidation(courseId,
+                entities.stream().map(CourseMembershipEntity::getUserId).toList()));
     }
 
-}
\ No newline at end of file
+}